@@ -0,0 +1,244 @@
+package unicon.matthews.dataloader.canvas;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Local stand-in of the Canvas Data API, serving the dumps of a directory laid out as the API client downloads them:
+ * dated directories holding <em>dump-metadata.json</em> and a directory of data files per table.
+ *
+ * <p>It answers the latest dump, dump list and dump by id resources the client uses, and rejects requests whose
+ * <em>HMACAuth</em> signature does not match the one <code>CanvasDataApiClient</code> builds from the method, host,
+ * path, query string, date and secret. The data file URLs of the metadata point back at this server, which serves the
+ * files with support for the range requests the client resumes downloads with.</p>
+ */
+class CanvasDataApiStub implements AutoCloseable {
+
+    private static final String API_PATH = "/api/account/self/";
+    private static final String FILES_PATH = "/files/";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path rootDirectory;
+    private final String key;
+    private final String secret;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final String host;
+    // Metadata of each dump, by ascending sequence
+    private final List<ObjectNode> dumps = new ArrayList<>();
+    private final AtomicLong servedBytes = new AtomicLong();
+
+    /**
+     * @param rootDirectory directory holding the dated dump directories
+     * @param key API key the client is configured with
+     * @param secret API secret the client is configured with
+     */
+    CanvasDataApiStub(Path rootDirectory, String key, String secret) throws IOException {
+        this.rootDirectory = rootDirectory.toAbsolutePath().normalize();
+        this.key = key;
+        this.secret = secret;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.host = InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getAddress().getPort();
+
+        try (Stream<Path> dumpDirectories = Files.list(this.rootDirectory)) {
+            for (Path metadataFile : (Iterable<Path>) dumpDirectories
+                    .map(directory -> directory.resolve("dump-metadata.json")).filter(Files::exists)::iterator) {
+                dumps.add(servedFromHere((ObjectNode) objectMapper.readTree(metadataFile.toFile()),
+                        metadataFile.getParent()));
+            }
+        }
+        dumps.sort(Comparator.comparingLong(dump -> dump.path("sequence").asLong()));
+        if (dumps.isEmpty()) {
+            throw new IllegalArgumentException(String.format("%s holds no dumps", rootDirectory));
+        }
+
+        server.createContext(API_PATH, this::handleApiRequest);
+        server.createContext(FILES_PATH, this::handleFileRequest);
+        server.setExecutor(executor);
+        server.start();
+        logger.info("Serving {} Canvas data dumps of {} at http://{}", dumps.size(), rootDirectory, host);
+    }
+
+    /**
+     * @return host and port to configure as <code>canvas.baseurl</code>, along with the <em>http</em> protocol
+     */
+    String getHost() {
+        return host;
+    }
+
+    long getServedBytes() {
+        return servedBytes.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private ObjectNode servedFromHere(ObjectNode dump, Path dumpDirectory) {
+        for (JsonNode artifact : dump.path("artifactsByTable")) {
+            for (JsonNode file : artifact.path("files")) {
+                Path dataFile = dumpDirectory.resolve(artifact.path("tableName").asText())
+                        .resolve(file.path("filename").asText());
+                String relativePath = rootDirectory.relativize(dataFile.toAbsolutePath().normalize()).toString();
+                ((ObjectNode) file).put("url", "http://" + host + FILES_PATH + relativePath.replace('\\', '/'));
+            }
+        }
+        return dump;
+    }
+
+    private void handleApiRequest(HttpExchange exchange) throws IOException {
+        try {
+            URI uri = exchange.getRequestURI();
+            if (!isSigned(exchange)) {
+                respond(exchange, 401, null);
+                return;
+            }
+            String path = uri.getPath();
+            if (path.equals(API_PATH + "file/latest")) {
+                respond(exchange, 200, dumps.get(dumps.size() - 1));
+            } else if (path.equals(API_PATH + "dump")) {
+                respond(exchange, 200, dumpsAfter(uri.getRawQuery()));
+            } else if (path.startsWith(API_PATH + "file/byDump/")) {
+                String dumpId = path.substring((API_PATH + "file/byDump/").length());
+                ObjectNode dump = dumps.stream().filter(candidate -> dumpId.equals(candidate.path("dumpId").asText()))
+                        .findFirst().orElse(null);
+                respond(exchange, dump != null ? 200 : 404, dump);
+            } else {
+                respond(exchange, 404, null);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Lists the dumps after the sequence number of the <em>after</em> parameter, up to <em>limit</em> of them, without
+     * their artifacts as Canvas does.
+     */
+    private ArrayNode dumpsAfter(String query) {
+        long after = 0;
+        long limit = 50;
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                String[] nameAndValue = parameter.split("=", 2);
+                if (nameAndValue[0].equals("after")) {
+                    after = Long.parseLong(nameAndValue[1]);
+                } else if (nameAndValue[0].equals("limit")) {
+                    limit = Long.parseLong(nameAndValue[1]);
+                }
+            }
+        }
+        ArrayNode result = objectMapper.createArrayNode();
+        for (ObjectNode dump : dumps) {
+            if (dump.path("sequence").asLong() > after && result.size() < limit) {
+                result.add(dump.deepCopy().without("artifactsByTable"));
+            }
+        }
+        return result;
+    }
+
+    private boolean isSigned(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        String date = exchange.getRequestHeaders().getFirst("Date");
+        String expectedPrefix = "HMACAuth " + key + ":";
+        if (authorization == null || date == null || !authorization.startsWith(expectedPrefix)) {
+            logger.warn("Rejecting unsigned request {}", exchange.getRequestURI());
+            return false;
+        }
+        String query = exchange.getRequestURI().getRawQuery();
+        StringJoiner message = new StringJoiner("\n")
+                .add(exchange.getRequestMethod()).add(host).add("").add("")
+                .add(exchange.getRequestURI().getRawPath()).add(query != null ? query : "").add(date).add(secret);
+        try {
+            Mac hmac = Mac.getInstance("HmacSHA256");
+            hmac.init(new SecretKeySpec(secret.getBytes(), "HmacSHA256"));
+            byte[] signature = Base64.getEncoder().encode(hmac.doFinal(message.toString().getBytes()));
+            if (MessageDigest.isEqual(signature,
+                    authorization.substring(expectedPrefix.length()).getBytes(StandardCharsets.US_ASCII))) {
+                return true;
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        logger.warn("Rejecting request {} with a signature which does not match", exchange.getRequestURI());
+        return false;
+    }
+
+    private void handleFileRequest(HttpExchange exchange) throws IOException {
+        try {
+            Path file = rootDirectory.resolve(exchange.getRequestURI().getPath().substring(FILES_PATH.length()))
+                    .normalize();
+            if (!file.startsWith(rootDirectory) || !Files.isRegularFile(file)) {
+                respond(exchange, 404, null);
+                return;
+            }
+            long size = Files.size(file);
+            long offset = 0;
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            if (range != null && range.startsWith("bytes=") && range.endsWith("-")) {
+                offset = Long.parseLong(range.substring("bytes=".length(), range.length() - 1));
+                if (offset >= size) {
+                    respond(exchange, 416, null);
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Range",
+                        String.format("bytes %d-%d/%d", offset, size - 1, size));
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(offset > 0 ? 206 : 200, size - offset);
+            try (InputStream in = Files.newInputStream(file); OutputStream out = exchange.getResponseBody()) {
+                IOUtils.skipFully(in, offset);
+                servedBytes.addAndGet(IOUtils.copyLarge(in, out));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
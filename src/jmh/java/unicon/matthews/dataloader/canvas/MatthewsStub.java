@@ -0,0 +1,233 @@
+package unicon.matthews.dataloader.canvas;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in of the Matthews API which accepts everything the loader posts and counts it rather than storing it.
+ *
+ * <p>Logins are answered with a token which later requests must carry, the latest data sync is answered with none so
+ * the loader loads every dump of its default window, and posted bodies are streamed through a JSON parser to count the
+ * entities of each post, or the events of each Caliper envelope, without binding them. The counts are kept by
+ * endpoint, with the class of enrollment and line item paths folded into a placeholder.</p>
+ *
+ * <p>It can stand in for a Matthews without bulk endpoints, answering bulk posts with 404 as such a Matthews does, so
+ * the loader falls back to posting entities one at a time. The rejected bulk posts are counted, with no entities
+ * received.</p>
+ */
+class MatthewsStub implements AutoCloseable {
+
+    private static final String TOKEN = "offline-load-harness";
+    private static final Pattern CLASS_PATH = Pattern.compile("^/api/classes/(?!mapping(?:/|$)|bulk$)[^/]+/");
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final boolean bulkSupported;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, EndpointCounts> countsByEndpoint = new ConcurrentHashMap<>();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder entities = new LongAdder();
+    private final LongAdder dataSyncs = new LongAdder();
+
+    /**
+     * @param bulkSupported whether bulk posts are accepted, or answered with 404
+     */
+    MatthewsStub(boolean bulkSupported) throws IOException {
+        this.bulkSupported = bulkSupported;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        logger.info("Accepting Matthews posts at {}", getBaseUrl());
+    }
+
+    /**
+     * @return URL to configure as <code>matthews.baseurl</code>
+     */
+    String getBaseUrl() {
+        return "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getAddress().getPort();
+    }
+
+    long getEvents() {
+        return events.sum();
+    }
+
+    long getEntities() {
+        return entities.sum();
+    }
+
+    long getDataSyncs() {
+        return dataSyncs.sum();
+    }
+
+    /**
+     * @return requests, bytes and entities or events received by endpoint, in endpoint order
+     */
+    Map<String, EndpointCounts> getCountsByEndpoint() {
+        return new TreeMap<>(countsByEndpoint);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            if (method.equals("POST") && path.equals("/api/auth/login")) {
+                IOUtils.skip(exchange.getRequestBody(), Long.MAX_VALUE);
+                respond(exchange, 200, "{\"token\":\"" + TOKEN + "\"}");
+                return;
+            }
+            if (!("Bearer " + TOKEN).equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                respond(exchange, 401, null);
+                return;
+            }
+            if (method.equals("GET") && path.startsWith("/api/sync/") && path.endsWith("/latest")) {
+                respond(exchange, 200, null);
+                return;
+            }
+            if (!method.equals("POST")) {
+                respond(exchange, 404, null);
+                return;
+            }
+
+            EndpointCounts counts = countsByEndpoint.computeIfAbsent(
+                    method + " " + CLASS_PATH.matcher(path).replaceFirst("/api/classes/{classSourcedId}/"),
+                    endpoint -> new EndpointCounts());
+            long received;
+            CountingInputStream body = new CountingInputStream(exchange.getRequestBody());
+            if (!bulkSupported && path.endsWith("/bulk")) {
+                IOUtils.skip(body, Long.MAX_VALUE);
+                counts.requests.increment();
+                counts.bytes.add(body.getByteCount());
+                respond(exchange, 404, null);
+                return;
+            }
+            if (path.equals("/api/caliper")) {
+                received = countDataElements(body);
+                events.add(received);
+            } else {
+                received = countEntities(body);
+                if (path.equals("/api/sync")) {
+                    dataSyncs.increment();
+                } else {
+                    entities.add(received);
+                }
+            }
+            IOUtils.skip(body, Long.MAX_VALUE);
+            counts.requests.increment();
+            counts.bytes.add(body.getByteCount());
+            counts.received.add(received);
+            respond(exchange, 200, "{}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Counts the elements of a body which is an array, or one for an object.
+     */
+    private long countEntities(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            JsonToken token = parser.nextToken();
+            if (token != JsonToken.START_ARRAY) {
+                return token == null ? 0 : 1;
+            }
+            return countElements(parser);
+        }
+    }
+
+    /**
+     * Counts the elements of the <em>data</em> array of an envelope.
+     */
+    private long countDataElements(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return 0;
+            }
+            long count = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean data = "data".equals(parser.getCurrentName());
+                if (parser.nextToken() == JsonToken.START_ARRAY && data) {
+                    count += countElements(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return count;
+        }
+    }
+
+    private static long countElements(JsonParser parser) throws IOException {
+        long count = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+            count++;
+        }
+        return count;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static class EndpointCounts {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder received = new LongAdder();
+
+        long getRequests() {
+            return requests.sum();
+        }
+
+        long getBytes() {
+            return bytes.sum();
+        }
+
+        /**
+         * @return entities, or events for the Caliper endpoint, received
+         */
+        long getReceived() {
+            return received.sum();
+        }
+    }
+}
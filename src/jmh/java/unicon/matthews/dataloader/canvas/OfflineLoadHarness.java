@@ -0,0 +1,108 @@
+package unicon.matthews.dataloader.canvas;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import unicon.matthews.dataloader.canvas.io.deserialize.SyntheticCanvasDump;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the loader end to end without network access: a {@link SyntheticCanvasDump} is generated and served by a
+ * {@link CanvasDataApiStub}, the loader downloads, reads and converts it as it would a Canvas dump, and posts it to a
+ * {@link MatthewsStub}. Only the loader run is timed, not the generation of the dump or the start of the context, and
+ * the rows read and events posted per second are reported along with what the stand-in of Matthews received.
+ *
+ * <p>Arguments are <code>name=value</code> settings of the generated dump and <code>--property=value</code> settings
+ * of the loader, which override those pointing it at the stand-ins, e.g.
+ * <code>users=50000 requestsPerUser=100 --reader.parallelism=4</code>. <code>matthewsBulk=false</code> has the
+ * stand-in of Matthews reject bulk posts, to run the loader's fallback to posting entities one at a time. The load
+ * fails unless it ends by posting a data sync, as the loader itself logs rather than throws its failures.</p>
+ */
+public class OfflineLoadHarness {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfflineLoadHarness.class);
+
+    private static final String CANVAS_KEY = "offline-key";
+    private static final String CANVAS_SECRET = "offline-secret";
+
+    public static void main(String[] args) throws Exception {
+        // Dumps are listed by their sequence number, counted in days back from the latest, and the loader starts three
+        // months back, so the latest dump must not be numbered as if it were the first
+        SyntheticCanvasDump.Builder generator = SyntheticCanvasDump.builder().withSequence(100);
+        Map<String, String> loaderProperties = new LinkedHashMap<>();
+        Map<String, String> overrides = new LinkedHashMap<>();
+        boolean matthewsBulk = true;
+        for (String arg : args) {
+            String[] nameAndValue = arg.split("=", 2);
+            if (nameAndValue.length != 2) {
+                throw new IllegalArgumentException(String.format("Expected name=value rather than %s", arg));
+            }
+            if (arg.startsWith("--")) {
+                overrides.put(nameAndValue[0].substring(2), nameAndValue[1]);
+            } else if (nameAndValue[0].equals("matthewsBulk")) {
+                matthewsBulk = Boolean.parseBoolean(nameAndValue[1]);
+            } else {
+                generator.with(nameAndValue[0], nameAndValue[1]);
+            }
+        }
+
+        Path workDirectory = Files.createTempDirectory("offline-load");
+        try {
+            SyntheticCanvasDump dump = generator.build();
+            dump.writeTo(workDirectory.resolve("canvas"));
+            long rows = dump.getRowsByTable().values().stream().mapToLong(Long::longValue).sum();
+
+            try (CanvasDataApiStub canvas = new CanvasDataApiStub(workDirectory.resolve("canvas"), CANVAS_KEY,
+                    CANVAS_SECRET); MatthewsStub matthews = new MatthewsStub(matthewsBulk)) {
+                loaderProperties.put("canvas.protocol", "http");
+                loaderProperties.put("canvas.baseurl", canvas.getHost());
+                loaderProperties.put("canvas.apikey", CANVAS_KEY);
+                loaderProperties.put("canvas.apisecret", CANVAS_SECRET);
+                loaderProperties.put("matthews.baseurl", matthews.getBaseUrl());
+                loaderProperties.put("matthews.apikey", "offline-key");
+                loaderProperties.put("matthews.apisecret", "offline-secret");
+                loaderProperties.put("downloads.root.directory", workDirectory.resolve("downloads").toString());
+                loaderProperties.put("spring.profiles.active", "prod");
+                // Repeated command line properties would be joined rather than overridden
+                loaderProperties.putAll(overrides);
+
+                long elapsedNanos;
+                try (ConfigurableApplicationContext context = new SpringApplicationBuilder(App.class).web(false)
+                        .run(loaderProperties.entrySet().stream()
+                                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                                .toArray(String[]::new))) {
+                    long startNanos = System.nanoTime();
+                    context.getBean(CanvasDataLoader.class).run();
+                    elapsedNanos = System.nanoTime() - startNanos;
+                }
+
+                if (matthews.getDataSyncs() == 0) {
+                    throw new IllegalStateException(
+                            "The load posted no data sync to Matthews; see the log for its failure");
+                }
+                double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+                logger.info("Loaded {} rows of {} bytes in {} s: {} rows/s, {} events/s",
+                        rows, canvas.getServedBytes(), String.format("%.1f", seconds),
+                        String.format("%.0f", rows / seconds), String.format("%.0f", matthews.getEvents() / seconds));
+                logger.info("Matthews received {} entities and {} events", matthews.getEntities(),
+                        matthews.getEvents());
+                matthews.getCountsByEndpoint().forEach((endpoint, counts) ->
+                        logger.info("  {}: {} requests, {} bytes, {} received", endpoint, counts.getRequests(),
+                                counts.getBytes(), counts.getReceived()));
+            }
+        } finally {
+            try {
+                SyntheticCanvasDump.delete(workDirectory);
+            } catch (IOException e) {
+                logger.warn("Could not delete {}", workDirectory, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package unicon.matthews.dataloader.canvas.io.converter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CanvasConversionService#convertPageRequests} over the requests of a generated dump, joined against
+ * a roster of <code>users</code> users enrolled in <code>enrollmentsPerUser</code> of <code>sections</code> sections,
+ * both collecting the events and streaming them to a consumer as the page request stage does. The score is the time
+ * to convert all <code>users * requestsPerUser</code> requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CanvasConversionServiceBenchmark {
+
+    @Param({ "20000" })
+    private int users;
+
+    @Param({ "2000" })
+    private int sections;
+
+    @Param({ "5" })
+    private int enrollmentsPerUser;
+
+    @Param({ "10" })
+    private int requestsPerUser;
+
+    @Param({ "1", "4" })
+    private int parallelism;
+
+    private ConversionFixture fixture;
+
+    @Setup
+    public void generateDump() throws Exception {
+        fixture = new ConversionFixture(users, sections, enrollmentsPerUser, requestsPerUser, parallelism);
+    }
+
+    @TearDown
+    public void closeContext() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public void collected(Blackhole blackhole) {
+        blackhole.consume(fixture.getConversionService().convertPageRequests(fixture.getPageRequests(),
+                fixture.getSupportingEntities()));
+    }
+
+    @Benchmark
+    public void streamed(Blackhole blackhole) {
+        blackhole.consume(fixture.getConversionService().convertPageRequests(fixture.getPageRequests().stream(),
+                fixture.getSupportingEntities(), blackhole::consume));
+    }
+}
@@ -0,0 +1,145 @@
+package unicon.matthews.dataloader.canvas.io.converter;
+
+import ch.qos.logback.classic.Level;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import unicon.matthews.dataloader.canvas.io.deserialize.CanvasDataDumpReader;
+import unicon.matthews.dataloader.canvas.io.deserialize.SyntheticCanvasDump;
+import unicon.matthews.dataloader.canvas.model.CanvasCommunicationChannelDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasCourseSectionDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasDataDump;
+import unicon.matthews.dataloader.canvas.model.CanvasDataPseudonymDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasEnrollmentDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasEnrollmentTermDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasPageRequest;
+import unicon.matthews.dataloader.canvas.model.CanvasUserDimension;
+import unicon.matthews.oneroster.Enrollment;
+import unicon.matthews.oneroster.User;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Roster and page requests of a {@link SyntheticCanvasDump}, read into memory, with the conversion service and
+ * converters of a Spring context scanning the converter package, for the conversion and serialization benchmarks.
+ *
+ * <p>The roster is converted by the service into the entities the event converters join against, the way the loader
+ * converts a dump. The dump has no line items or discussion entries, which are not converted here, so its requests of
+ * those are made of their courses instead, and its logins carry no user and are resolved through their session, so
+ * the converters take their join paths rather than returning early.</p>
+ */
+class ConversionFixture implements AutoCloseable {
+
+    private final AnnotationConfigApplicationContext context;
+    private final CanvasConversionService conversionService;
+    private final SupportingEntities supportingEntities;
+    private final List<CanvasPageRequest> pageRequests;
+
+    /**
+     * @param parallelism conversion parallelism of the service
+     */
+    ConversionFixture(int users, int sections, int enrollmentsPerUser, int requestsPerUser, int parallelism)
+            throws Exception {
+        SyntheticCanvasDump generator = SyntheticCanvasDump.builder().withUsers(users).withSections(sections)
+                .withEnrollmentsPerUser(enrollmentsPerUser).withRequestsPerUser(requestsPerUser)
+                .withAssignmentsPerSection(0).withQuizzesPerSection(0).withDiscussionEntriesPerUser(0).build();
+        // Converters log each row at TRACE and routing at DEBUG; the benchmarks measure conversion, not logging
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(Level.INFO);
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Collections.singletonMap("conversion.parallelism", parallelism)));
+        context.register(Converters.class);
+        context.refresh();
+        conversionService = context.getBean(CanvasConversionService.class);
+
+        Collection<CanvasEnrollmentTermDimension> enrollmentTerms;
+        Collection<CanvasCourseSectionDimension> sectionDimensions;
+        Collection<CanvasUserDimension> userDimensions;
+        Collection<CanvasDataPseudonymDimension> pseudonymDimensions;
+        Collection<CanvasCommunicationChannelDimension> communicationChannels;
+        Collection<CanvasEnrollmentDimension> enrollmentDimensions;
+        Path directory = Files.createTempDirectory("conversion-benchmark");
+        try {
+            CanvasDataDump dump = generator.writeTo(directory);
+            enrollmentTerms = CanvasDataDumpReader.forType(CanvasEnrollmentTermDimension.class).read(dump);
+            sectionDimensions = CanvasDataDumpReader.forType(CanvasCourseSectionDimension.class).read(dump);
+            userDimensions = CanvasDataDumpReader.forType(CanvasUserDimension.class).read(dump);
+            pseudonymDimensions = CanvasDataDumpReader.forType(CanvasDataPseudonymDimension.class).read(dump);
+            communicationChannels = CanvasDataDumpReader.forType(CanvasCommunicationChannelDimension.class).read(dump);
+            enrollmentDimensions = CanvasDataDumpReader.forType(CanvasEnrollmentDimension.class).read(dump);
+            pageRequests = new ArrayList<>(CanvasDataDumpReader.forType(CanvasPageRequest.class).withFastParser()
+                    .read(dump));
+        } finally {
+            SyntheticCanvasDump.delete(directory);
+        }
+
+        Map<String, String> userEmailMap = new HashMap<>();
+        for (CanvasCommunicationChannelDimension channel : communicationChannels) {
+            if ("email".equalsIgnoreCase(channel.getType())) {
+                userEmailMap.put(String.valueOf(channel.getUserId().get()), channel.getAddress());
+            }
+        }
+
+        SupportingEntities roster = SupportingEntities.builder()
+                .enrollmentTerms(enrollmentTerms)
+                .userEmailMap(userEmailMap)
+                .build();
+        roster.setClasses(bySourcedId(conversionService.convertCanvasCourseSections(sectionDimensions, roster),
+                unicon.matthews.oneroster.Class::getSourcedId));
+        roster.setUsers(bySourcedId(conversionService.convertCanvasUsers(userDimensions, roster),
+                User::getSourcedId));
+        Map<String, Enrollment> enrollments = bySourcedId(
+                conversionService.convertCanvasEnrollments(enrollmentDimensions, roster), Enrollment::getSourcedId);
+
+        supportingEntities = SupportingEntities.builder()
+                .classes(roster.getClasses())
+                .userEmailMap(userEmailMap)
+                .users(roster.getUsers())
+                .canvasUserDimensions(userDimensions)
+                .pseudonymDimensions(pseudonymDimensions)
+                .enrollments(enrollments)
+                .lineItems(Collections.emptyMap())
+                .sessionUserIndex(SessionUserIndex.of(pageRequests))
+                .enrollmentTerms(enrollmentTerms)
+                .build();
+    }
+
+    CanvasConversionService getConversionService() {
+        return conversionService;
+    }
+
+    SupportingEntities getSupportingEntities() {
+        return supportingEntities;
+    }
+
+    List<CanvasPageRequest> getPageRequests() {
+        return pageRequests;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    @Configuration
+    @ComponentScan(basePackageClasses = CanvasConversionService.class)
+    static class Converters {
+    }
+
+    private static <T> Map<String, T> bySourcedId(List<T> entities, Function<T, String> sourcedId) {
+        return entities.stream().collect(Collectors.toMap(sourcedId, Function.identity()));
+    }
+}
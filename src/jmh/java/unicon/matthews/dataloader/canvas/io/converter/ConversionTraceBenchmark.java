@@ -0,0 +1,110 @@
+package unicon.matthews.dataloader.canvas.io.converter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import unicon.matthews.dataloader.canvas.model.CanvasPageRequest;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per row logging the conversion service used to do, formatting every source row and result at DEBUG,
+ * against recording conversions in a {@link ConversionTrace} with the given sample rate. Logging goes through a
+ * logback appender with the Spring Boot console pattern writing to a null stream, so the score includes formatting but
+ * not terminal output. The score is the time to record one conversion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ConversionTraceBenchmark {
+
+    private static final String LOGGER_NAME = "benchmark.conversion";
+
+    @Param({ "0", "0.01" })
+    private double sampleRate;
+
+    private Logger logger;
+    private ConversionTrace trace;
+    private OutputStreamAppender<ILoggingEvent> appender;
+    private CanvasPageRequest source;
+    private CanvasPageRequest result;
+
+    @Setup
+    public void configureLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} %5p %t --- %-40.40logger{39} : %m%n");
+        encoder.start();
+        appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+        appender.start();
+        for (String name : new String[] { LOGGER_NAME, ConversionTrace.class.getName() }) {
+            ch.qos.logback.classic.Logger logbackLogger = context.getLogger(name);
+            logbackLogger.detachAndStopAllAppenders();
+            logbackLogger.setAdditive(false);
+            logbackLogger.setLevel(Level.DEBUG);
+            logbackLogger.addAppender(appender);
+        }
+        logger = LoggerFactory.getLogger(LOGGER_NAME);
+        trace = new ConversionTrace(sampleRate);
+        source = pageRequest("4412839457345");
+        result = pageRequest("4412839457346");
+    }
+
+    @TearDown
+    public void stopLogging() {
+        appender.stop();
+    }
+
+    @Benchmark
+    public void debugEveryRow() {
+        logger.debug("Page Request Conversion PROCESSED by converter {} : From {} > EVENT: {}",
+                ConversionTraceBenchmark.class.getSimpleName(), source.toString(), result.toString());
+    }
+
+    @Benchmark
+    public void traceSampledRows() {
+        trace.converted(ConversionTraceBenchmark.class, source, result, 0);
+    }
+
+    private static CanvasPageRequest pageRequest(String id) {
+        CanvasPageRequest request = new CanvasPageRequest();
+        request.setId(id);
+        request.setTimestamp(Instant.parse("2017-01-22T10:15:30.123Z"));
+        request.setUserId(Optional.of(170000000056789L));
+        request.setCourseId(Optional.of(170000000001234L));
+        request.setUrl("https://canvas.example.edu/courses/1234/quizzes/5678");
+        request.setUserAgent("Mozilla/5.0 (Macintosh; Intel Mac OS X 10_12_2) AppleWebKit/537.36 (KHTML, like Gecko)");
+        request.setHttpMthod("GET");
+        request.setWebApplicationController("quizzes/quizzes");
+        request.setWebApplicationAction("show");
+        request.setSessionId("a4c2e1f0b9d8c7e6f5a4b3c2d1e0f9a8");
+        request.setHttpStatus("200");
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package unicon.matthews.dataloader.canvas.io.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import unicon.matthews.caliper.Envelope;
+import unicon.matthews.caliper.Event;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson serialization of a Caliper {@link Envelope} of <code>batchSize</code> events, as the rest
+ * template writes each event batch posted to Matthews, and of measuring the size of each event of the batch, as the
+ * event sink does when batches are limited by bytes. The events are converted from the page requests of a generated
+ * dump, and the object mapper is configured as the application configures it. The score is the time per envelope.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EnvelopeSerializationBenchmark {
+
+    @Param({ "100", "500" })
+    private int batchSize;
+
+    private ObjectMapper objectMapper;
+    private Envelope envelope;
+    private List<Event> events;
+
+    @Setup
+    public void convertEvents() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+
+        try (ConversionFixture fixture = new ConversionFixture(2000, 200, 5, 2, 1)) {
+            List<Event> converted = fixture.getConversionService().convertPageRequests(fixture.getPageRequests(),
+                    fixture.getSupportingEntities());
+            if (converted.size() < batchSize) {
+                throw new IllegalStateException(String.format("Converted %d events, fewer than a batch of %d",
+                        converted.size(), batchSize));
+            }
+            events = converted.subList(0, batchSize);
+        }
+        envelope = new Envelope.Builder()
+                .withData(events)
+                .withSendTime(LocalDateTime.now())
+                .withSensor("canvas-matthews-data-loader/benchmark")
+                .build();
+    }
+
+    @Benchmark
+    public byte[] envelope() throws IOException {
+        return objectMapper.writeValueAsBytes(envelope);
+    }
+
+    @Benchmark
+    public void eventSizes(Blackhole blackhole) throws IOException {
+        for (Event event : events) {
+            try (CountingOutputStream out = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM)) {
+                objectMapper.writeValue(out, event);
+                blackhole.consume(out.getByteCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import unicon.matthews.dataloader.canvas.model.CanvasDataDump;
+import unicon.matthews.dataloader.canvas.model.CanvasPageRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares the parse throughput of the Jackson <code>CsvMapper</code> path and the byte level TSV parser of
+ * {@link CanvasDataDumpReader} on the <em>requests</em> table of a {@link SyntheticCanvasDump}, and of the fast parser
+ * with the columns the page request converters use projected and of reading the table from its columnar snapshot. The
+ * score is the time to stream every row of the table, so rows per second is <code>users * requestsPerUser</code>
+ * divided by the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CanvasDataDumpReaderBenchmark {
+
+    // Request columns the page request converters use, as the loader projects them
+    private static final String[] CONVERTED_COLUMNS = { "id", "timestamp", "user_id", "course_id", "root_account_id",
+            "quiz_id", "discussion_id", "conversation_id", "assignment_id", "url", "http_method",
+            "web_application_controller", "web_applicaiton_action", "session_id", "http_status" };
+
+    @Param({ "2000" })
+    private int users;
+
+    @Param({ "50" })
+    private int requestsPerUser;
+
+    private Path directory;
+    private CanvasDataDump dump;
+
+    @Setup
+    public void writeDump() throws IOException {
+        directory = Files.createTempDirectory("requests-benchmark");
+        dump = SyntheticCanvasDump.builder().withUsers(users).withRequestsPerUser(requestsPerUser).build()
+                .writeTo(directory);
+    }
+
+    @TearDown
+    public void deleteDump() throws IOException {
+        SyntheticCanvasDump.delete(directory);
+    }
+
+    @Benchmark
+    public void jackson(Blackhole blackhole) throws Exception {
+        try (Stream<CanvasPageRequest> requests = CanvasDataDumpReader.forType(CanvasPageRequest.class)
+                .stream(dump)) {
+            requests.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void fastParser(Blackhole blackhole) throws Exception {
+        try (Stream<CanvasPageRequest> requests = CanvasDataDumpReader.forType(CanvasPageRequest.class)
+                .withFastParser().stream(dump)) {
+            requests.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void fastParserProjected(Blackhole blackhole) throws Exception {
+        try (Stream<CanvasPageRequest> requests = CanvasDataDumpReader.forType(CanvasPageRequest.class)
+                .withFastParser().project(CONVERTED_COLUMNS).stream(dump)) {
+            requests.forEach(blackhole::consume);
+        }
+    }
+
+    /**
+     * The snapshot is written by the first invocation, during warmup, and read by every following one.
+     */
+    @Benchmark
+    public void snapshot(Blackhole blackhole) throws Exception {
+        try (Stream<CanvasPageRequest> requests = CanvasDataDumpReader.forType(CanvasPageRequest.class)
+                .withFastParser().withSnapshots().project(CONVERTED_COLUMNS).stream(dump)) {
+            requests.forEach(blackhole::consume);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import unicon.matthews.dataloader.canvas.model.CanvasDataDump;
+import unicon.matthews.dataloader.canvas.model.CanvasEnrollmentDimension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the parse throughput of the Jackson <code>CsvMapper</code> path and the byte level TSV parser of
+ * {@link CanvasDataDumpReader} on the <em>enrollment_dim</em> table of a {@link SyntheticCanvasDump}, a dimension
+ * whose columns go through the nullable long, boolean and timestamp deserializers rather than being mostly text as
+ * requests are. The score is the time to read all <code>users * enrollmentsPerUser</code> rows of the table into
+ * memory, as the loader reads dimensions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CanvasDimensionReaderBenchmark {
+
+    @Param({ "20000" })
+    private int users;
+
+    @Param({ "5" })
+    private int enrollmentsPerUser;
+
+    private Path directory;
+    private CanvasDataDump dump;
+
+    /**
+     * Only the roster is generated, as the tables of line items, submissions and requests are not read.
+     */
+    @Setup
+    public void writeDump() throws IOException {
+        directory = Files.createTempDirectory("enrollments-benchmark");
+        dump = SyntheticCanvasDump.builder().withUsers(users).withEnrollmentsPerUser(enrollmentsPerUser)
+                .withAssignmentsPerSection(0).withQuizzesPerSection(0).withDiscussionEntriesPerUser(0)
+                .withRequestsPerUser(0).build().writeTo(directory);
+    }
+
+    @TearDown
+    public void deleteDump() throws IOException {
+        SyntheticCanvasDump.delete(directory);
+    }
+
+    @Benchmark
+    public void jackson(Blackhole blackhole) throws Exception {
+        blackhole.consume(CanvasDataDumpReader.forType(CanvasEnrollmentDimension.class).read(dump));
+    }
+
+    @Benchmark
+    public void fastParser(Blackhole blackhole) throws Exception {
+        blackhole.consume(CanvasDataDumpReader.forType(CanvasEnrollmentDimension.class).withFastParser().read(dump));
+    }
+}
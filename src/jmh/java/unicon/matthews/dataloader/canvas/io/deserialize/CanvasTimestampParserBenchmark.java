@@ -0,0 +1,92 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing Canvas dump timestamps with the <code>DateTimeFormatter</code> the timestamp deserializers used to
+ * rely on against {@link CanvasTimestampParser}, from text and from bytes. Timestamps are spread over
+ * <code>days</code> days, as the rows of a dump are, so the day cache of the parser sees realistic hit rates. The score
+ * is the time to parse all <code>count</code> timestamps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CanvasTimestampParserBenchmark {
+
+    private static final DateTimeFormatter FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss").appendFraction(ChronoField.MILLI_OF_SECOND, 0, 6, true)
+            .toFormatter();
+
+    @Param({ "10000" })
+    private int count;
+
+    @Param({ "1", "30" })
+    private int days;
+
+    private String[] texts;
+    private byte[] bytes;
+    private int[] offsets;
+
+    @Setup
+    public void generateTimestamps() {
+        Random random = new Random(42);
+        long startSecond = Instant.parse("2017-01-22T00:00:00Z").getEpochSecond();
+        texts = new String[count];
+        offsets = new int[count + 1];
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            Instant instant = Instant.ofEpochSecond(startSecond + random.nextInt(days * 86400),
+                    random.nextInt(1000000) * 1000L);
+            texts[i] = instant.toString().replace('T', ' ').replace("Z", "");
+            offsets[i] = all.length();
+            all.append(texts[i]);
+        }
+        offsets[count] = all.length();
+        bytes = all.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public void formatter(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(LocalDateTime.parse(text, FORMATTER).atZone(ZoneOffset.UTC).toInstant());
+        }
+    }
+
+    @Benchmark
+    public void parserFromText(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(CanvasTimestampParser.parse(text));
+        }
+    }
+
+    @Benchmark
+    public void parserFromBytes(Blackhole blackhole) {
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(CanvasTimestampParser.parse(bytes, offsets[i], offsets[i + 1]));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures the field deserializers the Jackson <code>CsvMapper</code> path applies to each column of a row, on
+ * generated column values of which <code>nullPercentage</code> percent are the <em>\N</em> null marker. Values are
+ * replayed from a <code>TokenBuffer</code>, so the score is the deserializers alone rather than TSV parsing. The score
+ * is the time to deserialize all <code>count</code> values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FieldDeserializerBenchmark {
+
+    private static final String NULL = CanvasDataFieldValueOptions.NULL.getFieldValue();
+
+    @Param({ "10000" })
+    private int count;
+
+    @Param({ "0", "30" })
+    private int nullPercentage;
+
+    private TokenBuffer longs;
+    private TokenBuffer integers;
+    private TokenBuffer doubles;
+    private TokenBuffer booleans;
+    private TokenBuffer timestamps;
+    private TokenBuffer nullableTimestamps;
+    private TokenBuffer epochMilliseconds;
+
+    @Setup
+    public void generateValues() throws IOException {
+        Random random = new Random(42);
+        long startSecond = Instant.parse("2017-01-22T00:00:00Z").getEpochSecond();
+        longs = values(random, true, r -> Long.toString(10000000000000L + r.nextInt(100000)));
+        integers = values(random, true, r -> Integer.toString(r.nextInt(1000000)));
+        doubles = values(random, true, r -> Double.toString(r.nextInt(10000) / 100.0));
+        booleans = values(random, true, r -> Boolean.toString(r.nextBoolean()));
+        timestamps = values(random, false, r -> Instant.ofEpochSecond(startSecond + r.nextInt(30 * 86400),
+                r.nextInt(1000) * 1_000_000).toString().replace('T', ' ').replace("Z", ""));
+        nullableTimestamps = values(random, true, r -> Instant.ofEpochSecond(startSecond + r.nextInt(30 * 86400),
+                r.nextInt(1000) * 1_000_000).toString().replace('T', ' ').replace("Z", ""));
+        epochMilliseconds = values(random, false, r -> Long.toString((startSecond + r.nextInt(30 * 86400)) * 1000));
+    }
+
+    @Benchmark
+    public void nullableLong(Blackhole blackhole) throws IOException {
+        deserializeAll(longs, new NullableLongFieldDeserializer(), blackhole);
+    }
+
+    @Benchmark
+    public void nullableInteger(Blackhole blackhole) throws IOException {
+        deserializeAll(integers, new NullableIntegerFieldDeserializer(), blackhole);
+    }
+
+    @Benchmark
+    public void nullableDouble(Blackhole blackhole) throws IOException {
+        deserializeAll(doubles, new NullableDoubleFieldDeserializer(), blackhole);
+    }
+
+    @Benchmark
+    public void nullableBoolean(Blackhole blackhole) throws IOException {
+        deserializeAll(booleans, new NullableBooleanFieldDeserializer(), blackhole);
+    }
+
+    @Benchmark
+    public void timestamp(Blackhole blackhole) throws IOException {
+        deserializeAll(timestamps, new IsoDateTimeWithOptionalFractionOfSecondDeserializer(), blackhole);
+    }
+
+    @Benchmark
+    public void nullableTimestamp(Blackhole blackhole) throws IOException {
+        deserializeAll(nullableTimestamps, new NullableIsoDateTimeWithOptionalFractionOfSecondDeserializer(),
+                blackhole);
+    }
+
+    @Benchmark
+    public void epochMilliseconds(Blackhole blackhole) throws IOException {
+        deserializeAll(epochMilliseconds, new EpochMillisecondsDeserializer(), blackhole);
+    }
+
+    /**
+     * The deserializers only read the text of the current token, so they are given no deserialization context.
+     */
+    private static void deserializeAll(TokenBuffer values, JsonDeserializer<?> deserializer, Blackhole blackhole)
+            throws IOException {
+        try (JsonParser parser = values.asParser()) {
+            while (parser.nextToken() == JsonToken.VALUE_STRING) {
+                blackhole.consume(deserializer.deserialize(parser, null));
+            }
+        }
+    }
+
+    private TokenBuffer values(Random random, boolean nullable, Function<Random, String> value) throws IOException {
+        TokenBuffer buffer = new TokenBuffer(null, false);
+        for (int i = 0; i < count; i++) {
+            buffer.writeString(nullable && random.nextInt(100) < nullPercentage ? NULL : value.apply(random));
+        }
+        buffer.close();
+        return buffer;
+    }
+}
@@ -0,0 +1,828 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import unicon.matthews.dataloader.canvas.model.CanvasAssignmentDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasAssignmentSubmissionDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasAssignmentSubmissionFact;
+import unicon.matthews.dataloader.canvas.model.CanvasCommunicationChannelDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasCourseSectionDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasDataArtifact;
+import unicon.matthews.dataloader.canvas.model.CanvasDataDump;
+import unicon.matthews.dataloader.canvas.model.CanvasDataFile;
+import unicon.matthews.dataloader.canvas.model.CanvasDataPseudonymDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasDiscussionForumEntryDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasDiscussionForumEntryFact;
+import unicon.matthews.dataloader.canvas.model.CanvasEnrollmentDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasEnrollmentTermDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasPageRequest;
+import unicon.matthews.dataloader.canvas.model.CanvasQuizDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasQuizSubmissionDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasQuizSubmissionFact;
+import unicon.matthews.dataloader.canvas.model.CanvasQuizSubmissionHistoricalDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasUserDimension;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a synthetic Canvas data dump of every table the loader reads, laid out as the API client downloads a dump: a
+ * dated directory holding <em>dump-metadata.json</em> and a directory of gzip compressed TSV parts per table. Dumps
+ * contain no personal data, so they can be generated at any size for benchmarks and soak tests.
+ *
+ * <p>Ids are consistent across the tables, so each converter takes its join paths rather than returning early or
+ * failing a lookup. Each user is a student in <code>enrollmentsPerUser</code> sections, submits every assignment and
+ * takes every quiz of those sections, posts discussion entries to their topics and only requests pages of them.
+ * Section ids are also their course ids, and quiz ids follow the assignment ids, as both are line items.</p>
+ *
+ * <p>Columns a converter does not read are given a value of their field's type, or <em>\N</em> when the field is
+ * nullable, from the same Jackson annotations the reader binds columns with.</p>
+ *
+ * <p>Run with: <code>mvn -P benchmarks test-compile exec:java
+ * -Dexec.mainClass=unicon.matthews.dataloader.canvas.io.deserialize.SyntheticCanvasDump
+ * -Dexec.args="&lt;root directory&gt; [users=20000] [requestsPerUser=50] ..."</code></p>
+ */
+public class SyntheticCanvasDump {
+
+    public static final long ID_BASE = 10000000000000L;
+    public static final long ROOT_ACCOUNT_ID = 10000000000001L;
+
+    private static final String NULL = CanvasDataFieldValueOptions.NULL.getFieldValue();
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+            .withZone(ZoneOffset.UTC);
+    private static final List<Class<?>> NULLABLE_DESERIALIZERS = Arrays.asList(NullableLongFieldDeserializer.class,
+            NullableIntegerFieldDeserializer.class, NullableDoubleFieldDeserializer.class,
+            NullableBooleanFieldDeserializer.class, NullableIsoDateTimeWithOptionalFractionOfSecondDeserializer.class);
+
+    /**
+     * Page requests of a user, routed to each page request converter, and one no converter is routed for.
+     */
+    private enum RequestRoute {
+        COURSE("courses", "show", "200"),
+        WIKI_PAGE("wiki_pages", "show", "200"),
+        WIKI_PAGE_UPDATE("wiki_pages_api", "update", "200"),
+        DISCUSSION_TOPICS("discussion_topics", "index", "200"),
+        DISCUSSION_ENTRY_VIEW("discussion_topics_api", "view", "200"),
+        DISCUSSION_ENTRY_READ("discussion_topics_api", "mark_entry_read", "204"),
+        ANNOUNCEMENTS("announcements", "index", "200"),
+        ASSIGNMENT("assignments", "show", "200"),
+        SUBMISSION("submissions", "show", "200"),
+        QUIZ("quizzes/quizzes", "show", "200"),
+        CALENDAR("calendars", "show2", "200"),
+        CONFERENCES("conferences", "index", "200"),
+        CONVERSATIONS("conversations", "index", "200"),
+        EXTERNAL_TOOL("external_tools", "show", "200"),
+        FAVORITES("favorites", "show", "200"),
+        OUTCOMES("outcomes", "index", "200"),
+        LOGIN("login/canvas", "new", "200"),
+        LOGOUT("login", "destroy", "200"),
+        FILE("files", "show", "200");
+
+        private final String controller;
+        private final String action;
+        private final String httpStatus;
+
+        RequestRoute(String controller, String action, String httpStatus) {
+            this.controller = controller;
+            this.action = action;
+            this.httpStatus = httpStatus;
+        }
+    }
+
+    // Routes by their share of the requests; course and content pages are the most requested
+    private static final RequestRoute[] REQUEST_MIX = {
+            RequestRoute.COURSE, RequestRoute.COURSE, RequestRoute.COURSE, RequestRoute.COURSE,
+            RequestRoute.WIKI_PAGE, RequestRoute.WIKI_PAGE, RequestRoute.WIKI_PAGE, RequestRoute.WIKI_PAGE_UPDATE,
+            RequestRoute.DISCUSSION_TOPICS, RequestRoute.DISCUSSION_TOPICS, RequestRoute.DISCUSSION_ENTRY_VIEW,
+            RequestRoute.DISCUSSION_ENTRY_READ, RequestRoute.ANNOUNCEMENTS, RequestRoute.ASSIGNMENT,
+            RequestRoute.ASSIGNMENT, RequestRoute.SUBMISSION, RequestRoute.QUIZ, RequestRoute.QUIZ,
+            RequestRoute.CALENDAR, RequestRoute.CONFERENCES, RequestRoute.CONVERSATIONS, RequestRoute.EXTERNAL_TOOL,
+            RequestRoute.FAVORITES, RequestRoute.OUTCOMES, RequestRoute.LOGIN, RequestRoute.LOGOUT,
+            RequestRoute.FILE, RequestRoute.FILE, RequestRoute.FILE, RequestRoute.FILE };
+
+    // Requests of a user in one session, so the login of a session is resolved through its later requests
+    private static final int REQUESTS_PER_SESSION = 20;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private int users = 20000;
+    private int sections = 2000;
+    private int enrollmentsPerUser = 5;
+    private int assignmentsPerSection = 5;
+    private int quizzesPerSection = 3;
+    private int discussionEntriesPerUser = 2;
+    private int requestsPerUser = 50;
+    private int rowsPerFile = 500000;
+    private long sequence = 1;
+    private Instant createdAt = Instant.now().truncatedTo(ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS);
+    private long seed = 42;
+
+    private final Map<String, Long> rowsByTable = new LinkedHashMap<>();
+
+    private SyntheticCanvasDump() {
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Writes the dump into a directory named by its creation date, as the API client would download it.
+     *
+     * @param rootDirectory directory to hold the dated dump directory, such as <code>downloads.root.directory</code>
+     * @return the dump, with the download paths of its artifacts and files set so it can be read directly
+     */
+    public CanvasDataDump writeTo(Path rootDirectory) throws IOException {
+        Path dumpDirectory = rootDirectory.resolve(String.format("%tF", createdAt.atZone(ZoneOffset.UTC)));
+        Files.createDirectories(dumpDirectory);
+        long start = System.currentTimeMillis();
+
+        Map<String, CanvasDataArtifact> artifactsByTable = new LinkedHashMap<>();
+        writeEnrollmentTerms(dumpDirectory, artifactsByTable);
+        writeCourseSections(dumpDirectory, artifactsByTable);
+        writeUsers(dumpDirectory, artifactsByTable);
+        writeEnrollments(dumpDirectory, artifactsByTable);
+        writeAssignments(dumpDirectory, artifactsByTable);
+        writeQuizzes(dumpDirectory, artifactsByTable);
+        writeAssignmentSubmissions(dumpDirectory, artifactsByTable);
+        writeQuizSubmissions(dumpDirectory, artifactsByTable);
+        writeDiscussionEntries(dumpDirectory, artifactsByTable);
+        writeRequests(dumpDirectory, artifactsByTable);
+
+        int numFiles = artifactsByTable.values().stream().mapToInt(artifact -> artifact.getFiles().size()).sum();
+        CanvasDataDump dump = new CanvasDataDump("synthetic", createdAt.plus(30, ChronoUnit.DAYS), sequence,
+                createdAt, "1.16.2", numFiles, createdAt, new UUID(seed, sequence).toString(), true, artifactsByTable);
+        dump.setDownloadPath(dumpDirectory);
+        writeMetadata(dump);
+
+        logger.info("Wrote synthetic dump {} of {} users, {} sections and {} requests ({} files) to {} in {} ms",
+                dump.getDumpId(), users, sections, (long) users * requestsPerUser, numFiles, dumpDirectory,
+                System.currentTimeMillis() - start);
+        return dump;
+    }
+
+    /**
+     * @return number of rows of each table written by {@link #writeTo(Path)}
+     */
+    public Map<String, Long> getRowsByTable() {
+        return Collections.unmodifiableMap(rowsByTable);
+    }
+
+    /**
+     * Deletes a directory a dump was written into, along with everything under it.
+     */
+    public static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Writes the metadata as the Canvas Data API returns it: <code>expires</code> in epoch milliseconds and the other
+     * instants in ISO 8601.
+     */
+    private void writeMetadata(CanvasDataDump dump) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode metadata = objectMapper.createObjectNode()
+                .put("dumpId", dump.getDumpId())
+                .put("sequence", dump.getSequence())
+                .put("accountId", dump.getAccountId())
+                .put("numFiles", dump.getNumFiles())
+                .put("finished", dump.isFinished())
+                .put("expires", dump.getExpires().toEpochMilli())
+                .put("updatedAt", dump.getUpdatedAt().toString())
+                .put("createdAt", dump.getCreatedAt().toString())
+                .put("schemaVersion", dump.getSchemaVersion());
+        ObjectNode artifacts = metadata.putObject("artifactsByTable");
+        for (CanvasDataArtifact artifact : dump.getArtifactsByTable().values()) {
+            ObjectNode node = artifacts.putObject(artifact.getTableName())
+                    .put("tableName", artifact.getTableName())
+                    .put("partial", artifact.isPartial());
+            ArrayNode files = node.putArray("files");
+            for (CanvasDataFile file : artifact.getFiles()) {
+                files.addObject().put("url", file.getUrl()).put("filename", file.getFilename());
+            }
+        }
+        Files.write(dump.getDownloadPath().resolve("dump-metadata.json"),
+                objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(metadata));
+    }
+
+    private void writeEnrollmentTerms(Path dumpDirectory, Map<String, CanvasDataArtifact> artifactsByTable)
+            throws IOException {
+        try (TableWriter terms = new TableWriter(dumpDirectory, CanvasEnrollmentTermDimension.class,
+                "enrollment_term_dim", artifactsByTable)) {
+            terms.set("id", ID_BASE).set("canvas_id", 1).set("root_account_id", ROOT_ACCOUNT_ID)
+                    .set("name", "Synthetic Term").set("date_start", termStart()).set("date_end", termEnd())
+                    .writeRow();
+        }
+    }
+
+    private void writeCourseSections(Path dumpDirectory, Map<String, CanvasDataArtifact> artifactsByTable)
+            throws IOException {
+        try (TableWriter courseSections = new TableWriter(dumpDirectory, CanvasCourseSectionDimension.class,
+                "course_section_dim", artifactsByTable)) {
+            for (int section = 0; section < sections; section++) {
+                courseSections.set("id", sectionId(section)).set("canvas_id", section + 1)
+                        .set("name", "Section " + section).set("course_id", sectionId(section))
+                        .set("enrollment_term_id", ID_BASE).set("default_section", true)
+                        .set("start_at", termStart()).set("end_at", termEnd()).set("workflow_state", "active")
+                        .writeRow();
+            }
+        }
+    }
+
+    private void writeUsers(Path dumpDirectory, Map<String, CanvasDataArtifact> artifactsByTable) throws IOException {
+        try (TableWriter canvasUsers = new TableWriter(dumpDirectory, CanvasUserDimension.class, "user_dim",
+                artifactsByTable);
+             TableWriter pseudonyms = new TableWriter(dumpDirectory, CanvasDataPseudonymDimension.class,
+                     "pseudonym_dim", artifactsByTable);
+             TableWriter communicationChannels = new TableWriter(dumpDirectory,
+                     CanvasCommunicationChannelDimension.class, "communication_channel_dim", artifactsByTable)) {
+            for (int user = 0; user < users; user++) {
+                canvasUsers.set("id", userId(user)).set("canvas_id", user + 1).set("root_account_id", ROOT_ACCOUNT_ID)
+                        .set("name", "User " + user).set("sortable_name", user + ", User")
+                        .set("time_zone", "America/New_York").set("locale", "en")
+                        .set("workflow_state", "registered").writeRow();
+                pseudonyms.set("id", userId(user)).set("canvas_id", user + 1).set("user_id", userId(user))
+                        .set("account_id", ROOT_ACCOUNT_ID).set("workflow_state", "active").set("position", 1)
+                        .set("unique_name", "user" + user).set("sis_user_id", "sis-user-" + user).writeRow();
+                communicationChannels.set("id", userId(user)).set("canvas_id", user + 1).set("user_id", userId(user))
+                        .set("address", "user" + user + "@example.edu").set("type", "email").set("position", 1)
+                        .set("workflow_state", "active").writeRow();
+            }
+        }
+    }
+
+    private void writeEnrollments(Path dumpDirectory, Map<String, CanvasDataArtifact> artifactsByTable)
+            throws IOException {
+        try (TableWriter enrollments = new TableWriter(dumpDirectory, CanvasEnrollmentDimension.class,
+                "enrollment_dim", artifactsByTable)) {
+            for (int user = 0; user < users; user++) {
+                for (int enrollment = 0; enrollment < enrollmentsPerUser; enrollment++) {
+                    int section = sectionOf(user, enrollment);
+                    enrollments.set("id", ID_BASE + (long) user * enrollmentsPerUser + enrollment)
+                            .set("canvas_id", (long) user * enrollmentsPerUser + enrollment + 1)
+                            .set("root_account_id", ROOT_ACCOUNT_ID).set("course_section_id", sectionId(section))
+                            .set("type", "StudentEnrollment").set("workflow_state", "active")
+                            .set("self_enrolled", false).set("course_id", sectionId(section))
+                            .set("user_id", userId(user)).writeRow();
+                }
+            }
+        }
+    }
+
+    private void writeAssignments(Path dumpDirectory, Map<String, CanvasDataArtifact> artifactsByTable)
+            throws IOException {
+        try (TableWriter assignments = new TableWriter(dumpDirectory, CanvasAssignmentDimension.class,
+                "assignment_dim", artifactsByTable)) {
+            for (int section = 0; section < sections; section++) {
+                for (int assignment = 0; assignment < assignmentsPerSection; assignment++) {
+                    assignments.set("id", assignmentId(section, assignment))
+                            .set("canvas_id", (long) section * assignmentsPerSection + assignment + 1)
+                            .set("course_id", sectionId(section)).set("title", "Assignment " + assignment)
+                            .set("due_at", termStart().plus(7L * (assignment + 1), ChronoUnit.DAYS))
+                            .set("points_possible", 10.0).set("grading_type", "points")
+                            .set("submission_types", "online_text_entry").set("workflow_state", "published")
+                            .set("position", assignment + 1).writeRow();
+                }
+            }
+        }
+    }
+
+    private void writeQuizzes(Path dumpDirectory, Map<String, CanvasDataArtifact> artifactsByTable)
+            throws IOException {
+        try (TableWriter quizzes = new TableWriter(dumpDirectory, CanvasQuizDimension.class, "quiz_dim",
+                artifactsByTable)) {
+            for (int section = 0; section < sections; section++) {
+                for (int quiz = 0; quiz < quizzesPerSection; quiz++) {
+                    quizzes.set("id", quizId(section, quiz))
+                            .set("canvas_id", (long) section * quizzesPerSection + quiz + 1)
+                            .set("root_account_id", ROOT_ACCOUNT_ID).set("name", "Quiz " + quiz)
+                            .set("points_possible", 10.0).set("quiz_type", "assignment")
+                            .set("course_id", sectionId(section)).set("workflow_state", "published")
+                            .set("scoring_policy", "keep_highest")
+                            .set("due_at", termStart().plus(7L * (quiz + 1), ChronoUnit.DAYS)).writeRow();
+                }
+            }
+        }
+    }
+
+    private void writeAssignmentSubmissions(Path dumpDirectory, Map<String, CanvasDataArtifact> artifactsByTable)
+            throws IOException {
+        Random random = random("submission");
+        try (TableWriter submissionDimensions = new TableWriter(dumpDirectory,
+                CanvasAssignmentSubmissionDimension.class, "submission_dim", artifactsByTable);
+             TableWriter submissionFacts = new TableWriter(dumpDirectory, CanvasAssignmentSubmissionFact.class,
+                     "submission_fact", artifactsByTable)) {
+            for (int user = 0; user < users; user++) {
+                for (int enrollment = 0; enrollment < enrollmentsPerUser; enrollment++) {
+                    int section = sectionOf(user, enrollment);
+                    for (int assignment = 0; assignment < assignmentsPerSection; assignment++) {
+                        long submission = ((long) user * enrollmentsPerUser + enrollment) * assignmentsPerSection
+                                + assignment;
+                        Instant submittedAt = randomInstant(random, termStart(), createdAt);
+                        double score = random.nextInt(101) / 10.0;
+                        submissionDimensions.set("id", ID_BASE + submission).set("canvas_id", submission + 1)
+                                .set("grade", score).set("submitted_at", submittedAt)
+                                .set("submission_type", "online_text_entry").set("workflow_state", "graded")
+                                .set("created_at", submittedAt).set("updated_at", submittedAt)
+                                .set("graded_at", submittedAt).set("attempt", 1)
+                                .set("assignment_id", assignmentId(section, assignment)).set("user_id", userId(user))
+                                .set("excused", "regular_submission")
+                                .set("graded_anonymously", "not_graded_anonymously")
+                                .set("grade_state", "human_graded").writeRow();
+                        submissionFacts.set("submission_id", ID_BASE + submission)
+                                .set("assignment_id", assignmentId(section, assignment))
+                                .set("course_id", sectionId(section)).set("enrollment_term_id", ID_BASE)
+                                .set("user_id", userId(user)).set("course_account_id", ROOT_ACCOUNT_ID)
+                                .set("score", score).set("published_score", score)
+                                .set("account_id", ROOT_ACCOUNT_ID).writeRow();
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeQuizSubmissions(Path dumpDirectory, Map<String, CanvasDataArtifact> artifactsByTable)
+            throws IOException {
+        Random random = random("quiz_submission");
+        try (TableWriter quizSubmissionDimensions = new TableWriter(dumpDirectory,
+                CanvasQuizSubmissionDimension.class, "quiz_submission_dim", artifactsByTable);
+             TableWriter historicalDimensions = new TableWriter(dumpDirectory,
+                     CanvasQuizSubmissionHistoricalDimension.class, "quiz_submission_historical_dim",
+                     artifactsByTable);
+             TableWriter quizSubmissionFacts = new TableWriter(dumpDirectory, CanvasQuizSubmissionFact.class,
+                     "quiz_submission_fact", artifactsByTable)) {
+            for (int user = 0; user < users; user++) {
+                for (int enrollment = 0; enrollment < enrollmentsPerUser; enrollment++) {
+                    int section = sectionOf(user, enrollment);
+                    for (int quiz = 0; quiz < quizzesPerSection; quiz++) {
+                        long quizSubmission = ((long) user * enrollmentsPerUser + enrollment) * quizzesPerSection
+                                + quiz;
+                        Instant startedAt = randomInstant(random, termStart(), createdAt);
+                        Instant finishedAt = startedAt.plus(5 + random.nextInt(55), ChronoUnit.MINUTES);
+                        for (TableWriter dimensions : Arrays.asList(quizSubmissionDimensions, historicalDimensions)) {
+                            dimensions.set("id", ID_BASE + quizSubmission).set("canvas_id", quizSubmission + 1)
+                                    .set("quiz_id", quizId(section, quiz))
+                                    .set("submission_id", ID_BASE + quizSubmission)
+                                    .set("user_id", userId(user)).set("workflow_state", "complete")
+                                    .set("quiz_state_during_submission", "published")
+                                    .set("submission_scoring_policy", "keep_highest")
+                                    .set("submission_source", "student").set("has_seen_results", "true")
+                                    .set("created_at", startedAt).set("updated_at", finishedAt)
+                                    .set("started_at", startedAt).set("finished_at", finishedAt);
+                        }
+                        quizSubmissionDimensions.writeRow();
+                        historicalDimensions.set("version_number", 1).set("submission_state", "submission")
+                                .writeRow();
+                        double score = random.nextInt(101) / 10.0;
+                        quizSubmissionFacts.set("score", score).set("kept_score", score).set("date", finishedAt)
+                                .set("course_id", sectionId(section)).set("enrollment_term_id", ID_BASE)
+                                .set("course_account_id", ROOT_ACCOUNT_ID).set("quiz_id", quizId(section, quiz))
+                                .set("user_id", userId(user)).set("submission_id", ID_BASE + quizSubmission)
+                                .set("quiz_submission_id_OR_quiz_submission_historical_id", ID_BASE + quizSubmission)
+                                .set("quiz_points_possible", 10.0).set("total_attempts", 1)
+                                .set("time_taken", ChronoUnit.SECONDS.between(startedAt, finishedAt)).writeRow();
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeDiscussionEntries(Path dumpDirectory, Map<String, CanvasDataArtifact> artifactsByTable)
+            throws IOException {
+        Random random = random("discussion_entry");
+        try (TableWriter entryDimensions = new TableWriter(dumpDirectory, CanvasDiscussionForumEntryDimension.class,
+                "discussion_entry_dim", artifactsByTable);
+             TableWriter entryFacts = new TableWriter(dumpDirectory, CanvasDiscussionForumEntryFact.class,
+                     "discussion_entry_fact", artifactsByTable)) {
+            for (int user = 0; user < users; user++) {
+                for (int entry = 0; entry < discussionEntriesPerUser; entry++) {
+                    int section = sectionOf(user, entry % enrollmentsPerUser);
+                    String message = "Entry " + entry + " of user " + user;
+                    Instant postedAt = randomInstant(random, termStart(), createdAt);
+                    entryDimensions.set("id", discussionEntryId(user, entry))
+                            .set("canvas_id", (long) user * discussionEntriesPerUser + entry + 1)
+                            .set("message", message).set("workflow_state", "active").set("created_at", postedAt)
+                            .set("updated_at", postedAt).set("depth", 1).writeRow();
+                    entryFacts.set("discussion_entry_id", discussionEntryId(user, entry)).set("user_id", userId(user))
+                            .set("topic_id", discussionTopicId(section)).set("course_id", sectionId(section))
+                            .set("enrollment_term_id", ID_BASE).set("course_account_id", ROOT_ACCOUNT_ID)
+                            .set("message_length", message.length()).writeRow();
+                }
+            }
+        }
+    }
+
+    /**
+     * Requests are spread over the day before the dump was created. A route which refers to an entity this dump has
+     * none of, such as a quiz when there are no quizzes, is requested as the course instead.
+     */
+    private void writeRequests(Path dumpDirectory, Map<String, CanvasDataArtifact> artifactsByTable)
+            throws IOException {
+        Random random = random("requests");
+        Instant dayStart = createdAt.truncatedTo(ChronoUnit.DAYS).minus(1, ChronoUnit.DAYS);
+        try (TableWriter requests = new TableWriter(dumpDirectory, CanvasPageRequest.class, "requests",
+                artifactsByTable)) {
+            for (int user = 0; user < users; user++) {
+                for (int request = 0; request < requestsPerUser; request++) {
+                    int section = sectionOf(user, random.nextInt(enrollmentsPerUser));
+                    RequestRoute route = available(REQUEST_MIX[random.nextInt(REQUEST_MIX.length)]);
+                    Instant timestamp = randomInstant(random, dayStart, dayStart.plus(1, ChronoUnit.DAYS));
+                    String coursePath = "/courses/" + (section + 1);
+
+                    String timestampText = TIMESTAMP_FORMATTER.format(timestamp);
+                    requests.set("id", new UUID(random.nextLong(), random.nextLong()))
+                            .set("timestamp", timestampText)
+                            .set("timestamp_year", timestampText.substring(0, 4))
+                            .set("timestamp_month", timestampText.substring(5, 7))
+                            .set("timestamp_day", timestampText.substring(8, 10))
+                            .set("root_account_id", ROOT_ACCOUNT_ID)
+                            .set("user_agent", "Mozilla/5.0 (X11; Linux x86_64) Synthetic/1.0")
+                            .set("http_method", route == RequestRoute.DISCUSSION_ENTRY_READ ? "PUT" : "GET")
+                            .set("remote_ip", "10.0." + (user >> 8 & 0xff) + "." + (user & 0xff))
+                            .set("interaction_micros", 1000 + random.nextInt(500000))
+                            .set("web_application_controller", route.controller)
+                            .set("web_applicaiton_action", route.action)
+                            .set("session_id", String.format("%016x%016x", user, request / REQUESTS_PER_SESSION))
+                            .set("http_status", route.httpStatus)
+                            .set("http_version", "HTTP/1.1");
+
+                    // Logins are requested before the user is known, so the login converter finds them by session
+                    if (route == RequestRoute.LOGIN) {
+                        requests.set("url", "/login/canvas").writeRow();
+                        continue;
+                    }
+                    requests.set("user_id", userId(user));
+                    if (route == RequestRoute.LOGOUT) {
+                        requests.set("url", "/logout").writeRow();
+                        continue;
+                    }
+                    requests.set("course_id", sectionId(section)).set("course_account_id", ROOT_ACCOUNT_ID)
+                            .set("web_application_context_type", "Course")
+                            .set("web_application_context_id", sectionId(section));
+                    switch (route) {
+                        case DISCUSSION_TOPICS:
+                        case ANNOUNCEMENTS:
+                            requests.set("discussion_id", discussionTopicId(section))
+                                    .set("url", coursePath + "/" + route.controller);
+                            break;
+                        case DISCUSSION_ENTRY_VIEW:
+                        case DISCUSSION_ENTRY_READ:
+                            long entryId = discussionEntryId(user, random.nextInt(discussionEntriesPerUser));
+                            requests.set("discussion_id", entryId)
+                                    .set("url", "/api/v1" + coursePath + "/discussion_topics/" + (section + 1)
+                                            + "/entries/" + (entryId - ID_BASE + 1));
+                            break;
+                        case ASSIGNMENT:
+                        case SUBMISSION:
+                            int assignment = random.nextInt(assignmentsPerSection);
+                            requests.set("assignment_id", assignmentId(section, assignment))
+                                    .set("url", coursePath + "/assignments/" + (assignment + 1));
+                            break;
+                        case QUIZ:
+                            int quiz = random.nextInt(quizzesPerSection);
+                            requests.set("quiz_id", quizId(section, quiz))
+                                    .set("url", coursePath + "/quizzes/" + (quiz + 1));
+                            break;
+                        case CONVERSATIONS:
+                            requests.set("conversation_id", ID_BASE + user).set("url", "/conversations");
+                            break;
+                        case COURSE:
+                            requests.set("url", coursePath);
+                            break;
+                        default:
+                            requests.set("url", coursePath + "/" + route.controller);
+                    }
+                    requests.writeRow();
+                }
+            }
+        }
+    }
+
+    private RequestRoute available(RequestRoute route) {
+        switch (route) {
+            case DISCUSSION_ENTRY_VIEW:
+            case DISCUSSION_ENTRY_READ:
+                return discussionEntriesPerUser > 0 ? route : RequestRoute.DISCUSSION_TOPICS;
+            case ASSIGNMENT:
+            case SUBMISSION:
+                return assignmentsPerSection > 0 ? route : RequestRoute.COURSE;
+            case QUIZ:
+                return quizzesPerSection > 0 ? route : RequestRoute.COURSE;
+            default:
+                return route;
+        }
+    }
+
+    private Instant termStart() {
+        return createdAt.truncatedTo(ChronoUnit.DAYS).minus(60, ChronoUnit.DAYS);
+    }
+
+    private Instant termEnd() {
+        return createdAt.truncatedTo(ChronoUnit.DAYS).plus(60, ChronoUnit.DAYS);
+    }
+
+    // Distinct sections for each enrollment of a user, as long as there are no more enrollments than sections
+    private int sectionOf(int user, int enrollment) {
+        return (int) (((long) user * 7 + enrollment) % sections);
+    }
+
+    private static long userId(int user) {
+        return ID_BASE + user;
+    }
+
+    private static long sectionId(int section) {
+        return ID_BASE + section;
+    }
+
+    private static long discussionTopicId(int section) {
+        return ID_BASE + section;
+    }
+
+    private long discussionEntryId(int user, int entry) {
+        return ID_BASE + (long) user * discussionEntriesPerUser + entry;
+    }
+
+    private long assignmentId(int section, int assignment) {
+        return ID_BASE + (long) section * assignmentsPerSection + assignment;
+    }
+
+    private long quizId(int section, int quiz) {
+        return ID_BASE + (long) sections * assignmentsPerSection + (long) section * quizzesPerSection + quiz;
+    }
+
+    private Random random(String table) {
+        return new Random(seed * 31 + table.hashCode());
+    }
+
+    private static Instant randomInstant(Random random, Instant from, Instant to) {
+        return from.plusMillis((long) (random.nextDouble() * (to.toEpochMilli() - from.toEpochMilli())));
+    }
+
+    /**
+     * Writes the rows of one table into gzip compressed parts of up to <code>rowsPerFile</code> rows, and adds the
+     * table's artifact once closed. Each column holds the default of its field until set for the current row.
+     */
+    private final class TableWriter implements Closeable {
+
+        private final String tableName;
+        private final Path directory;
+        private final Map<String, CanvasDataArtifact> artifactsByTable;
+        private final String[] defaults;
+        // Columns by name; a name may appear more than once, as workflow_state does in user_dim
+        private final Map<String, int[]> columnIndexes = new HashMap<>();
+        private final String[] values;
+        private final List<CanvasDataFile> files = new ArrayList<>();
+        private Writer writer;
+        private int rowsInFile;
+        private long rows;
+
+        TableWriter(Path dumpDirectory, Class<?> type, String tableName,
+                Map<String, CanvasDataArtifact> artifactsByTable) throws IOException {
+            this.tableName = tableName;
+            this.directory = dumpDirectory.resolve(tableName);
+            this.artifactsByTable = artifactsByTable;
+            Files.createDirectories(directory);
+
+            String[] columnNames = type.getAnnotation(JsonPropertyOrder.class).value();
+            Map<String, Field> fieldsByProperty = CanvasTsvBinding.fieldsByProperty(type);
+            this.defaults = new String[columnNames.length];
+            for (int column = 0; column < columnNames.length; column++) {
+                defaults[column] = defaultValue(fieldsByProperty.get(columnNames[column]));
+                int[] indexes = columnIndexes.get(columnNames[column]);
+                indexes = indexes == null ? new int[1] : Arrays.copyOf(indexes, indexes.length + 1);
+                indexes[indexes.length - 1] = column;
+                columnIndexes.put(columnNames[column], indexes);
+            }
+            this.values = defaults.clone();
+        }
+
+        TableWriter set(String column, Object value) {
+            int[] indexes = columnIndexes.get(column);
+            if (indexes == null) {
+                throw new IllegalArgumentException(String.format("%s has no column %s", tableName, column));
+            }
+            String text = value instanceof Instant ? TIMESTAMP_FORMATTER.format((Instant) value)
+                    : value != null ? value.toString() : NULL;
+            for (int index : indexes) {
+                values[index] = text;
+            }
+            return this;
+        }
+
+        void writeRow() throws IOException {
+            if (writer == null || rowsInFile == rowsPerFile) {
+                nextFile();
+            }
+            for (int column = 0; column < values.length; column++) {
+                if (column > 0) {
+                    writer.write('\t');
+                }
+                writer.write(values[column]);
+            }
+            writer.write('\n');
+            rowsInFile++;
+            rows++;
+            System.arraycopy(defaults, 0, values, 0, values.length);
+        }
+
+        private void nextFile() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+            String filename = String.format("%s-%05d.gz", tableName, files.size());
+            Path file = directory.resolve(filename);
+            CanvasDataFile dataFile = new CanvasDataFile(file.toUri().toString(), filename);
+            dataFile.setDownloadPath(file);
+            files.add(dataFile);
+            writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file)),
+                    StandardCharsets.UTF_8), 1 << 16);
+            rowsInFile = 0;
+        }
+
+        /**
+         * A table without rows still has one, empty, file, as Canvas lists every table in a dump.
+         */
+        @Override
+        public void close() throws IOException {
+            if (writer == null) {
+                nextFile();
+            }
+            writer.close();
+            CanvasDataArtifact artifact = new CanvasDataArtifact(tableName, false, files);
+            artifact.setDownloadPath(directory);
+            artifactsByTable.put(tableName, artifact);
+            rowsByTable.put(tableName, rows);
+        }
+
+        private String defaultValue(Field field) {
+            if (field == null) {
+                return NULL;
+            }
+            JsonDeserialize deserialize = field.getAnnotation(JsonDeserialize.class);
+            Class<?> type = field.getType();
+            if (deserialize != null && NULLABLE_DESERIALIZERS.contains(deserialize.using())
+                    || type == Optional.class || type == String.class) {
+                return NULL;
+            } else if (type == Instant.class) {
+                return TIMESTAMP_FORMATTER.format(termStart());
+            } else if (type == Boolean.class || type == boolean.class) {
+                return "false";
+            }
+            return "0";
+        }
+    }
+
+    public static class Builder {
+
+        private final SyntheticCanvasDump dump = new SyntheticCanvasDump();
+
+        public Builder withUsers(int users) {
+            dump.users = users;
+            return this;
+        }
+
+        public Builder withSections(int sections) {
+            dump.sections = sections;
+            return this;
+        }
+
+        /**
+         * @param enrollmentsPerUser number of sections each user is a student in, at least one
+         */
+        public Builder withEnrollmentsPerUser(int enrollmentsPerUser) {
+            dump.enrollmentsPerUser = enrollmentsPerUser;
+            return this;
+        }
+
+        public Builder withAssignmentsPerSection(int assignmentsPerSection) {
+            dump.assignmentsPerSection = assignmentsPerSection;
+            return this;
+        }
+
+        public Builder withQuizzesPerSection(int quizzesPerSection) {
+            dump.quizzesPerSection = quizzesPerSection;
+            return this;
+        }
+
+        public Builder withDiscussionEntriesPerUser(int discussionEntriesPerUser) {
+            dump.discussionEntriesPerUser = discussionEntriesPerUser;
+            return this;
+        }
+
+        public Builder withRequestsPerUser(int requestsPerUser) {
+            dump.requestsPerUser = requestsPerUser;
+            return this;
+        }
+
+        /**
+         * @param rowsPerFile maximum number of rows in each part of a table
+         */
+        public Builder withRowsPerFile(int rowsPerFile) {
+            dump.rowsPerFile = rowsPerFile;
+            return this;
+        }
+
+        public Builder withSequence(long sequence) {
+            dump.sequence = sequence;
+            return this;
+        }
+
+        /**
+         * @param createdAt creation time of the dump, which names its directory; its requests are of the day before
+         */
+        public Builder withCreatedAt(Instant createdAt) {
+            dump.createdAt = createdAt;
+            return this;
+        }
+
+        public Builder withSeed(long seed) {
+            dump.seed = seed;
+            return this;
+        }
+
+        /**
+         * Sets a count by its name, such as <em>users</em>, as given on the command line.
+         */
+        public Builder with(String name, String value) {
+            switch (name) {
+                case "users": return withUsers(Integer.parseInt(value));
+                case "sections": return withSections(Integer.parseInt(value));
+                case "enrollmentsPerUser": return withEnrollmentsPerUser(Integer.parseInt(value));
+                case "assignmentsPerSection": return withAssignmentsPerSection(Integer.parseInt(value));
+                case "quizzesPerSection": return withQuizzesPerSection(Integer.parseInt(value));
+                case "discussionEntriesPerUser": return withDiscussionEntriesPerUser(Integer.parseInt(value));
+                case "requestsPerUser": return withRequestsPerUser(Integer.parseInt(value));
+                case "rowsPerFile": return withRowsPerFile(Integer.parseInt(value));
+                case "sequence": return withSequence(Long.parseLong(value));
+                case "createdAt": return withCreatedAt(Instant.parse(value));
+                case "seed": return withSeed(Long.parseLong(value));
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown synthetic dump setting %s", name));
+            }
+        }
+
+        public SyntheticCanvasDump build() {
+            if (dump.enrollmentsPerUser < 1 || dump.enrollmentsPerUser > dump.sections) {
+                throw new IllegalArgumentException(String.format("Cannot enroll users in %d of %d sections",
+                        dump.enrollmentsPerUser, dump.sections));
+            }
+            if (dump.rowsPerFile < 1) {
+                throw new IllegalArgumentException("Files must hold at least one row");
+            }
+            return dump;
+        }
+    }
+
+    /**
+     * @param args root directory of the dump, followed by any number of <em>name=value</em> settings of the builder
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Usage: SyntheticCanvasDump <root directory> [users=20000] "
+                    + "[sections=2000] [enrollmentsPerUser=5] [assignmentsPerSection=5] [quizzesPerSection=3] "
+                    + "[discussionEntriesPerUser=2] [requestsPerUser=50] [rowsPerFile=500000] [sequence=1] "
+                    + "[createdAt=<ISO instant>] [seed=42]");
+        }
+        Builder builder = builder();
+        for (String setting : Arrays.copyOfRange(args, 1, args.length)) {
+            int separator = setting.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException(String.format("Expected name=value but got %s", setting));
+            }
+            builder.with(setting.substring(0, separator), setting.substring(separator + 1));
+        }
+        builder.build().writeTo(Paths.get(args[0]));
+    }
+}
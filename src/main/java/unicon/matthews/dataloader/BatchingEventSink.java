@@ -0,0 +1,120 @@
+package unicon.matthews.dataloader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import unicon.matthews.caliper.Event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Collects Caliper events as they are produced and posts them to Matthews in envelopes of bounded size, so events can
+ * be posted while conversion is still running and no single request grows with the number of events.
+ *
+ * <p>An envelope is posted once it holds the maximum number of events, or once adding the next event would take the
+ * serialized events over the maximum number of bytes. A single event larger than the byte limit is posted on its own.
+ * Closing the sink posts any remaining events. Envelopes are handed to the client's posting pipeline, so a post may
+ * still be in flight when this returns; see {@link MatthewsClient#awaitPosts()}. Sinks are not thread safe.</p>
+ */
+public class BatchingEventSink implements Consumer<Event>, Closeable {
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
+  private final MatthewsClient matthewsClient;
+  private final String sensorName;
+  private final int maxEvents;
+  private final long maxBytes;
+  private final ObjectMapper objectMapper;
+
+  private final List<Event> batch = new ArrayList<>();
+  private long batchBytes;
+
+  private long postedEvents;
+  private long postedBatches;
+
+  /**
+   * @param maxEvents maximum number of events per envelope
+   * @param maxBytes maximum serialized size of the events of an envelope, or 0 for no limit; measuring the size
+   * serializes each event an extra time
+   * @param objectMapper used to measure event sizes, only required when limiting bytes
+   */
+  BatchingEventSink(MatthewsClient matthewsClient, String sensorName, int maxEvents, long maxBytes,
+      ObjectMapper objectMapper) {
+    if (maxEvents < 1) {
+      throw new IllegalArgumentException(String.format("Maximum events per batch must be at least 1, was %d",
+          maxEvents));
+    }
+    if (maxBytes > 0 && objectMapper == null) {
+      throw new IllegalArgumentException("An ObjectMapper is required to limit the bytes per batch");
+    }
+    this.matthewsClient = matthewsClient;
+    this.sensorName = sensorName;
+    this.maxEvents = maxEvents;
+    this.maxBytes = maxBytes;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public void accept(Event event) {
+    long eventBytes = maxBytes > 0 ? serializedSize(event) : 0;
+    if (!batch.isEmpty() && maxBytes > 0 && batchBytes + eventBytes > maxBytes) {
+      flush();
+    }
+
+    batch.add(event);
+    batchBytes += eventBytes;
+
+    if (batch.size() >= maxEvents) {
+      flush();
+    }
+  }
+
+  /**
+   * Posts the collected events, if any.
+   */
+  public void flush() {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    matthewsClient.postEnvelope(batch, sensorName);
+    postedEvents += batch.size();
+    postedBatches++;
+    logger.debug("Submitted batch of {} events ({} bytes) for sensor {}", batch.size(), batchBytes, sensorName);
+
+    batch.clear();
+    batchBytes = 0;
+  }
+
+  public long getPostedEvents() {
+    return postedEvents;
+  }
+
+  public long getPostedBatches() {
+    return postedBatches;
+  }
+
+  @Override
+  public void close() {
+    flush();
+  }
+
+  private long serializedSize(Event event) {
+    try (CountingOutputStream out = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM)) {
+      objectMapper.writeValue(out, event);
+      // Allow for the separating comma in the envelope data array
+      return out.getByteCount() + 1;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to measure the serialized size of an event", e);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package unicon.matthews.dataloader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Timers and counters of each step of a load: downloading, reading, converting and posting. Timers record how many
+ * times a step ran, how long it took and an amount it handled, such as bytes or rows, from which its throughput is
+ * derived.
+ *
+ * <p>Metrics are named by step and subject, for example <em>reader.CanvasPageRequest</em> or
+ * <em>matthews.POST /api/users</em>. They are summarized as JSON, which is logged at the end of a run and exposed over
+ * JMX along with an operation to reset them.</p>
+ */
+@ManagedResource(objectName = "unicon.matthews.dataloader:type=LoadMetrics",
+    description = "Timers and counters of the download, read, conversion and post steps of a load")
+public class LoadMetrics {
+
+  private static final ObjectMapper SUMMARY_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+  /**
+   * @return the timer of the given name, created on first use
+   */
+  public Timer timer(String name) {
+    Timer timer = timers.get(name);
+    return timer != null ? timer : timers.computeIfAbsent(name, Timer::new);
+  }
+
+  public void increment(String name) {
+    increment(name, 1);
+  }
+
+  public void increment(String name, long amount) {
+    LongAdder counter = counters.get(name);
+    (counter != null ? counter : counters.computeIfAbsent(name, key -> new LongAdder())).add(amount);
+  }
+
+  /**
+   * @return the timers and counters, each sorted by name
+   */
+  public Map<String, Object> summary() {
+    Map<String, Object> timerSummaries = new TreeMap<>();
+    timers.forEach((name, timer) -> timerSummaries.put(name, timer.summary()));
+    Map<String, Object> counterValues = new TreeMap<>();
+    counters.forEach((name, counter) -> counterValues.put(name, counter.sum()));
+
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("timers", timerSummaries);
+    summary.put("counters", counterValues);
+    return summary;
+  }
+
+  @ManagedAttribute(description = "Timers and counters as JSON")
+  public String getSummary() {
+    try {
+      return SUMMARY_MAPPER.writeValueAsString(summary());
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unable to summarize the load metrics", e);
+    }
+  }
+
+  public void logSummary() {
+    logger.info("Load metrics: {}", getSummary());
+  }
+
+  /**
+   * Resets the timers and counters to zero rather than removing them, as steps such as conversion keep the timers
+   * they record into.
+   */
+  @ManagedOperation(description = "Resets all timers and counters to zero")
+  public void reset() {
+    timers.values().forEach(Timer::reset);
+    counters.values().forEach(LongAdder::reset);
+  }
+
+  /**
+   * Number, duration and amount handled of the runs of a step.
+   */
+  public static final class Timer {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder amount = new LongAdder();
+
+    private Timer(String name) {
+      this.name = name;
+    }
+
+    public void record(long nanos) {
+      record(nanos, 0);
+    }
+
+    /**
+     * @param nanos duration of a run
+     * @param amount amount the run handled, such as bytes or rows
+     */
+    public void record(long nanos, long amount) {
+      count.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulate(nanos);
+      this.amount.add(amount);
+    }
+
+    /**
+     * Records a run which started at the given {@link System#nanoTime()}.
+     */
+    public void recordSince(long startNanos, long amount) {
+      record(System.nanoTime() - startNanos, amount);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    private void reset() {
+      count.reset();
+      totalNanos.reset();
+      maxNanos.reset();
+      amount.reset();
+    }
+
+    // Concurrent runs each add their own duration, so the throughput is per run rather than of the load as a whole
+    private Map<String, Object> summary() {
+      long runs = count.sum();
+      long nanos = totalNanos.sum();
+      long handled = amount.sum();
+      Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("count", runs);
+      summary.put("totalMillis", TimeUnit.NANOSECONDS.toMillis(nanos));
+      summary.put("meanMillis", runs > 0 ? nanos / runs / 1e6 : 0);
+      summary.put("maxMillis", maxNanos.get() / 1e6);
+      if (handled > 0) {
+        summary.put("amount", handled);
+        summary.put("amountPerSecond", nanos > 0 ? Math.round(handled * 1e9 / nanos) : 0);
+      }
+      return summary;
+    }
+  }
+}
@@ -3,19 +3,30 @@
  */
 package unicon.matthews.dataloader;
 
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -28,6 +39,7 @@ import unicon.matthews.oneroster.Enrollment;
 import unicon.matthews.oneroster.LineItem;
 import unicon.matthews.oneroster.User;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 
@@ -37,14 +49,30 @@ import com.google.gson.JsonPrimitive;
  */
 public class MatthewsClient {
 
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
   private RestTemplate restTemplate;
   private HttpHeaders httpHeaders;
   
   private String key;
   private String secret;
   private String baseUrl;
+  private ObjectMapper objectMapper;
+  private int eventBatchSize = DEFAULT_EVENT_BATCH_SIZE;
+  private long eventBatchBytes;
+  private int bulkSize = DEFAULT_BULK_SIZE;
+  private int maxInFlightPosts = DEFAULT_MAX_IN_FLIGHT_POSTS;
+  private PostingPipeline postingPipeline;
+  private LoadMetrics metrics;
+
+  // Bulk endpoints which the Matthews server turned out not to support, so their entities are posted one at a time
+  private final Set<String> unsupportedBulkEndpoints = ConcurrentHashMap.newKeySet();
   
   private static final String LOGIN_URL = "/api/auth/login";
+  private static final int DEFAULT_EVENT_BATCH_SIZE = 500;
+  private static final int DEFAULT_BULK_SIZE = 500;
+  private static final int DEFAULT_MAX_IN_FLIGHT_POSTS = 4;
+  private static final String BULK_PATH_SUFFIX = "/bulk";
   
   private MatthewsClient() {}
   
@@ -80,23 +108,96 @@ public class MatthewsClient {
       _matthewsClient.secret = secret;
       return this;
     }
+
+    /**
+     * Object mapper used to measure the size of events, required when limiting the bytes per event batch.
+     */
+    public Builder withObjectMapper(ObjectMapper objectMapper) {
+      _matthewsClient.objectMapper = objectMapper;
+      return this;
+    }
+
+    /**
+     * Maximum number of events posted in a single Caliper envelope.
+     */
+    public Builder withEventBatchSize(int eventBatchSize) {
+      _matthewsClient.eventBatchSize = eventBatchSize;
+      return this;
+    }
+
+    /**
+     * Maximum serialized size of the events posted in a single Caliper envelope, or 0 for no limit.
+     */
+    public Builder withEventBatchBytes(long eventBatchBytes) {
+      _matthewsClient.eventBatchBytes = eventBatchBytes;
+      return this;
+    }
     
+    /**
+     * Maximum number of entities posted in a single bulk OneRoster request, or 0 to always post entities one at a
+     * time.
+     */
+    public Builder withBulkSize(int bulkSize) {
+      _matthewsClient.bulkSize = bulkSize;
+      return this;
+    }
+
+    /**
+     * Maximum number of bulk and event posts in flight at a time, or 0 to post on the calling thread.
+     */
+    public Builder withMaxInFlightPosts(int maxInFlightPosts) {
+      _matthewsClient.maxInFlightPosts = maxInFlightPosts;
+      return this;
+    }
+
+    /**
+     * Metrics recording the latency, payload bytes and response status of each request, by endpoint.
+     */
+    public Builder withMetrics(LoadMetrics metrics) {
+      _matthewsClient.metrics = metrics;
+      return this;
+    }
+
     public MatthewsClient build() {
       if (StringUtils.isBlank(_matthewsClient.key) || 
           StringUtils.isBlank(_matthewsClient.secret) ||
           StringUtils.isBlank(_matthewsClient.baseUrl) ||
           _matthewsClient.restTemplate == null ||
-          _matthewsClient.httpHeaders == null) {
+          _matthewsClient.httpHeaders == null ||
+          _matthewsClient.eventBatchSize < 1 ||
+          _matthewsClient.bulkSize < 0 ||
+          _matthewsClient.maxInFlightPosts < 0 ||
+          (_matthewsClient.eventBatchBytes > 0 && _matthewsClient.objectMapper == null)) {
         throw new IllegalStateException();
       }
       
+      if (_matthewsClient.metrics != null) {
+        _matthewsClient.restTemplate = meteredCopyOf(_matthewsClient.restTemplate,
+            new MatthewsRequestMetrics(_matthewsClient.metrics, URI.create(_matthewsClient.baseUrl).getPath()));
+      }
+
       _matthewsClient.httpHeaders.setContentType(MediaType.APPLICATION_JSON);
       _matthewsClient.httpHeaders.add("X-Requested-With", "XMLHttpRequest");
       
       _matthewsClient.httpHeaders.add("Authorization", "Bearer "+_matthewsClient.getToken());
+      _matthewsClient.postingPipeline = new PostingPipeline(_matthewsClient.maxInFlightPosts);
       
       return _matthewsClient;
     }
+
+    /**
+     * Copies the template with the metrics interceptor added, rather than adding it to a template which may be shared
+     * with clients of other services.
+     */
+    private static RestTemplate meteredCopyOf(RestTemplate restTemplate, ClientHttpRequestInterceptor metrics) {
+      RestTemplate metered = new RestTemplate(restTemplate.getMessageConverters());
+      // The request factory of a template with interceptors already applies them
+      metered.setRequestFactory(restTemplate.getRequestFactory());
+      metered.setErrorHandler(restTemplate.getErrorHandler());
+      metered.setUriTemplateHandler(restTemplate.getUriTemplateHandler());
+      metered.setInterceptors(Collections.singletonList(metrics));
+      return metered;
+    }
   }
   
   @SuppressWarnings("rawtypes")
@@ -181,6 +282,101 @@ public class MatthewsClient {
 
   }
 
+  public void postEnrollments(Collection<Enrollment> enrollments) {
+    Map<String, List<Enrollment>> enrollmentsByClass = enrollments.stream().collect(
+        Collectors.groupingBy(enrollment -> enrollment.getKlass().getSourcedId(), LinkedHashMap::new,
+            Collectors.toList()));
+
+    enrollmentsByClass.forEach((classSourcedId, classEnrollments) -> postInBulk("enrollments",
+        StringUtils.replace("/api/classes/{classSourcedId}/enrollments", "{classSourcedId}", classSourcedId),
+        classEnrollments, this::postEnrollment));
+  }
+
+  public void postUsers(Collection<User> users) {
+    postInBulk("users", "/api/users", users, this::postUser);
+  }
+
+  public void postUserMappings(Collection<UserMapping> userMappings) {
+    postInBulk("users/mapping", "/api/users/mapping", userMappings, this::postUserMapping);
+  }
+
+  public void postLineItems(Collection<LineItem> lineItems) {
+    Map<String, List<LineItem>> lineItemsByClass = lineItems.stream().collect(
+        Collectors.groupingBy(lineItem -> lineItem.getKlass().getSourcedId(), LinkedHashMap::new,
+            Collectors.toList()));
+
+    lineItemsByClass.forEach((classSourcedId, classLineItems) -> postInBulk("lineitems",
+        StringUtils.replace("/api/classes/{classSourcedId}/lineitems", "{classSourcedId}", classSourcedId),
+        classLineItems, this::postLineItem));
+  }
+
+  public void postClasses(Collection<unicon.matthews.oneroster.Class> classes) {
+    postInBulk("classes", "/api/classes", classes, this::postClass);
+  }
+
+  public void postClassMappings(Collection<ClassMapping> classMappings) {
+    postInBulk("classes/mapping", "/api/classes/mapping", classMappings, this::postClassMapping);
+  }
+
+  /**
+   * Posts the entities in chunks to the bulk variant of the given path, which takes a JSON array of the entities the
+   * path takes one at a time. If the server does not support the bulk endpoint (responds with 405 or 501), it is not
+   * tried again for this client and the entities are posted one at a time instead.
+   *
+   * <p>A Matthews without the bulk routes answers 404, as it also does when the class of an enrollment or line item
+   * path is unknown. On a 404 the chunk is posted one entity at a time, which fails the post in the second case, and
+   * the bulk endpoint is only taken to be unsupported once those posts succeed.</p>
+   *
+   * @param endpoint name of the bulk endpoint, independent of any class in the path
+   * @param path path which takes a single entity
+   */
+  private <T> void postInBulk(String endpoint, String path, Collection<T> entities, Consumer<T> postOne) {
+    if (entities == null || entities.isEmpty()) {
+      return;
+    }
+
+    List<T> all = new ArrayList<>(entities);
+    int chunkSize = bulkSize > 0 ? bulkSize : DEFAULT_BULK_SIZE;
+    for (int from = 0; from < all.size(); from += chunkSize) {
+      List<T> chunk = all.subList(from, Math.min(from + chunkSize, all.size()));
+      postingPipeline.submit(() -> postChunk(endpoint, path, chunk, postOne));
+    }
+  }
+
+  private <T> void postChunk(String endpoint, String path, List<T> chunk, Consumer<T> postOne) {
+    if (bulkSize > 0 && !unsupportedBulkEndpoints.contains(endpoint)) {
+      try {
+        restTemplate
+            .exchange(this.baseUrl + path + BULK_PATH_SUFFIX, HttpMethod.POST,
+                new HttpEntity<List<T>>(chunk, this.httpHeaders), String.class);
+        return;
+      }
+      catch (HttpStatusCodeException e) {
+        if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+          chunk.forEach(postOne);
+          markBulkUnsupported(endpoint, e.getStatusCode());
+          return;
+        }
+        if (!isBulkUnsupported(e.getStatusCode())) {
+          throw e;
+        }
+        markBulkUnsupported(endpoint, e.getStatusCode());
+      }
+    }
+
+    chunk.forEach(postOne);
+  }
+
+  private void markBulkUnsupported(String endpoint, HttpStatus status) {
+    if (unsupportedBulkEndpoints.add(endpoint)) {
+      logger.info("Matthews does not support bulk {} ({}), posting them one at a time", endpoint, status);
+    }
+  }
+
+  private static boolean isBulkUnsupported(HttpStatus status) {
+    return status == HttpStatus.METHOD_NOT_ALLOWED || status == HttpStatus.NOT_IMPLEMENTED;
+  }
+
   public void postEvent(Event event, String sensorName) {
     Envelope envelope
     = new Envelope.Builder()
@@ -198,7 +394,24 @@ public class MatthewsClient {
         .exchange(url, HttpMethod.POST, h, String.class);
   }
   
+  /**
+   * Posts the events in as many envelopes as the configured batch limits require.
+   */
   public void postEvents(Collection<Event> events, String sensorName) {
+    try (BatchingEventSink eventSink = newEventSink(sensorName)) {
+      events.forEach(eventSink);
+    }
+  }
+
+  /**
+   * Returns a sink which posts the events given to it in batches as they arrive. The sink must be closed to post the
+   * final batch.
+   */
+  public BatchingEventSink newEventSink(String sensorName) {
+    return new BatchingEventSink(this, sensorName, eventBatchSize, eventBatchBytes, objectMapper);
+  }
+
+  void postEnvelope(Collection<Event> events, String sensorName) {
     Envelope envelope
     = new Envelope.Builder()
       .withData(new ArrayList<>(events))
@@ -211,11 +424,26 @@ public class MatthewsClient {
     String path = "/api/caliper";
     String url = this.baseUrl + path;
 
-    restTemplate
-        .exchange(url, HttpMethod.POST, h, String.class);
+    postingPipeline.submit(() -> restTemplate
+        .exchange(url, HttpMethod.POST, h, String.class));
+  }
+
+  /**
+   * Waits for all bulk and event posts which are still in flight.
+   *
+   * @throws RuntimeException the first failure of those posts
+   */
+  public void awaitPosts() {
+    postingPipeline.awaitCompletion();
   }
   
+  /**
+   * Posts the data sync record once all posts still in flight have succeeded, so a sync is never recorded over data
+   * which failed to post.
+   */
   public void postDataSync(DataSync dataSync) {
+    awaitPosts();
+
     HttpEntity<DataSync> he = new HttpEntity<DataSync>(dataSync, this.httpHeaders);
     
     String path = "/api/sync";
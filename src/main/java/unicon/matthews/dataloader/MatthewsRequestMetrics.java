@@ -0,0 +1,56 @@
+package unicon.matthews.dataloader;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Records the latency, payload bytes and response status of each request to a Matthews endpoint. Endpoints are named
+ * by method and path, with the class of class scoped paths replaced by a placeholder so all classes share one timer.
+ *
+ * <p>Latency is measured until the response status and headers are received; the responses of Matthews endpoints
+ * are small enough that reading their body adds little.</p>
+ */
+class MatthewsRequestMetrics implements ClientHttpRequestInterceptor {
+
+  private static final Pattern CLASS_SCOPED_PATH = Pattern.compile("^/api/classes/(?!mapping/)[^/]+/");
+
+  private final LoadMetrics metrics;
+  private final String basePath;
+
+  /**
+   * @param basePath path of the Matthews base URL, which is left out of endpoint names
+   */
+  MatthewsRequestMetrics(LoadMetrics metrics, String basePath) {
+    this.metrics = metrics;
+    this.basePath = basePath != null ? basePath : "";
+  }
+
+  @Override
+  public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+      throws IOException {
+    String endpoint = request.getMethod() + " " + endpointPath(request.getURI().getPath());
+    long start = System.nanoTime();
+    try {
+      ClientHttpResponse response = execution.execute(request, body);
+      metrics.timer("matthews." + endpoint).recordSince(start, body.length);
+      metrics.increment("matthews.status." + endpoint + " " + response.getRawStatusCode());
+      return response;
+    } catch (IOException | RuntimeException e) {
+      metrics.timer("matthews." + endpoint).recordSince(start, body.length);
+      metrics.increment("matthews.failures." + endpoint);
+      throw e;
+    }
+  }
+
+  private String endpointPath(String path) {
+    if (path.startsWith(basePath)) {
+      path = path.substring(basePath.length());
+    }
+    return CLASS_SCOPED_PATH.matcher(path).replaceFirst("/api/classes/{classSourcedId}/");
+  }
+}
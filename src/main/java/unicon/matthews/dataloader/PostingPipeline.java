@@ -0,0 +1,155 @@
+package unicon.matthews.dataloader;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs posts to Matthews on a dedicated pool, so the loader can keep reading and converting while earlier posts are
+ * waiting on the server.
+ *
+ * <p>At most <code>maxInFlight</code> posts are outstanding at a time; submitting another blocks the caller until one
+ * completes, which keeps a fast producer from queueing unbounded work. Posts are tracked in submission order, and the
+ * first failure is rethrown to the caller by the next {@link #submit} or {@link #awaitCompletion}, so callers can
+ * stop before recording a sync over missing data. With <code>maxInFlight</code> of 0, posts run on the calling
+ * thread.</p>
+ */
+public class PostingPipeline {
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
+  private final int maxInFlight;
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final Deque<Future<?>> inFlight = new ArrayDeque<>();
+
+  public PostingPipeline(int maxInFlight) {
+    if (maxInFlight < 0) {
+      throw new IllegalArgumentException(String.format("Maximum in-flight posts must not be negative, was %d",
+          maxInFlight));
+    }
+    this.maxInFlight = maxInFlight;
+    if (maxInFlight > 0) {
+      AtomicInteger threadCount = new AtomicInteger();
+      this.executor = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+        Thread thread = new Thread(runnable, "matthews-post-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+      this.permits = new Semaphore(maxInFlight);
+    } else {
+      this.executor = null;
+      this.permits = null;
+    }
+  }
+
+  /**
+   * Submits a post, blocking while the maximum number of posts are in flight.
+   *
+   * @throws RuntimeException the failure of an earlier post, if one has failed since the last check
+   */
+  public synchronized void submit(Runnable post) {
+    if (executor == null) {
+      post.run();
+      return;
+    }
+
+    checkCompleted();
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting to submit a post", e);
+    }
+
+    try {
+      inFlight.addLast(executor.submit(() -> {
+        try {
+          post.run();
+        } finally {
+          permits.release();
+        }
+      }));
+    } catch (RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Waits for every submitted post to complete, in submission order.
+   *
+   * @throws RuntimeException the first failure of a post; posts submitted after it are still waited for
+   */
+  public synchronized void awaitCompletion() {
+    RuntimeException failure = null;
+    while (!inFlight.isEmpty()) {
+      try {
+        resultOf(inFlight.removeFirst());
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          logger.warn("Post failed after an earlier failure", e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /**
+   * Drops completed posts from the head of the queue, rethrowing the first failure found.
+   */
+  private void checkCompleted() {
+    while (!inFlight.isEmpty() && inFlight.peekFirst().isDone()) {
+      Future<?> completed = inFlight.removeFirst();
+      try {
+        resultOf(completed);
+      } catch (RuntimeException e) {
+        // Let the remaining posts finish before reporting, so nothing is left running unobserved
+        awaitRemaining();
+        throw e;
+      }
+    }
+  }
+
+  private void awaitRemaining() {
+    try {
+      awaitCompletion();
+    } catch (RuntimeException e) {
+      logger.warn("Post failed after an earlier failure", e);
+    }
+  }
+
+  private static void resultOf(Future<?> future) {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a post to complete", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+}
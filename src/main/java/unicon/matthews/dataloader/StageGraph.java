@@ -0,0 +1,174 @@
+package unicon.matthews.dataloader;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the stages of a load as a dependency graph, each stage starting as soon as the stages it depends on have
+ * completed, so stages which do not depend on each other run concurrently.
+ *
+ * <p>Stages must be added after the stages they depend on, which keeps the graph acyclic, and ready stages are started
+ * in the order they were added. After a stage fails no further stages are started; the stages already running are
+ * allowed to complete and the first failure is rethrown. The time each stage took is logged once the graph has
+ * run.</p>
+ */
+public class StageGraph {
+
+  /**
+   * Work of a single stage.
+   */
+  @FunctionalInterface
+  public interface Stage {
+    void run() throws Exception;
+  }
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
+  private final String name;
+  private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+  /**
+   * @param name name of what the graph loads, for the timing report
+   */
+  public StageGraph(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Adds a stage which starts once all of the given stages have completed.
+   *
+   * @throws IllegalArgumentException if the name is already used, or a dependency has not been added yet
+   */
+  public StageGraph add(String stage, Stage work, String... dependencies) {
+    if (nodes.containsKey(stage)) {
+      throw new IllegalArgumentException(String.format("Stage %s was already added", stage));
+    }
+    List<Node> dependencyNodes = new ArrayList<>();
+    for (String dependency : dependencies) {
+      Node node = nodes.get(dependency);
+      if (node == null) {
+        throw new IllegalArgumentException(String.format("Stage %s depends on %s, which must be added before it",
+            stage, dependency));
+      }
+      dependencyNodes.add(node);
+    }
+    nodes.put(stage, new Node(stage, work, dependencyNodes));
+    return this;
+  }
+
+  /**
+   * Runs all stages and waits for them to complete.
+   *
+   * @param parallelism maximum number of stages running at the same time; 1 runs them one after another in the order
+   *        they were added
+   * @throws Exception the failure of the first stage which failed
+   */
+  public void run(int parallelism) throws Exception {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException(String.format("Stage parallelism must be at least 1, was %d", parallelism));
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, nodes.size())),
+        runnable -> {
+          Thread thread = new Thread(runnable, "load-stage-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    CompletionService<Node> completionService = new ExecutorCompletionService<>(executor);
+    long start = System.nanoTime();
+    Exception failure = null;
+    int running = 0;
+    try {
+      running += startReadyStages(completionService, start);
+      while (running > 0) {
+        Future<Node> completed = completionService.take();
+        running--;
+        try {
+          completed.get().completed = true;
+        } catch (ExecutionException e) {
+          Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+          if (failure == null) {
+            failure = cause;
+          } else {
+            failure.addSuppressed(cause);
+          }
+        }
+        if (failure == null) {
+          running += startReadyStages(completionService, start);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      report(start);
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private int startReadyStages(CompletionService<Node> completionService, long start) {
+    int started = 0;
+    for (Node node : nodes.values()) {
+      if (!node.started && node.dependencies.stream().allMatch(dependency -> dependency.completed)) {
+        node.started = true;
+        completionService.submit(() -> {
+          node.startNanos = System.nanoTime() - start;
+          try {
+            node.work.run();
+          } finally {
+            node.endNanos = System.nanoTime() - start;
+          }
+          return node;
+        });
+        started++;
+      }
+    }
+    return started;
+  }
+
+  private void report(long start) {
+    logger.info("Ran the stages of {} in {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    for (Node node : nodes.values()) {
+      if (node.endNanos > 0) {
+        logger.info("  {} took {} ms, from {} ms to {} ms{}", node.name,
+            TimeUnit.NANOSECONDS.toMillis(node.endNanos - node.startNanos),
+            TimeUnit.NANOSECONDS.toMillis(node.startNanos), TimeUnit.NANOSECONDS.toMillis(node.endNanos),
+            node.completed ? "" : " (failed)");
+      } else {
+        logger.info("  {} did not run", node.name);
+      }
+    }
+  }
+
+  private static class Node {
+
+    private final String name;
+    private final Stage work;
+    private final List<Node> dependencies;
+    // Only read and written by the thread running the graph
+    private boolean started;
+    private boolean completed;
+    // Written by the stage thread, read once its future has completed
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    private Node(String name, Stage work, List<Node> dependencies) {
+      this.name = name;
+      this.work = work;
+      this.dependencies = dependencies;
+    }
+  }
+}
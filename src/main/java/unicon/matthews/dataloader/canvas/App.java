@@ -16,6 +16,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.client.RestTemplate;
 
+import unicon.matthews.dataloader.LoadMetrics;
 import unicon.matthews.dataloader.MatthewsClient;
 
 @SpringBootApplication
@@ -29,6 +30,31 @@ public class App {
   
   @Value("${matthews.apisecret}")
   private String matthewsApiSecret;
+
+  /**
+   * Maximum number of Caliper events posted to Matthews in a single envelope.
+   */
+  @Value("${matthews.events.batch.size:500}")
+  private int matthewsEventBatchSize;
+
+  /**
+   * Maximum serialized size of the Caliper events posted to Matthews in a single envelope, or 0 for no limit. Off by
+   * default, as measuring the size serializes every event a second time; the event count alone bounds envelopes.
+   */
+  @Value("${matthews.events.batch.bytes:0}")
+  private long matthewsEventBatchBytes;
+
+  /**
+   * Maximum number of OneRoster entities posted to Matthews in a single bulk request, or 0 to post them one at a time.
+   */
+  @Value("${matthews.bulk.size:500}")
+  private int matthewsBulkSize;
+
+  /**
+   * Maximum number of bulk and event posts to Matthews in flight at a time, or 0 to post synchronously.
+   */
+  @Value("${matthews.posts.inflight:4}")
+  private int matthewsMaxInFlightPosts;
   
   public static void main(String[] args) throws IOException {
     ApplicationContext ctx = SpringApplication.run(App.class, args);
@@ -36,7 +62,7 @@ public class App {
   }
   
   @Bean
-  public MatthewsClient matthewsClient(RestTemplate restTemplate) {
+  public MatthewsClient matthewsClient(RestTemplate restTemplate, ObjectMapper objectMapper, LoadMetrics loadMetrics) {
     HttpHeaders httpHeaders = new HttpHeaders();
     httpHeaders.setContentType(MediaType.APPLICATION_JSON);
     httpHeaders.add("X-Requested-With", "XMLHttpRequest");
@@ -49,9 +75,20 @@ public class App {
         .withKey(matthewsApiKey)
         .withRestTemplate(restTemplate)
         .withSecret(matthewsApiSecret)
+        .withObjectMapper(objectMapper)
+        .withEventBatchSize(matthewsEventBatchSize)
+        .withEventBatchBytes(matthewsEventBatchBytes)
+        .withBulkSize(matthewsBulkSize)
+        .withMaxInFlightPosts(matthewsMaxInFlightPosts)
+        .withMetrics(loadMetrics)
         .build();
   }
 
+  @Bean
+  public LoadMetrics loadMetrics() {
+    return new LoadMetrics();
+  }
+
   @Bean
   public RestTemplate restTemplate(RestTemplateBuilder builder) {
     return builder.build();
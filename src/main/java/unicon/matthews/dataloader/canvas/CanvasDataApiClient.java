@@ -1,12 +1,18 @@
 package unicon.matthews.dataloader.canvas;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -24,9 +30,24 @@ import java.util.Date;
 import java.util.List;
 import java.util.StringJoiner;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
@@ -36,12 +57,15 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
+import unicon.matthews.dataloader.LoadMetrics;
 import unicon.matthews.dataloader.canvas.exception.CanvasDataConfigurationException;
 import unicon.matthews.dataloader.canvas.exception.UnexpectedApiResponseException;
 import unicon.matthews.dataloader.canvas.model.CanvasDataArtifact;
+import unicon.matthews.dataloader.canvas.model.CanvasDataDownloadManifest;
 import unicon.matthews.dataloader.canvas.model.CanvasDataDump;
 import unicon.matthews.dataloader.canvas.model.CanvasDataFile;
 
@@ -59,9 +83,21 @@ import javax.crypto.spec.SecretKeySpec;
 @Component
 public class CanvasDataApiClient {
 
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final String PARTIAL_DOWNLOAD_SUFFIX = ".part";
+    private static final Pattern CONTENT_RANGE = Pattern.compile("^bytes (\\d+)-\\d+/(?:\\d+|\\*)$");
+
     @Value("${canvas.baseurl:portal.inshosteddata.com}")
     private String canvasBaseUrl;
 
+    /**
+     * Protocol of the Canvas Data API; only a local stand-in of the API, such as the one of the offline load harness,
+     * is reached over http.
+     */
+    @Value("${canvas.protocol:https}")
+    private String canvasProtocol;
+
     @Value("${canvas.apikey}")
     private String canvasApiKey;
 
@@ -75,12 +111,29 @@ public class CanvasDataApiClient {
     @Value("${downloads.root.directory:CANVAS_DUMPS}")
     private String downloadsRootDirectory;
 
+    /**
+     * Maximum number of dump data files downloaded at the same time.
+     */
+    @Value("${downloads.parallelism:4}")
+    private int downloadsParallelism;
+
     @Autowired
     private RestTemplate restTemplate;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private LoadMetrics metrics;
+
+    @PostConstruct
+    void validateDownloadsParallelism() {
+        if (downloadsParallelism < 1) {
+            throw new IllegalArgumentException(String.format("Download parallelism must be at least 1, was %d",
+                    downloadsParallelism));
+        }
+    }
+
     /**
      * Returns the Canvas account metadata dumps for the specified period, and optionally downloads all of the dump
      * artifacts.
@@ -382,7 +435,7 @@ public class CanvasDataApiClient {
             // The ? character is not included in the HMAC signature, so we exclude it from the sorted queryParams
             queryString = String.format("?%s", queryString);
         }
-        return String.format("https://%s%s%s", canvasBaseUrl, resourcePath, queryString);
+        return String.format("%s://%s%s%s", canvasProtocol, canvasBaseUrl, resourcePath, queryString);
     }
 
     private void download(final List<CanvasDataDump> dumps) {
@@ -411,45 +464,230 @@ public class CanvasDataApiClient {
         Files.write(Paths.get(dump.getDownloadPath().toString(), "dump-metadata.json"),
                 objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(dump));
 
+        final List<CanvasDataFile> dataFiles = new ArrayList<>();
         for (final String table : dump.getArtifactsByTable().keySet()) {
             final CanvasDataArtifact artifact = dump.getArtifactsByTable().get(table);
+            if (artifact.getDownloadPath() == null) {
+                throw new IllegalStateException(String.format("Download path has not been specified for the Canvas " +
+                        "artifact %s", artifact.getTableName()));
+            }
             Files.createDirectories(artifact.getDownloadPath());
-            download(artifact);
+            dataFiles.addAll(artifact.getFiles());
         }
+
+        download(dump, dataFiles, loadDownloadManifest(dump));
     }
 
-    private void download(final CanvasDataArtifact artifact) throws IOException,
-            UnexpectedApiResponseException {
+    /**
+     * Downloads the data files of a dump using a pool of up to {@code downloads.parallelism} workers, logging each
+     * completed file and the aggregate throughput once all files are done. Files recorded as complete in the download
+     * manifest are skipped.
+     */
+    private void download(final CanvasDataDump dump, final List<CanvasDataFile> dataFiles,
+            final CanvasDataDownloadManifest manifest) throws IOException, UnexpectedApiResponseException {
 
-        if (artifact.getDownloadPath() == null) {
-            throw new IllegalStateException(String.format("Download path has not been specified for the Canvas " +
-                    "artifact %s", artifact.getTableName()));
+        if (dataFiles.isEmpty()) {
+            return;
         }
 
-        for (final CanvasDataFile dataFile : artifact.getFiles()) {
-            download(dataFile);
+        final int fileCount = dataFiles.size();
+        final AtomicInteger completedFiles = new AtomicInteger();
+        final AtomicLong completedBytes = new AtomicLong();
+        final long startNanos = System.nanoTime();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(downloadsParallelism, fileCount));
+        try {
+            final List<Future<Long>> futures = new ArrayList<>();
+            for (final CanvasDataFile dataFile : dataFiles) {
+                futures.add(executor.submit(() -> {
+                    final long fileStartNanos = System.nanoTime();
+                    final long bytes;
+                    try {
+                        bytes = download(dump, dataFile, manifest);
+                    } catch (final Exception e) {
+                        metrics.increment("canvas.download.failures");
+                        throw e;
+                    }
+                    metrics.timer("canvas.download").recordSince(fileStartNanos, bytes);
+                    completedBytes.addAndGet(bytes);
+                    logger.info("Downloaded {} ({} bytes in {} ms) [{}/{}]", dataFile.getFilename(), bytes,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fileStartNanos),
+                            completedFiles.incrementAndGet(), fileCount);
+                    return bytes;
+                }));
+            }
+
+            for (final Future<Long> future : futures) {
+                try {
+                    future.get();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while downloading Canvas data files", e);
+                } catch (final ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof UnexpectedApiResponseException) {
+                        throw (UnexpectedApiResponseException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
         }
+
+        final long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        logger.info("Downloaded {} files ({} bytes) for Canvas data dump {} in {} ms using {} workers ({} KB/s)",
+                fileCount, completedBytes.get(), dump.getDumpId(), elapsedMillis,
+                Math.min(downloadsParallelism, fileCount), completedBytes.get() * 1000 / 1024 / elapsedMillis);
     }
 
-    private void download(final CanvasDataFile dataFile)
+    /**
+     * Downloads a single data file unless the manifest shows it is already complete and the file on disk still has
+     * the recorded size and checksum. The file is written to a <em>.part</em> file beside the target, resuming a
+     * previous partial download with an HTTP Range request when one exists, and is only moved into place with an
+     * atomic rename once fully written, so the reader never sees a truncated file.
+     *
+     * @return the number of bytes transferred by this call
+     */
+    private long download(final CanvasDataDump dump, final CanvasDataFile dataFile,
+            final CanvasDataDownloadManifest manifest) throws IOException, UnexpectedApiResponseException {
+
+        final Path target = dataFile.getDownloadPath();
+        final String manifestKey = dump.getDownloadPath().relativize(target).toString();
+
+        final CanvasDataDownloadManifest.Entry entry = manifest.getEntry(manifestKey);
+        if (entry != null && entry.isCompleted() && Files.exists(target) && Files.size(target) == entry.getSize()) {
+            if (StringUtils.equals(sha256(target), entry.getSha256())) {
+                logger.debug("Skipping {}, already downloaded", manifestKey);
+                return 0;
+            }
+            logger.warn("Downloading {} again, as it no longer matches its recorded checksum", manifestKey);
+        }
+        manifest.remove(manifestKey);
+
+        final Path partialTarget = target.resolveSibling(target.getFileName() + PARTIAL_DOWNLOAD_SUFFIX);
+        Long bytes;
+        try {
+            bytes = download(dataFile, partialTarget, Files.exists(partialTarget) ? Files.size(partialTarget) : 0);
+        } catch (final HttpClientErrorException e) {
+            if (e.getStatusCode() != HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE) {
+                throw e;
+            }
+            bytes = null;
+        }
+        if (bytes == null) {
+            // The partial file is not a prefix the server can resume from, so start over
+            Files.deleteIfExists(partialTarget);
+            bytes = download(dataFile, partialTarget, 0);
+            if (bytes == null) {
+                throw new UnexpectedApiResponseException(HttpStatus.PARTIAL_CONTENT.value(), dataFile.getUrl());
+            }
+        }
+
+        final String checksum = sha256(partialTarget);
+        final long size = Files.size(partialTarget);
+        Files.move(partialTarget, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        manifest.markCompleted(manifestKey, size, checksum);
+        saveDownloadManifest(dump, manifest);
+
+        return bytes;
+    }
+
+    /**
+     * @return the number of bytes transferred, or null when the server answered a range request with content which
+     * does not start at the offset, so nothing was appended
+     */
+    private Long download(final CanvasDataFile dataFile, final Path partialTarget, final long offset)
             throws IOException, UnexpectedApiResponseException {
 
-        RequestCallback requestCallback = request -> request.getHeaders()
-                .setAccept(Arrays.asList(MediaType.APPLICATION_OCTET_STREAM));
+        RequestCallback requestCallback = request -> {
+            request.getHeaders().setAccept(Arrays.asList(MediaType.APPLICATION_OCTET_STREAM));
+            if (offset > 0) {
+                request.getHeaders().set(HttpHeaders.RANGE, String.format("bytes=%d-", offset));
+            }
+        };
 
-        ResponseExtractor<ResponseEntity<Void>> streamingResponseExtractor = response -> {
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Files.copy(response.getBody(), dataFile.getDownloadPath(), StandardCopyOption.REPLACE_EXISTING);
+        ResponseExtractor<ResponseEntity<Long>> streamingResponseExtractor = response -> {
+            Long bytes = 0L;
+            if (response.getStatusCode() == HttpStatus.PARTIAL_CONTENT
+                    && !isRangeFrom(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE), offset)) {
+                logger.warn("Expected {} from byte {} but received range {}", dataFile.getFilename(), offset,
+                        response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+                bytes = null;
+            } else if (response.getStatusCode() == HttpStatus.PARTIAL_CONTENT) {
+                try (OutputStream out = Files.newOutputStream(partialTarget, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND)) {
+                    bytes = IOUtils.copyLarge(response.getBody(), out);
+                }
+            } else if (response.getStatusCode() == HttpStatus.OK) {
+                bytes = Files.copy(response.getBody(), partialTarget, StandardCopyOption.REPLACE_EXISTING);
             }
-            return new ResponseEntity<Void>(response.getHeaders(), response.getStatusCode());
+            return new ResponseEntity<Long>(bytes, response.getHeaders(), response.getStatusCode());
         };
 
-        ResponseEntity<Void> responseEntity = restTemplate.execute(URI.create(dataFile.getUrl()), HttpMethod.GET, requestCallback,
+        ResponseEntity<Long> responseEntity = restTemplate.execute(URI.create(dataFile.getUrl()), HttpMethod.GET, requestCallback,
                 streamingResponseExtractor);
 
-        if (responseEntity.getStatusCode() != HttpStatus.OK) {
-            new UnexpectedApiResponseException(responseEntity.getStatusCodeValue(), dataFile.getUrl());
+        if (responseEntity.getStatusCode() != HttpStatus.OK
+                && responseEntity.getStatusCode() != HttpStatus.PARTIAL_CONTENT) {
+            throw new UnexpectedApiResponseException(responseEntity.getStatusCodeValue(), dataFile.getUrl());
+        }
+
+        return responseEntity.getBody();
+    }
+
+    /**
+     * @return whether the <em>Content-Range</em> of a response covers the file from the given offset
+     */
+    private static boolean isRangeFrom(final String contentRange, final long offset) {
+        if (contentRange == null) {
+            return false;
+        }
+        final Matcher matcher = CONTENT_RANGE.matcher(contentRange.trim());
+        return matcher.matches() && matcher.group(1).equals(Long.toString(offset));
+    }
+
+    private CanvasDataDownloadManifest loadDownloadManifest(final CanvasDataDump dump) throws IOException {
+        final Path manifestPath = dump.getDownloadPath().resolve(CanvasDataDownloadManifest.FILE_NAME);
+        if (Files.exists(manifestPath)) {
+            CanvasDataDownloadManifest manifest = objectMapper.readValue(manifestPath.toFile(),
+                    CanvasDataDownloadManifest.class);
+            if (StringUtils.equals(manifest.getDumpId(), dump.getDumpId())) {
+                return manifest;
+            }
+            logger.warn("Ignoring download manifest {} which belongs to dump {} instead of {}", manifestPath,
+                    manifest.getDumpId(), dump.getDumpId());
+        }
+        return new CanvasDataDownloadManifest(dump.getDumpId());
+    }
+
+    private void saveDownloadManifest(final CanvasDataDump dump, final CanvasDataDownloadManifest manifest)
+            throws IOException {
+        final Path manifestPath = dump.getDownloadPath().resolve(CanvasDataDownloadManifest.FILE_NAME);
+        final Path temporaryPath = manifestPath.resolveSibling(manifestPath.getFileName() + PARTIAL_DOWNLOAD_SUFFIX);
+        synchronized (manifest) {
+            Files.write(temporaryPath, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(manifest));
+            Files.move(temporaryPath, manifestPath, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String sha256(final Path file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            IOUtils.copyLarge(in, NullOutputStream.NULL_OUTPUT_STREAM);
         }
+        return String.format("%064x", new BigInteger(1, digest.digest()));
     }
 
     private CanvasDataDump updateDumpDownloadDirectories(final CanvasDataDump dump) {
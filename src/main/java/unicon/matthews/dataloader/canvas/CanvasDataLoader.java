@@ -5,26 +5,37 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import unicon.matthews.caliper.Event;
+import unicon.matthews.dataloader.BatchingEventSink;
 import unicon.matthews.dataloader.DataLoader;
 import unicon.matthews.dataloader.DataSync;
 import unicon.matthews.dataloader.DataSync.DataSyncStatus;
 import unicon.matthews.dataloader.DataSync.DataSyncType;
+import unicon.matthews.dataloader.LoadMetrics;
 import unicon.matthews.dataloader.MatthewsClient;
+import unicon.matthews.dataloader.StageGraph;
 import unicon.matthews.dataloader.canvas.CanvasDataApiClient.Options;
 import unicon.matthews.dataloader.canvas.io.converter.CanvasConversionService;
+import unicon.matthews.dataloader.canvas.io.converter.SessionUserIndex;
 import unicon.matthews.dataloader.canvas.io.converter.SupportingEntities;
 import unicon.matthews.dataloader.canvas.io.deserialize.CanvasDataDumpReader;
+import unicon.matthews.dataloader.canvas.io.deserialize.CanvasDumpReadScheduler;
+import unicon.matthews.dataloader.canvas.io.deserialize.CanvasDumpReadScheduler.Table;
+import unicon.matthews.dataloader.canvas.io.deserialize.ColumnPredicate;
+import unicon.matthews.dataloader.canvas.io.deserialize.ReadableCanvasDumpArtifact;
 import unicon.matthews.dataloader.canvas.model.CanvasAssignmentDimension;
 import unicon.matthews.dataloader.canvas.model.CanvasAssignmentSubmissionDimension;
 import unicon.matthews.dataloader.canvas.model.CanvasAssignmentSubmissionFact;
@@ -62,10 +73,58 @@ public class CanvasDataLoader implements DataLoader {
 
   @Autowired
   CanvasConversionService canvasConversionService;
+
+  @Autowired
+  private LoadMetrics loadMetrics;
+
+  /**
+   * Number of data files of a single artifact to decompress and parse concurrently for the large, multi-file tables
+   * which are read into memory, such as quiz submission history. Requests are streamed instead.
+   */
+  @Value("${reader.parallelism:1}")
+  private int readerParallelism;
+
+  /**
+   * Whether to keep a memory mapped columnar snapshot beside each downloaded requests file, so the second pass over
+   * the requests, and later runs over the same dump, skip decompressing and parsing it.
+   */
+  @Value("${reader.snapshots:false}")
+  private boolean readerSnapshots;
+
+  /**
+   * Number of tables of a dump to read ahead concurrently while earlier ones are converted and posted; 0 uses one per
+   * available processor.
+   */
+  @Value("${reader.tables.parallelism:0}")
+  private int readerTableParallelism;
+
+  /**
+   * Estimated heap, in megabytes, which tables read ahead but not yet converted may hold.
+   */
+  @Value("${reader.tables.memory-budget-mb:1024}")
+  private int readerMemoryBudgetMegabytes;
+
+  /**
+   * Number of load stages of a dump, such as the event conversions, to run concurrently once their dependencies have
+   * completed; 1 runs the stages one after another.
+   */
+  @Value("${loader.stages.parallelism:4}")
+  private int stageParallelism;
   
   // Sensor ID which indicates origin from this loader and the data origin (Dump vs potential of pulling via Redshift)
   private static final String SENSOR_ID_DUMP_READER = "canvas-matthews-data-loader/dump-reader";
 
+  // Request columns read by the session index and by the page request converters; the requests table is the largest
+  // in the dump, so the remaining columns (user agent, remote IP, etc.) are not decoded. Keep these in step with the
+  // request fields the converters use.
+  private static final String[] SESSION_INDEX_REQUEST_COLUMNS = { "session_id", "user_id" };
+  private static final String[] CONVERTED_REQUEST_COLUMNS = { "id", "timestamp", "user_id", "course_id",
+      "root_account_id", "quiz_id", "discussion_id", "conversation_id", "assignment_id", "url", "http_method",
+      "web_application_controller", "web_applicaiton_action", "session_id", "http_status" };
+  // Converted request columns with only a handful of distinct values, which share one String per value
+  private static final String[] LOW_CARDINALITY_REQUEST_COLUMNS = { "http_method", "web_application_controller",
+      "web_applicaiton_action", "http_status" };
+
   @Override
   public void run() {
     
@@ -123,193 +182,7 @@ public class CanvasDataLoader implements DataLoader {
         for (CanvasDataDump dump : dumps) {
           
           logger.debug("Processing dump {} updated at {}",dump.getDumpId(),dump.getUpdatedAt());
-          
-          Collection<CanvasEnrollmentTermDimension> enrollmentTerms
-          = CanvasDataDumpReader.forType(CanvasEnrollmentTermDimension.class).read(dump);
-        
-          SupportingEntities supportingEntities = SupportingEntities.builder()
-              .enrollmentTerms(enrollmentTerms)
-              .build();
-  
-          Collection<CanvasCourseSectionDimension> courseSections
-            = CanvasDataDumpReader.forType(CanvasCourseSectionDimension.class).read(dump);
-          Map<String, unicon.matthews.oneroster.Class> classMap = new HashMap<>();
-  
-          List<unicon.matthews.oneroster.Class> classes = canvasConversionService.convertCanvasCourseSections(courseSections, supportingEntities);
-          if (classes != null) {
-            for (unicon.matthews.oneroster.Class klass : classes) {
-              matthewsClient.postClass(klass);
-              classMap.put(klass.getSourcedId(), klass);
-            }
-          }
-          
-          // class mapping
-          for (String key : classMap.keySet()) {
-            
-            Class klass = classMap.get(key);
-            String classExternalId = klass.getMetadata().get("CANVAS_COURSE_SECTION_ID");
-            
-            ClassMapping classMapping
-              = new ClassMapping.Builder()
-                .withDateLastModified(LocalDateTime.now())
-                .withClassExternalId(classExternalId)
-                .withClassSourcedId(String.valueOf(klass.getSourcedId()))
-                .build();
-            
-            matthewsClient.postClassMapping(classMapping);
-          }
-          
-          Collection<CanvasCommunicationChannelDimension> communicationChannels
-            = CanvasDataDumpReader.forType(CanvasCommunicationChannelDimension.class).read(dump);
-          Map<String,String> userEmailMap = new HashMap<>();
-          if (communicationChannels != null && !communicationChannels.isEmpty()) {
-            for (CanvasCommunicationChannelDimension channel : communicationChannels) {
-              if ("email".equalsIgnoreCase(channel.getType())) {
-                userEmailMap.put(String.valueOf(channel.getUserId().get()), channel.getAddress());
-              }
-            }
-          }
-
-          supportingEntities = SupportingEntities.builder()
-              .classes(classMap)
-              .userEmailMap(userEmailMap)
-              .enrollmentTerms(enrollmentTerms)
-              .build();
-          
-          Collection<CanvasUserDimension> canvasUsers 
-            = CanvasDataDumpReader.forType(CanvasUserDimension.class).read(dump);
-          Map<String, User> userMap = new HashMap<>();
-          
-          List<User> users = canvasConversionService.convertCanvasUsers(canvasUsers, supportingEntities);
-          if (users != null) {
-            for (User user : users) {
-              matthewsClient.postUser(user);
-              userMap.put(user.getSourcedId(), user);
-            }
-          }
-          
-          // user mapping
-          for (String key : userMap.keySet()) {
-            
-            User user = userMap.get(key);
-            String userExternalId = user.getMetadata().get("CANVAS_USER_ID");
-            
-            UserMapping userMapping
-              = new UserMapping.Builder()
-                .withDateLastModified(LocalDateTime.now())
-                .withUserExternalId(userExternalId)
-                .withUserSourcedId(String.valueOf(user.getSourcedId()))
-                .build();
-            
-            matthewsClient.postUserMapping(userMapping);
-          }
-  
-          
-          supportingEntities = SupportingEntities.builder()
-              .classes(classMap)
-              .userEmailMap(userEmailMap)
-              .users(userMap)
-              .enrollmentTerms(enrollmentTerms)
-              .build();
-          
-          Collection<CanvasEnrollmentDimension> canvasEnrollments
-            = CanvasDataDumpReader.forType(CanvasEnrollmentDimension.class).read(dump);
-          Map<String, Enrollment> enrollmentMap = new HashMap<>();
-  
-          List<Enrollment> enrollments = canvasConversionService.convertCanvasEnrollments(canvasEnrollments, supportingEntities);
-          if (enrollments != null) {
-            for (Enrollment enrollment : enrollments) {
-              matthewsClient.postEnrollment(enrollment);
-              enrollmentMap.put(enrollment.getSourcedId(), enrollment);
-            }
-          }
-  
-          Map<String, LineItem> lineItemMap = new HashMap<>();
-          Collection<CanvasAssignmentDimension> canvasAssignments
-            = CanvasDataDumpReader.forType(CanvasAssignmentDimension.class).read(dump);
-  
-          List<LineItem> assignmentLineItems = canvasConversionService.convertCanvasAssignments(canvasAssignments, supportingEntities);
-          if (assignmentLineItems != null) {
-            for (LineItem lineItem : assignmentLineItems) {
-              matthewsClient.postLineItem(lineItem);
-              lineItemMap.put(lineItem.getSourcedId(), lineItem);
-            }
-          }
-  
-          Collection<CanvasQuizDimension> canvasQuizzes
-            = CanvasDataDumpReader.forType(CanvasQuizDimension.class).read(dump);
-  
-          List<LineItem> quizLineItems = canvasConversionService.convertCanvasQuizes(canvasQuizzes, supportingEntities);
-          if (quizLineItems != null) {
-            for (LineItem lineItem : quizLineItems) {
-              matthewsClient.postLineItem(lineItem);
-              lineItemMap.put(lineItem.getSourcedId(), lineItem);
-            }
-          }
-  
-          Collection<CanvasDataPseudonymDimension> pseudonymDimensions = CanvasDataDumpReader.forType(
-                  CanvasDataPseudonymDimension.class).read(dump);
-  
-          Collection<CanvasPageRequest> pageRequests = CanvasDataDumpReader.forType(CanvasPageRequest.class).read(dump);
-
-          supportingEntities = SupportingEntities.builder()
-                  .classes(classMap)
-                  .userEmailMap(userEmailMap)
-                  .users(userMap)
-                  .canvasUserDimensions(canvasUsers)
-                  .pseudonymDimensions(pseudonymDimensions)
-                  .enrollments(enrollmentMap)
-                  .lineItems(lineItemMap)
-                  .pageRequests(pageRequests)
-                  .enrollmentTerms(enrollmentTerms)
-                  .build();
-  
-          // Quiz Submission Events
-          Collection<CanvasQuizSubmissionFact> quizSubmissionFacts = CanvasDataDumpReader.forType(
-                  CanvasQuizSubmissionFact.class).includeOnly(CanvasQuizSubmissionFact.Types.quiz_submission_fact)
-                  .read(dump);
-          Collection<CanvasQuizSubmissionDimension> quizSubmissionDimensions = CanvasDataDumpReader.forType(
-                  CanvasQuizSubmissionDimension.class).read(dump);
-          supportingEntities.setCanvasQuizSubmissionDimensions(quizSubmissionDimensions);
-          Collection<CanvasQuizSubmissionHistoricalDimension> quizSubmissionHistoricalDimensions =
-                  CanvasDataDumpReader.forType(CanvasQuizSubmissionHistoricalDimension.class).read(dump);
-          supportingEntities.setCanvasQuizSubmissionHistoricalDimensions(quizSubmissionHistoricalDimensions);
-          List<Event> quizSubmissionEvents = canvasConversionService.convertCanvasQuizSubmissions(
-                  quizSubmissionFacts, supportingEntities);
-           if (quizSubmissionEvents != null && !quizSubmissionEvents.isEmpty()) {
-             matthewsClient.postEvents(quizSubmissionEvents, SENSOR_ID_DUMP_READER);
-           }
-
-          // Discussion Forum Entry Events
-          Collection<CanvasDiscussionForumEntryFact> discussionForumEntryFacts = CanvasDataDumpReader.forType(
-                  CanvasDiscussionForumEntryFact.class).read(dump);
-          supportingEntities.setDiscussionForumEntryFacts(discussionForumEntryFacts);
-          Collection<CanvasDiscussionForumEntryDimension> discussionForumEntryDimensions = CanvasDataDumpReader.forType(
-                  CanvasDiscussionForumEntryDimension.class).read(dump);
-          supportingEntities.setDiscussionForumEntryDimensions(discussionForumEntryDimensions);
-          List<Event> discussionForumEntryEvents = canvasConversionService.convertCanvasDiscussionForumEntries(
-                  discussionForumEntryFacts, supportingEntities);
-          if (discussionForumEntryEvents != null && !discussionForumEntryEvents.isEmpty()) {
-            matthewsClient.postEvents(discussionForumEntryEvents, SENSOR_ID_DUMP_READER);
-          }
-          
-          // Assignment Submission Events
-          Collection<CanvasAssignmentSubmissionDimension> canvasAssignmentSubmissionDimensions
-            = CanvasDataDumpReader.forType(CanvasAssignmentSubmissionDimension.class).read(dump);
-          supportingEntities.setCanvasAssignmentSubmissionDimensions(canvasAssignmentSubmissionDimensions);
-          Collection<CanvasAssignmentSubmissionFact> canvasAssignmentSubmissionFacts
-            = CanvasDataDumpReader.forType(CanvasAssignmentSubmissionFact.class).read(dump);
-          List<Event> assignmentSubmissionEvents 
-            = canvasConversionService.convertCanvasAssignmentSubmissions(canvasAssignmentSubmissionFacts, supportingEntities);
-          if (assignmentSubmissionEvents != null && !assignmentSubmissionEvents.isEmpty()) {
-            matthewsClient.postEvents(assignmentSubmissionEvents, SENSOR_ID_DUMP_READER);
-          }
-  
-          // TODO - Need to develop more Page Request Event converters
-          List<Event> events = canvasConversionService.convertPageRequests(pageRequests, supportingEntities);
-          if (events != null && !events.isEmpty()) {
-            matthewsClient.postEvents(events, SENSOR_ID_DUMP_READER);
-          }
+          loadDump(dump);
         }
         
         DataSync dataSync
@@ -329,5 +202,358 @@ public class CanvasDataLoader implements DataLoader {
       // TODO Auto-generated catch block
       e.printStackTrace();
     }
+    finally {
+      loadMetrics.logSummary();
+    }
+  }
+
+  /**
+   * Loads a dump as a graph of stages: the rostering stages run in dependency order (classes, then users, then
+   * enrollments and line items), the session index is built from the requests alongside them, and the four event
+   * stages, which only join against what the earlier stages stored, run concurrently.
+   */
+  private void loadDump(CanvasDataDump dump) throws Exception {
+    // The tables are read ahead, in the order the stages use them, while earlier stages convert and post; the
+    // requests are streamed by their stages instead
+    try (CanvasDumpReadScheduler readAhead = new CanvasDumpReadScheduler(dump, tableReadParallelism(),
+        readerMemoryBudgetMegabytes)) {
+      DumpLoad load = new DumpLoad(dump, readAhead, readerParallelism, loadMetrics);
+      new StageGraph("dump " + dump.getDumpId())
+          .add("classes", () -> loadClasses(load))
+          .add("users", () -> loadUsers(load), "classes")
+          .add("enrollments", () -> loadEnrollments(load), "users")
+          .add("line items", () -> loadLineItems(load), "users")
+          .add("session index", () -> indexSessionUsers(load))
+          .add("event entities", () -> loadEventEntities(load), "enrollments", "line items", "session index")
+          .add("quiz submission events", () -> loadQuizSubmissionEvents(load), "event entities")
+          .add("discussion forum entry events", () -> loadDiscussionForumEntryEvents(load), "event entities")
+          .add("assignment submission events", () -> loadAssignmentSubmissionEvents(load), "event entities")
+          .add("page request events", () -> loadPageRequestEvents(load), "event entities")
+          .run(stageParallelism);
+    } finally {
+      canvasConversionService.logConversionSummary();
+    }
+  }
+
+  private void loadClasses(DumpLoad load) throws Exception {
+    load.enrollmentTerms = load.enrollmentTermsTable.take();
+
+    SupportingEntities supportingEntities = SupportingEntities.builder()
+        .enrollmentTerms(load.enrollmentTerms)
+        .build();
+
+    Collection<CanvasCourseSectionDimension> courseSections = load.courseSectionsTable.take();
+    Map<String, unicon.matthews.oneroster.Class> classMap = new HashMap<>();
+
+    List<unicon.matthews.oneroster.Class> classes = canvasConversionService.convertCanvasCourseSections(courseSections, supportingEntities);
+    if (classes != null) {
+      matthewsClient.postClasses(classes);
+      for (unicon.matthews.oneroster.Class klass : classes) {
+        classMap.put(klass.getSourcedId(), klass);
+      }
+    }
+    
+    // class mapping
+    List<ClassMapping> classMappings = new ArrayList<>();
+    for (String key : classMap.keySet()) {
+      
+      Class klass = classMap.get(key);
+      String classExternalId = klass.getMetadata().get("CANVAS_COURSE_SECTION_ID");
+      
+      ClassMapping classMapping
+        = new ClassMapping.Builder()
+          .withDateLastModified(LocalDateTime.now())
+          .withClassExternalId(classExternalId)
+          .withClassSourcedId(String.valueOf(klass.getSourcedId()))
+          .build();
+      
+      classMappings.add(classMapping);
+    }
+    matthewsClient.postClassMappings(classMappings);
+    load.classMap = classMap;
+  }
+
+  private void loadUsers(DumpLoad load) throws Exception {
+    Collection<CanvasCommunicationChannelDimension> communicationChannels = load.communicationChannelsTable.take();
+    Map<String,String> userEmailMap = new HashMap<>();
+    if (communicationChannels != null && !communicationChannels.isEmpty()) {
+      for (CanvasCommunicationChannelDimension channel : communicationChannels) {
+        if ("email".equalsIgnoreCase(channel.getType())) {
+          userEmailMap.put(String.valueOf(channel.getUserId().get()), channel.getAddress());
+        }
+      }
+    }
+
+    SupportingEntities supportingEntities = SupportingEntities.builder()
+        .classes(load.classMap)
+        .userEmailMap(userEmailMap)
+        .enrollmentTerms(load.enrollmentTerms)
+        .build();
+    
+    Collection<CanvasUserDimension> canvasUsers = load.canvasUsersTable.take();
+    Map<String, User> userMap = new HashMap<>();
+    
+    List<User> users = canvasConversionService.convertCanvasUsers(canvasUsers, supportingEntities);
+    if (users != null) {
+      matthewsClient.postUsers(users);
+      for (User user : users) {
+        userMap.put(user.getSourcedId(), user);
+      }
+    }
+    
+    // user mapping
+    List<UserMapping> userMappings = new ArrayList<>();
+    for (String key : userMap.keySet()) {
+      
+      User user = userMap.get(key);
+      String userExternalId = user.getMetadata().get("CANVAS_USER_ID");
+      
+      UserMapping userMapping
+        = new UserMapping.Builder()
+          .withDateLastModified(LocalDateTime.now())
+          .withUserExternalId(userExternalId)
+          .withUserSourcedId(String.valueOf(user.getSourcedId()))
+          .build();
+      
+      userMappings.add(userMapping);
+    }
+    matthewsClient.postUserMappings(userMappings);
+
+    // Enrollments and line items refer to the classes and users, so those must be stored first
+    matthewsClient.awaitPosts();
+
+    load.userEmailMap = userEmailMap;
+    load.canvasUsers = canvasUsers;
+    load.userMap = userMap;
+  }
+
+  private void loadEnrollments(DumpLoad load) throws Exception {
+    Collection<CanvasEnrollmentDimension> canvasEnrollments = load.canvasEnrollmentsTable.take();
+    Map<String, Enrollment> enrollmentMap = new HashMap<>();
+
+    List<Enrollment> enrollments = canvasConversionService.convertCanvasEnrollments(canvasEnrollments, rosterEntities(load));
+    if (enrollments != null) {
+      matthewsClient.postEnrollments(enrollments);
+      for (Enrollment enrollment : enrollments) {
+        enrollmentMap.put(enrollment.getSourcedId(), enrollment);
+      }
+    }
+    load.enrollmentMap = enrollmentMap;
+  }
+
+  private void loadLineItems(DumpLoad load) throws Exception {
+    SupportingEntities supportingEntities = rosterEntities(load);
+    Map<String, LineItem> lineItemMap = new HashMap<>();
+    Collection<CanvasAssignmentDimension> canvasAssignments = load.canvasAssignmentsTable.take();
+
+    List<LineItem> assignmentLineItems = canvasConversionService.convertCanvasAssignments(canvasAssignments, supportingEntities);
+    if (assignmentLineItems != null) {
+      matthewsClient.postLineItems(assignmentLineItems);
+      for (LineItem lineItem : assignmentLineItems) {
+        lineItemMap.put(lineItem.getSourcedId(), lineItem);
+      }
+    }
+
+    Collection<CanvasQuizDimension> canvasQuizzes = load.canvasQuizzesTable.take();
+
+    List<LineItem> quizLineItems = canvasConversionService.convertCanvasQuizes(canvasQuizzes, supportingEntities);
+    if (quizLineItems != null) {
+      matthewsClient.postLineItems(quizLineItems);
+      for (LineItem lineItem : quizLineItems) {
+        lineItemMap.put(lineItem.getSourcedId(), lineItem);
+      }
+    }
+    load.lineItemMap = lineItemMap;
+  }
+
+  /**
+   * The requests table is too large to hold, so a first streaming pass only indexes the user of each session for the
+   * converters which need it, and the requests are converted in a second pass by their event stage.
+   */
+  private void indexSessionUsers(DumpLoad load) throws Exception {
+    try (Stream<CanvasPageRequest> pageRequests = newPageRequestReader()
+            .project(SESSION_INDEX_REQUEST_COLUMNS)
+            .where("session_id", ColumnPredicate.notNull()).where("user_id", ColumnPredicate.notNull())
+            .stream(load.dump)) {
+      load.sessionUserIndex = SessionUserIndex.of(pageRequests);
+    }
+    logger.debug("Indexed users of {} sessions", load.sessionUserIndex.size());
+  }
+
+  private void loadEventEntities(DumpLoad load) throws Exception {
+    // Events refer to the enrollments and line items
+    matthewsClient.awaitPosts();
+    load.pseudonymDimensions = load.pseudonymDimensionsTable.take();
+  }
+
+  private void loadQuizSubmissionEvents(DumpLoad load) throws Exception {
+    SupportingEntities supportingEntities = eventEntities(load);
+    Collection<CanvasQuizSubmissionFact> quizSubmissionFacts = load.quizSubmissionFactsTable.take();
+    supportingEntities.setCanvasQuizSubmissionDimensions(load.quizSubmissionDimensionsTable.take());
+    supportingEntities.setCanvasQuizSubmissionHistoricalDimensions(load.quizSubmissionHistoricalDimensionsTable.take());
+    List<Event> quizSubmissionEvents = canvasConversionService.convertCanvasQuizSubmissions(
+            quizSubmissionFacts, supportingEntities);
+    if (quizSubmissionEvents != null && !quizSubmissionEvents.isEmpty()) {
+      matthewsClient.postEvents(quizSubmissionEvents, SENSOR_ID_DUMP_READER);
+    }
+  }
+
+  private void loadDiscussionForumEntryEvents(DumpLoad load) throws Exception {
+    SupportingEntities supportingEntities = eventEntities(load);
+    Collection<CanvasDiscussionForumEntryFact> discussionForumEntryFacts = load.discussionForumEntryFactsTable.take();
+    supportingEntities.setDiscussionForumEntryFacts(discussionForumEntryFacts);
+    supportingEntities.setDiscussionForumEntryDimensions(load.discussionForumEntryDimensionsTable.take());
+    List<Event> discussionForumEntryEvents = canvasConversionService.convertCanvasDiscussionForumEntries(
+            discussionForumEntryFacts, supportingEntities);
+    if (discussionForumEntryEvents != null && !discussionForumEntryEvents.isEmpty()) {
+      matthewsClient.postEvents(discussionForumEntryEvents, SENSOR_ID_DUMP_READER);
+    }
+  }
+
+  private void loadAssignmentSubmissionEvents(DumpLoad load) throws Exception {
+    SupportingEntities supportingEntities = eventEntities(load);
+    supportingEntities.setCanvasAssignmentSubmissionDimensions(load.canvasAssignmentSubmissionDimensionsTable.take());
+    Collection<CanvasAssignmentSubmissionFact> canvasAssignmentSubmissionFacts
+      = load.canvasAssignmentSubmissionFactsTable.take();
+    List<Event> assignmentSubmissionEvents 
+      = canvasConversionService.convertCanvasAssignmentSubmissions(canvasAssignmentSubmissionFacts, supportingEntities);
+    if (assignmentSubmissionEvents != null && !assignmentSubmissionEvents.isEmpty()) {
+      matthewsClient.postEvents(assignmentSubmissionEvents, SENSOR_ID_DUMP_READER);
+    }
+  }
+
+  private void loadPageRequestEvents(DumpLoad load) throws Exception {
+    // TODO - Need to develop more Page Request Event converters
+    // Requests no converter is routed for are discarded while parsing, before a request object is created
+    CanvasDataDumpReader<CanvasPageRequest> pageRequestReader = newPageRequestReader()
+            .project(CONVERTED_REQUEST_COLUMNS).deduplicate(LOW_CARDINALITY_REQUEST_COLUMNS);
+    canvasConversionService.getRoutedPageRequestControllers().ifPresent(controllers ->
+            pageRequestReader.where("web_application_controller", ColumnPredicate.inIgnoreCase(controllers)));
+    canvasConversionService.getRoutedPageRequestHttpStatuses().ifPresent(httpStatuses ->
+            pageRequestReader.where("http_status", ColumnPredicate.in(httpStatuses)));
+    try (Stream<CanvasPageRequest> pageRequests = pageRequestReader.stream(load.dump);
+         BatchingEventSink eventSink = matthewsClient.newEventSink(SENSOR_ID_DUMP_READER)) {
+      long eventCount = canvasConversionService.convertPageRequests(pageRequests, eventEntities(load), eventSink);
+      eventSink.flush();
+      logger.debug("Submitted {} page request events in {} batches", eventCount, eventSink.getPostedBatches());
+    }
+  }
+
+  /**
+   * @return entities the enrollment and line item converters join against
+   */
+  private SupportingEntities rosterEntities(DumpLoad load) {
+    return SupportingEntities.builder()
+        .classes(load.classMap)
+        .userEmailMap(load.userEmailMap)
+        .users(load.userMap)
+        .enrollmentTerms(load.enrollmentTerms)
+        .build();
+  }
+
+  /**
+   * @return entities the event converters join against; each event stage gets its own instance, as they run
+   *         concurrently and add the tables only they use
+   */
+  private SupportingEntities eventEntities(DumpLoad load) {
+    return SupportingEntities.builder()
+        .classes(load.classMap)
+        .userEmailMap(load.userEmailMap)
+        .users(load.userMap)
+        .canvasUserDimensions(load.canvasUsers)
+        .pseudonymDimensions(load.pseudonymDimensions)
+        .enrollments(load.enrollmentMap)
+        .lineItems(load.lineItemMap)
+        .sessionUserIndex(load.sessionUserIndex)
+        .enrollmentTerms(load.enrollmentTerms)
+        .build();
+  }
+
+  private int tableReadParallelism() {
+    return readerTableParallelism > 0 ? readerTableParallelism : Runtime.getRuntime().availableProcessors();
+  }
+
+  private CanvasDataDumpReader<CanvasPageRequest> newPageRequestReader() throws Exception {
+    CanvasDataDumpReader<CanvasPageRequest> reader = CanvasDataDumpReader.forType(CanvasPageRequest.class)
+        .withFastParser()
+        .withMetrics(loadMetrics);
+    return readerSnapshots ? reader.withSnapshots() : reader;
+  }
+
+  /**
+   * Tables and entities of one dump, handed from each stage to the stages which depend on it. A stage only reads what
+   * the stages it depends on wrote, which the stage graph orders before it.
+   */
+  private static class DumpLoad {
+
+    private final CanvasDataDump dump;
+    private final Table<CanvasEnrollmentTermDimension> enrollmentTermsTable;
+    private final Table<CanvasCourseSectionDimension> courseSectionsTable;
+    private final Table<CanvasCommunicationChannelDimension> communicationChannelsTable;
+    private final Table<CanvasUserDimension> canvasUsersTable;
+    private final Table<CanvasEnrollmentDimension> canvasEnrollmentsTable;
+    private final Table<CanvasAssignmentDimension> canvasAssignmentsTable;
+    private final Table<CanvasQuizDimension> canvasQuizzesTable;
+    private final Table<CanvasDataPseudonymDimension> pseudonymDimensionsTable;
+    private final Table<CanvasQuizSubmissionFact> quizSubmissionFactsTable;
+    private final Table<CanvasQuizSubmissionDimension> quizSubmissionDimensionsTable;
+    private final Table<CanvasQuizSubmissionHistoricalDimension> quizSubmissionHistoricalDimensionsTable;
+    private final Table<CanvasDiscussionForumEntryFact> discussionForumEntryFactsTable;
+    private final Table<CanvasDiscussionForumEntryDimension> discussionForumEntryDimensionsTable;
+    private final Table<CanvasAssignmentSubmissionDimension> canvasAssignmentSubmissionDimensionsTable;
+    private final Table<CanvasAssignmentSubmissionFact> canvasAssignmentSubmissionFactsTable;
+
+    private Collection<CanvasEnrollmentTermDimension> enrollmentTerms;
+    private Map<String, unicon.matthews.oneroster.Class> classMap;
+    private Map<String, String> userEmailMap;
+    private Collection<CanvasUserDimension> canvasUsers;
+    private Map<String, User> userMap;
+    private Map<String, Enrollment> enrollmentMap;
+    private Map<String, LineItem> lineItemMap;
+    private SessionUserIndex sessionUserIndex;
+    private Collection<CanvasDataPseudonymDimension> pseudonymDimensions;
+
+    private DumpLoad(CanvasDataDump dump, CanvasDumpReadScheduler readAhead, int readerParallelism,
+        LoadMetrics metrics) throws Exception {
+      this.dump = dump;
+      this.enrollmentTermsTable
+        = readAhead.schedule(readerFor(CanvasEnrollmentTermDimension.class, metrics));
+      this.courseSectionsTable
+        = readAhead.schedule(readerFor(CanvasCourseSectionDimension.class, metrics));
+      this.communicationChannelsTable
+        = readAhead.schedule(readerFor(CanvasCommunicationChannelDimension.class, metrics));
+      this.canvasUsersTable
+        = readAhead.schedule(readerFor(CanvasUserDimension.class, metrics));
+      this.canvasEnrollmentsTable
+        = readAhead.schedule(readerFor(CanvasEnrollmentDimension.class, metrics)
+            .deduplicate("type", "workflow_state"));
+      this.canvasAssignmentsTable
+        = readAhead.schedule(readerFor(CanvasAssignmentDimension.class, metrics));
+      this.canvasQuizzesTable
+        = readAhead.schedule(readerFor(CanvasQuizDimension.class, metrics));
+      this.pseudonymDimensionsTable
+        = readAhead.schedule(readerFor(CanvasDataPseudonymDimension.class, metrics));
+      this.quizSubmissionFactsTable
+        = readAhead.schedule(readerFor(CanvasQuizSubmissionFact.class, metrics)
+            .includeOnly(CanvasQuizSubmissionFact.Types.quiz_submission_fact));
+      this.quizSubmissionDimensionsTable
+        = readAhead.schedule(readerFor(CanvasQuizSubmissionDimension.class, metrics));
+      this.quizSubmissionHistoricalDimensionsTable
+        = readAhead.schedule(readerFor(CanvasQuizSubmissionHistoricalDimension.class, metrics)
+            .withParallelism(readerParallelism));
+      this.discussionForumEntryFactsTable
+        = readAhead.schedule(readerFor(CanvasDiscussionForumEntryFact.class, metrics));
+      this.discussionForumEntryDimensionsTable
+        = readAhead.schedule(readerFor(CanvasDiscussionForumEntryDimension.class, metrics));
+      this.canvasAssignmentSubmissionDimensionsTable
+        = readAhead.schedule(readerFor(CanvasAssignmentSubmissionDimension.class, metrics));
+      this.canvasAssignmentSubmissionFactsTable
+        = readAhead.schedule(readerFor(CanvasAssignmentSubmissionFact.class, metrics));
+    }
+
+    private static <T extends ReadableCanvasDumpArtifact> CanvasDataDumpReader<T> readerFor(Class<T> type,
+        LoadMetrics metrics) throws Exception {
+      return CanvasDataDumpReader.forType(type).withMetrics(metrics);
+    }
   }
 }
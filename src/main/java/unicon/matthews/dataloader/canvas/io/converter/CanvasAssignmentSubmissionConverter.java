@@ -32,28 +32,20 @@ public class CanvasAssignmentSubmissionConverter implements Converter<CanvasAssi
     Optional<Event> result = null;
 
     CanvasAssignmentSubmissionDimension canvasAssignmentSubmissionDimension =
-            supportingEntities.getCanvasAssignmentSubmissionDimensions().stream().filter(
-                    dim -> source.getAssignmentId().equals(dim.getId())).findFirst().get();
+            supportingEntities.findCanvasAssignmentSubmissionDimension(source.getSubmissionId()).get();
 
     User user = supportingEntities.getUsers().get(source.getUserId().toString());
 
-    CanvasUserDimension canvasUserDimension = supportingEntities.getCanvasUserDimensions().stream().filter(
-            u -> u.getId().equalsIgnoreCase(source.getUserId().toString())).findFirst().get();
+    CanvasUserDimension canvasUserDimension = supportingEntities.findCanvasUserDimension(
+            source.getUserId().toString()).get();
 
     LocalDateTime eventTime = LocalDateTime.ofInstant(canvasAssignmentSubmissionDimension.getCreatedAt().get(),
             ZoneId.of("UTC"));
 
-    Enrollment enrollment 
-    = supportingEntities.getEnrollments()
-      .values().stream()
-      .filter(
-              e -> e.getKlass().getSourcedId().equalsIgnoreCase(source.getCourseId().toString())
-                && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-          ).findFirst().get();
-
-    LineItem canvasAssignmentLineItem = supportingEntities.getLineItems().values().stream().filter(
-            l -> l.getSourcedId().equalsIgnoreCase(
-                canvasAssignmentSubmissionDimension.getAssignmentId().toString())).findFirst().get();
+    Enrollment enrollment = supportingEntities.findEnrollment(source.getCourseId().toString(), user.getSourcedId()).get();
+
+    LineItem canvasAssignmentLineItem = supportingEntities.findLineItem(
+            canvasAssignmentSubmissionDimension.getAssignmentId().toString()).get();
 
     Event event = new EventBuilderUtils()
             .usingAssignmentSubmissionEventType()
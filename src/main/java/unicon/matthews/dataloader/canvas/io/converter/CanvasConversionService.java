@@ -2,12 +2,24 @@ package unicon.matthews.dataloader.canvas.io.converter;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import unicon.matthews.caliper.Event;
@@ -27,10 +39,20 @@ import unicon.matthews.oneroster.User;
 @Component
 public class CanvasConversionService {
 
+    private static final String PAGE_REQUEST = "Page Request";
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     @Autowired
     private List<Converter<CanvasPageRequest, Optional<Event>>> pageRequestToEventConverters;
+
+    /**
+     * Candidate converters for each declared page request route, in registration order. Converters which do not
+     * declare routes are candidates for every request, so they are included in each entry as well as in the fallback.
+     */
+    private Map<PageRequestRoute, List<Converter<CanvasPageRequest, Optional<Event>>>> pageRequestConverterRoutes;
+
+    private List<Converter<CanvasPageRequest, Optional<Event>>> unroutedPageRequestConverters;
     
     @Autowired
     private CanvasClassConverter canvasClassConverter;
@@ -55,38 +77,130 @@ public class CanvasConversionService {
     
     @Autowired
     private CanvasAssignmentSubmissionConverter canvasAssignmentSubmissionConverter;
+
+    @Autowired
+    private ConversionTrace conversionTrace;
     
+    /**
+     * Number of workers converting the rows of fact tables and page requests; 1 converts them on the calling thread.
+     */
+    @Value("${conversion.parallelism:1}")
+    private int conversionParallelism;
+
+    /**
+     * Whether parallel conversion returns events in the order of their source rows, as a sequential conversion does,
+     * rather than as soon as each partition of rows is converted.
+     */
+    @Value("${conversion.ordered:true}")
+    private boolean conversionOrdered;
+
+    private ParallelConversion parallelConversion;
+
+    @PostConstruct
+    void initialize() {
+        buildPageRequestConverterRoutes();
+        parallelConversion = new ParallelConversion(conversionParallelism, conversionOrdered);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        parallelConversion.shutdown();
+    }
+
+    void buildPageRequestConverterRoutes() {
+        Set<PageRequestRoute> routes = new HashSet<>();
+        unroutedPageRequestConverters = new ArrayList<>();
+        for (Converter<CanvasPageRequest, Optional<Event>> converter : pageRequestToEventConverters) {
+            if (converter instanceof RoutedPageRequestConverter) {
+                routes.addAll(((RoutedPageRequestConverter) converter).getRoutes());
+            } else {
+                unroutedPageRequestConverters.add(converter);
+            }
+        }
+
+        pageRequestConverterRoutes = new HashMap<>();
+        for (PageRequestRoute route : routes) {
+            pageRequestConverterRoutes.put(route, pageRequestToEventConverters.stream()
+                    .filter(converter -> !(converter instanceof RoutedPageRequestConverter)
+                            || ((RoutedPageRequestConverter) converter).getRoutes().contains(route))
+                    .collect(Collectors.toList()));
+        }
+
+        logger.debug("Routed {} page request converters by {} routes, with {} unrouted converters",
+                pageRequestToEventConverters.size() - unroutedPageRequestConverters.size(), routes.size(),
+                unroutedPageRequestConverters.size());
+    }
+
+    /**
+     * @return web application controllers of every page request route, or empty if a converter is not routed and so
+     *         may convert requests of any controller
+     */
+    public Optional<Set<String>> getRoutedPageRequestControllers() {
+        return routedPageRequestValues(PageRequestRoute::getController);
+    }
+
+    /**
+     * @return HTTP statuses of every page request route, or empty if a converter is not routed and so may convert
+     *         requests of any status
+     */
+    public Optional<Set<String>> getRoutedPageRequestHttpStatuses() {
+        return routedPageRequestValues(PageRequestRoute::getHttpStatus);
+    }
+
+    private Optional<Set<String>> routedPageRequestValues(Function<PageRequestRoute, String> value) {
+        if (!unroutedPageRequestConverters.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(pageRequestConverterRoutes.keySet().stream().map(value).collect(Collectors.toSet()));
+    }
+
     public List<Event> convertPageRequests(Collection<CanvasPageRequest> sourceItems,
             SupportingEntities supportingEntities) {
 
-        List<Event> events = new ArrayList<>();
+        return parallelConversion.convert(sourceItems,
+                sourceItem -> convertPageRequest(sourceItem, supportingEntities));
+    }
 
-        Optional<Event> event = null;
+    /**
+     * Converts page requests as they are pulled from the stream, handing each resulting event to the consumer instead
+     * of collecting them, so neither the requests nor the events need to be held in memory at once.
+     *
+     * @param sourceItems page requests, typically from {@code CanvasDataDumpReader#stream}
+     * @param supportingEntities entities the converters join against
+     * @param eventConsumer receives each converted event on the calling thread, in request order unless conversion is
+     *        parallel and unordered
+     * @return the number of events produced
+     */
+    public long convertPageRequests(Stream<CanvasPageRequest> sourceItems, SupportingEntities supportingEntities,
+            Consumer<Event> eventConsumer) {
+        return parallelConversion.convert(sourceItems,
+                sourceItem -> convertPageRequest(sourceItem, supportingEntities), eventConsumer);
+    }
 
-        for (CanvasPageRequest sourceItem : sourceItems) {
+    private Optional<Event> convertPageRequest(CanvasPageRequest sourceItem, SupportingEntities supportingEntities) {
 
-            Optional<Converter<CanvasPageRequest, Optional<Event>>> selectedConverter =
-                    pageRequestToEventConverters.stream().filter(converter -> converter.supports(sourceItem)).findFirst();
+        Optional<Converter<CanvasPageRequest, Optional<Event>>> selectedConverter =
+                selectPageRequestConverter(sourceItem);
 
-            if (selectedConverter != null && selectedConverter.isPresent()) {
+        if (!selectedConverter.isPresent()) {
+            conversionTrace.skipped(PAGE_REQUEST, sourceItem);
+            return Optional.empty();
+        }
 
-                event = selectedConverter.get().convert(sourceItem, supportingEntities);
+        Converter<CanvasPageRequest, Optional<Event>> converter = selectedConverter.get();
+        return traced(converter.getClass(), sourceItem, item -> converter.convert(item, supportingEntities));
+    }
 
-                if (event != null && event.isPresent()) {
-                    events.add(event.get());
-                    logger.debug("Page Request Conversion PROCESSED by converter {} : From {} > EVENT: {}",
-                            selectedConverter.get().getClass().getSimpleName(), sourceItem.toString(),
-                            event.get().toString());
-                } else {
-                    logger.debug("Page Request Conversion PROCESSED by converter {} : From {} > NO EVENT",
-                            selectedConverter.get().getClass().getSimpleName(), sourceItem.toString());
-                }
-            } else {
-                logger.debug("Page Request Conversion SKIP request with no matching converter: {}", sourceItem.toString());
+    private Optional<Converter<CanvasPageRequest, Optional<Event>>> selectPageRequestConverter(
+            CanvasPageRequest sourceItem) {
+        List<Converter<CanvasPageRequest, Optional<Event>>> candidates =
+                pageRequestConverterRoutes.getOrDefault(PageRequestRoute.of(sourceItem), unroutedPageRequestConverters);
+        for (Converter<CanvasPageRequest, Optional<Event>> candidate : candidates) {
+            if (candidate.supports(sourceItem)) {
+                return Optional.of(candidate);
             }
         }
-
-        return events;
+        return Optional.empty();
     }
 
     public List<unicon.matthews.oneroster.Class> convertCanvasCourseSections(Collection<CanvasCourseSectionDimension> sourceItems,
@@ -96,11 +210,10 @@ public class CanvasConversionService {
       Optional<unicon.matthews.oneroster.Class> klass = null;
       
       for (CanvasCourseSectionDimension sourceItem : sourceItems) {
-        klass = canvasClassConverter.convert(sourceItem, supportingEntities);
+        klass = traced("Course section", sourceItem, item -> canvasClassConverter.convert(item, supportingEntities));
         
         if (klass.isPresent()) {
           classes.add(klass.get());
-          logger.debug("Course section PROCESSED from {} to {}", sourceItem.toString(), klass.get().toString());
         }
       }
       
@@ -114,11 +227,10 @@ public class CanvasConversionService {
       Optional<User> user = null;
       
       for (CanvasUserDimension sourceItem : sourceItems) {
-        user = canvasUserConverter.convert(sourceItem, supportingEntities);
+        user = traced("User", sourceItem, item -> canvasUserConverter.convert(item, supportingEntities));
         
         if (user.isPresent()) {
           users.add(user.get());
-          logger.debug("User PROCESSED from {} to {}", sourceItem.toString(), user.get().toString());
         }
       }
       
@@ -132,12 +244,10 @@ public class CanvasConversionService {
       Optional<Enrollment> enrollment = null;
       
       for (CanvasEnrollmentDimension sourceItem : sourceItems) {
-        enrollment = canvasEnrollmentConverter.convert(sourceItem, supportingEntities);
+        enrollment = traced("Enrollment", sourceItem, item -> canvasEnrollmentConverter.convert(item, supportingEntities));
         
         if (enrollment.isPresent()) {
           enrollments.add(enrollment.get());
-          logger.debug("Enrollment PROCESSED from {} to {}", sourceItem.toString(), enrollment.get().toString());
-
         }
       }
       
@@ -151,12 +261,10 @@ public class CanvasConversionService {
       Optional<LineItem> lineItem = null;
       
       for (CanvasAssignmentDimension sourceItem : sourceItems) {
-        lineItem = canvasAssignmentConverter.convert(sourceItem, supportingEntities);
+        lineItem = traced("Assignment line item", sourceItem, item -> canvasAssignmentConverter.convert(item, supportingEntities));
         
         if (lineItem.isPresent()) {
           lineItems.add(lineItem.get());
-          logger.debug("Line item PROCESSED from {} to {}", sourceItem.toString(), lineItem.get().toString());
-
         }
       }
       
@@ -170,12 +278,10 @@ public class CanvasConversionService {
       Optional<LineItem> lineItem = null;
       
       for (CanvasQuizDimension sourceItem : sourceItems) {
-        lineItem = canvasQuizConverter.convert(sourceItem, supportingEntities);
+        lineItem = traced("Quiz line item", sourceItem, item -> canvasQuizConverter.convert(item, supportingEntities));
         
         if (lineItem.isPresent()) {
           lineItems.add(lineItem.get());
-          logger.debug("Line item PROCESSED from {} to {}", sourceItem.toString(), lineItem.get().toString());
-
         }
       }
       
@@ -184,72 +290,58 @@ public class CanvasConversionService {
 
     public List<Event> convertCanvasDiscussionForumEntries(Collection<CanvasDiscussionForumEntryFact> forumEntryFacts,
             SupportingEntities supportingEntities) {
-        List<Event> events = new ArrayList<>();
-
-        Optional<Event> event = null;
-
-        for (CanvasDiscussionForumEntryFact sourceItem : forumEntryFacts) {
-
-            event = canvasDiscussionForumEntryToCaliperEventConverter.convert(sourceItem, supportingEntities);
-
-            if (event.isPresent()) {
-                events.add(event.get());
-                logger.debug("Canvas Discussion Forum Entry Fact Conversion PROCESSED: From {} > EVENT: {}",
-                        sourceItem.toString(), event.get().toString());
-            } else {
-                logger.debug("Canvas Discussion Forum Entry Fact Conversion PROCESSED: From {} > NO EVENT",
-                        sourceItem.toString());
-            }
-        }
-
-        return events;
+        return convertFacts(forumEntryFacts, "Canvas Discussion Forum Entry Fact",
+                sourceItem -> canvasDiscussionForumEntryToCaliperEventConverter.convert(sourceItem, supportingEntities));
     }
 
     public List<Event> convertCanvasQuizSubmissions(Collection<CanvasQuizSubmissionFact> quizSubmissionFacts,
             SupportingEntities supportingEntities) {
-        List<Event> events = new ArrayList<>();
-
-        Optional<Event> event = null;
-
-        for (CanvasQuizSubmissionFact sourceItem : quizSubmissionFacts) {
-
-            event = canvasQuizSubmissionEventConverter.convert(sourceItem, supportingEntities);
-
-            if (event.isPresent()) {
-                events.add(event.get());
-                logger.debug("Canvas Quiz Submission Fact Conversion PROCESSED: From {} > EVENT: {}",
-                        sourceItem.toString(), event.get().toString());
-            } else {
-                logger.debug("Canvas Quiz Submission Fact Conversion PROCESSED: From {} > NO EVENT",
-                        sourceItem.toString());
-            }
-        }
-
-        return events;
+        return convertFacts(quizSubmissionFacts, "Canvas Quiz Submission Fact",
+                sourceItem -> canvasQuizSubmissionEventConverter.convert(sourceItem, supportingEntities));
     }
     
     public List<Event> convertCanvasAssignmentSubmissions(Collection<CanvasAssignmentSubmissionFact> assignmentSubmissionFacts,
-        SupportingEntities supportingEntities) {
-    List<Event> events = new ArrayList<>();
-
-    Optional<Event> event = null;
-
-    for (CanvasAssignmentSubmissionFact sourceItem : assignmentSubmissionFacts) {
+            SupportingEntities supportingEntities) {
+        return convertFacts(assignmentSubmissionFacts, "Canvas Assignment Submission Fact",
+                sourceItem -> canvasAssignmentSubmissionConverter.convert(sourceItem, supportingEntities));
+    }
 
-        event = canvasAssignmentSubmissionConverter.convert(sourceItem, supportingEntities);
+    /**
+     * Converts the rows of a fact table, in parallel if configured. The supporting entities must not be modified until
+     * the conversion returns.
+     */
+    private <S> List<Event> convertFacts(Collection<S> sourceItems, String factName,
+            Function<S, Optional<Event>> converter) {
+        return parallelConversion.convert(sourceItems, sourceItem -> traced(factName, sourceItem, converter));
+    }
 
-        if (event.isPresent()) {
-            events.add(event.get());
-            logger.debug("Canvas Assignment Submission Fact Conversion PROCESSED: From {} > EVENT: {}",
-                    sourceItem.toString(), event.get().toString());
-        } else {
-            logger.debug("Canvas Assignment Submission Fact Conversion PROCESSED: From {} > NO EVENT",
-                    sourceItem.toString());
+    /**
+     * Converts a row, recording the outcome and the time it took in the conversion trace.
+     *
+     * @param converter name or class of the converter, for the trace
+     */
+    private <S, R> Optional<R> traced(Object converter, S sourceItem, Function<S, Optional<R>> conversion) {
+        Optional<R> result;
+        long start = System.nanoTime();
+        try {
+            result = conversion.apply(sourceItem);
+        } catch (RuntimeException e) {
+            conversionTrace.failed(converter, sourceItem, e, System.nanoTime() - start);
+            throw e;
         }
+        long nanos = System.nanoTime() - start;
+        if (result != null && result.isPresent()) {
+            conversionTrace.converted(converter, sourceItem, result.get(), nanos);
+            return result;
+        }
+        conversionTrace.notConverted(converter, sourceItem, nanos);
+        return Optional.empty();
     }
 
-    return events;
-}
-
-
+    /**
+     * Logs how many rows each converter converted since the last summary.
+     */
+    public void logConversionSummary() {
+        conversionTrace.logSummary();
+    }
 }
@@ -40,23 +40,18 @@ public class CanvasDiscussionForumEntryToCaliperEventConverter implements Conver
         Optional<Event> result = null;
 
         CanvasDiscussionForumEntryDimension discussionForumEntryDimension =
-                supportingEntities.getDiscussionForumEntryDimensions().stream().filter(
-                        dim -> discussionForumEntryFact.getDiscussionEntryId().equals(dim.getId())).findFirst().get();
+                supportingEntities.findDiscussionForumEntryDimension(
+                        discussionForumEntryFact.getDiscussionEntryId()).get();
 
         User user = supportingEntities.getUsers().get(discussionForumEntryFact.getUserId().toString());
 
-        CanvasUserDimension canvasUserDimension = supportingEntities.getCanvasUserDimensions().stream().filter(
-                u -> u.getId().equalsIgnoreCase(discussionForumEntryFact.getUserId().toString())).findFirst().get();
+        CanvasUserDimension canvasUserDimension = supportingEntities.findCanvasUserDimension(
+                discussionForumEntryFact.getUserId().toString()).get();
 
         LocalDateTime eventTime = LocalDateTime.ofInstant(discussionForumEntryDimension.getCreatedAt(), ZoneId.of("UTC"));
 
-        Enrollment enrollment 
-          = supportingEntities.getEnrollments()
-            .values().stream()
-            .filter(
-                    e -> e.getKlass().getSourcedId().equalsIgnoreCase(discussionForumEntryFact.getCourseId().toString())
-                      && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                ).findFirst().get();
+        Enrollment enrollment = supportingEntities.findEnrollment(
+                discussionForumEntryFact.getCourseId().toString(), user.getSourcedId()).get();
 
         Event event = EventBuilderUtils.usingMessageEventType()
                 .withAction(EventBuilderUtils.CaliperV1p1Vocab.Action.POSTED)
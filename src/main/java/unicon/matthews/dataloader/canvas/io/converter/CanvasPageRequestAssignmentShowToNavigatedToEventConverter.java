@@ -6,7 +6,9 @@ import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.u
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,10 +23,19 @@ import unicon.matthews.oneroster.User;
 
 @Component
 public class CanvasPageRequestAssignmentShowToNavigatedToEventConverter
-  implements Converter<CanvasPageRequest, Optional<Event>> {
+  implements RoutedPageRequestConverter {
   
   private static Logger logger = LoggerFactory.getLogger(CanvasPageRequestAssignmentShowToNavigatedToEventConverter.class);
 
+  private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+      Arrays.asList("assignments", "assignments_api"), Arrays.asList("show"),
+      HttpStatus.OK);
+
+  @Override
+  public Set<PageRequestRoute> getRoutes() {
+    return ROUTES;
+  }
+
   @Override
   public boolean supports(CanvasPageRequest source) {
     return (source.getWebApplicationController().equalsIgnoreCase("assignments") || source.getWebApplicationController().equalsIgnoreCase("assignments_api")) &&
@@ -35,7 +46,7 @@ public class CanvasPageRequestAssignmentShowToNavigatedToEventConverter
   @Override
   public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supportingEntities) {
 
-    logger.debug("Source: {}",source);
+    logger.trace("Source: {}",source);
     
     Optional<Event> result = null;
 
@@ -45,8 +56,7 @@ public class CanvasPageRequestAssignmentShowToNavigatedToEventConverter
         result = Optional.empty();
     } else {
 
-        Optional<User> maybeUser = supportingEntities.getUsers().values().stream().filter(u -> u.getSourcedId().equalsIgnoreCase(
-            String.valueOf(userId.get()))).findFirst();
+        Optional<User> maybeUser = supportingEntities.findUser(String.valueOf(userId.get()));
         
         if (maybeUser != null & maybeUser.isPresent()) {
           User user = maybeUser.get();
@@ -57,13 +67,7 @@ public class CanvasPageRequestAssignmentShowToNavigatedToEventConverter
           Enrollment enrollment = null;
           if (source.getCourseId().isPresent()) {
               String courseId = source.getCourseId().get().toString();
-              Optional<Enrollment> maybeEnrollment
-              = supportingEntities.getEnrollments()
-                .values().stream()
-                .filter(
-                        e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                          && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                    ).findFirst();
+              Optional<Enrollment> maybeEnrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId());
               
               if (!maybeEnrollment.isPresent()) {
                 // TODO fixme
@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,9 +24,18 @@ import unicon.matthews.oneroster.Enrollment;
 import unicon.matthews.oneroster.User;
 
 @Component
-public class CanvasPageRequestConferencesIndexToNavigatedToEventConverter  implements Converter<CanvasPageRequest, Optional<Event>> {
+public class CanvasPageRequestConferencesIndexToNavigatedToEventConverter  implements RoutedPageRequestConverter {
   private static Logger logger = LoggerFactory.getLogger(CanvasPageRequestConferencesIndexToNavigatedToEventConverter.class);
 
+  private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+      Arrays.asList("conferences"), Arrays.asList("index"),
+      HttpStatus.OK);
+
+  @Override
+  public Set<PageRequestRoute> getRoutes() {
+    return ROUTES;
+  }
+
   @Override
   public boolean supports(CanvasPageRequest source) {
     return (source.getWebApplicationController().equalsIgnoreCase("conferences")) &&
@@ -35,7 +46,7 @@ public class CanvasPageRequestConferencesIndexToNavigatedToEventConverter  imple
   @Override
   public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supportingEntities) {
 
-    logger.debug("Source: {}",source);
+    logger.trace("Source: {}",source);
     
     Optional<Event> result = null;
 
@@ -45,8 +56,7 @@ public class CanvasPageRequestConferencesIndexToNavigatedToEventConverter  imple
         result = Optional.empty();
     } else {
 
-        Optional<User> maybeUser = supportingEntities.getUsers().values().stream().filter(u -> u.getSourcedId().equalsIgnoreCase(
-            String.valueOf(userId.get()))).findFirst();
+        Optional<User> maybeUser = supportingEntities.findUser(String.valueOf(userId.get()));
         
         if (maybeUser != null & maybeUser.isPresent()) {
           User user = maybeUser.get();
@@ -57,13 +67,7 @@ public class CanvasPageRequestConferencesIndexToNavigatedToEventConverter  imple
           Enrollment enrollment = null;
           if (source.getCourseId().isPresent()) {
               String courseId = source.getCourseId().get().toString();
-              enrollment 
-              = supportingEntities.getEnrollments()
-                .values().stream()
-                .filter(
-                        e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                          && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                    ).findFirst().get();
+              enrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId()).get();
               
               Map<String, String> entityMetadata
                 = new HashMap<>();
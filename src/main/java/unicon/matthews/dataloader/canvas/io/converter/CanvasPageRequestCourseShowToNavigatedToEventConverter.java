@@ -14,7 +14,9 @@ import unicon.matthews.oneroster.User;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingCourseSectionGroup;
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingMembership;
@@ -22,10 +24,19 @@ import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.u
 
 @Component
 public class CanvasPageRequestCourseShowToNavigatedToEventConverter
-        implements Converter<CanvasPageRequest, Optional<Event>> {
+        implements RoutedPageRequestConverter {
 
     private static Logger logger = LoggerFactory.getLogger(CanvasPageRequestCourseShowToNavigatedToEventConverter.class);
 
+    private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+            Arrays.asList("courses"), Arrays.asList("show"),
+            HttpStatus.OK, HttpStatus.NOT_MODIFIED);
+
+    @Override
+    public Set<PageRequestRoute> getRoutes() {
+        return ROUTES;
+    }
+
     @Override
     public boolean supports(CanvasPageRequest source) {
         return (
@@ -40,7 +51,7 @@ public class CanvasPageRequestCourseShowToNavigatedToEventConverter
     @Override
     public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supportingEntities) {
 
-        logger.debug("Source: {}", source);
+        logger.trace("Source: {}", source);
 
         Optional<Event> result = null;
 
@@ -50,8 +61,7 @@ public class CanvasPageRequestCourseShowToNavigatedToEventConverter
             result = Optional.empty();
         } else {
 
-            Optional<User> maybeUser = supportingEntities.getUsers().values().stream().filter(u -> u.getSourcedId().equalsIgnoreCase(
-                    String.valueOf(userId.get()))).findFirst();
+            Optional<User> maybeUser = supportingEntities.findUser(String.valueOf(userId.get()));
 
             if (maybeUser != null & maybeUser.isPresent()) {
                 User user = maybeUser.get();
@@ -64,13 +74,7 @@ public class CanvasPageRequestCourseShowToNavigatedToEventConverter
                 if (source.getCourseId().isPresent()) {
                     String courseId = source.getCourseId().get().toString();
 
-                    Optional<Enrollment> maybeEnrollment
-                    = supportingEntities.getEnrollments()
-                      .values().stream()
-                      .filter(
-                              e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                                && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                          ).findFirst();
+                    Optional<Enrollment> maybeEnrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId());
                     
                     if (!maybeEnrollment.isPresent()) {
                       // TODO fixme
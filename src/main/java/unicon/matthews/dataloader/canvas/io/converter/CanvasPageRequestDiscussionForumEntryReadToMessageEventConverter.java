@@ -15,7 +15,9 @@ import unicon.matthews.oneroster.User;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingCourseSectionGroup;
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingMembership;
@@ -23,10 +25,19 @@ import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.u
 
 @Component
 public class CanvasPageRequestDiscussionForumEntryReadToMessageEventConverter
-        implements Converter<CanvasPageRequest, Optional<Event>> {
+        implements RoutedPageRequestConverter {
 
     private static Logger logger = LoggerFactory.getLogger(CanvasPageRequestDiscussionForumEntryReadToMessageEventConverter.class);
 
+    private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+            Arrays.asList("discussion_topics_api"), Arrays.asList("mark_entry_read"),
+            HttpStatus.NO_CONTENT);
+
+    @Override
+    public Set<PageRequestRoute> getRoutes() {
+        return ROUTES;
+    }
+
     @Override
     public boolean supports(CanvasPageRequest source) {
         return (source.getWebApplicationController().equalsIgnoreCase("discussion_topics_api")) &&
@@ -38,7 +49,7 @@ public class CanvasPageRequestDiscussionForumEntryReadToMessageEventConverter
     @Override
     public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supportingEntities) {
 
-        logger.debug("Source: {}", source);
+        logger.trace("Source: {}", source);
 
         Optional<Event> result = null;
 
@@ -48,8 +59,7 @@ public class CanvasPageRequestDiscussionForumEntryReadToMessageEventConverter
             result = Optional.empty();
         } else {
 
-            Optional<User> maybeUser = supportingEntities.getUsers().values().stream().filter(u -> u.getSourcedId().equalsIgnoreCase(
-                    String.valueOf(userId.get()))).findFirst();
+            Optional<User> maybeUser = supportingEntities.findUser(String.valueOf(userId.get()));
 
             if (maybeUser != null & maybeUser.isPresent()) {
                 User user = maybeUser.get();
@@ -61,18 +71,10 @@ public class CanvasPageRequestDiscussionForumEntryReadToMessageEventConverter
 
                 if (source.getCourseId().isPresent()) {
                     String courseId = source.getCourseId().get().toString();
-                    enrollment 
-                    = supportingEntities.getEnrollments()
-                      .values().stream()
-                      .filter(
-                              e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                                && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                          ).findFirst().get();
+                    enrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId()).get();
 
                     CanvasDiscussionForumEntryFact discussionForumEntryFact =
-                            supportingEntities.getDiscussionForumEntryFacts().stream().filter(
-                                e -> e.getDiscussionEntryId().equals(source.getDiscussionId().get())
-                            ).findFirst().get();
+                            supportingEntities.findDiscussionForumEntryFact(source.getDiscussionId().get()).get();
 
                     Entity discussionForumEntryObject = new Entity.Builder()
                             .withId(String.valueOf(source.getDiscussionId().get()))
@@ -14,7 +14,9 @@ import unicon.matthews.oneroster.User;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingCourseSectionGroup;
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingMembership;
@@ -22,10 +24,19 @@ import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.u
 
 @Component
 public class CanvasPageRequestDiscussionForumEntryViewToNavigatedToEventConverter
-        implements Converter<CanvasPageRequest, Optional<Event>> {
+        implements RoutedPageRequestConverter {
 
     private static Logger logger = LoggerFactory.getLogger(CanvasPageRequestDiscussionForumEntryViewToNavigatedToEventConverter.class);
 
+    private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+            Arrays.asList("discussion_topics_api"), Arrays.asList("view"),
+            HttpStatus.OK);
+
+    @Override
+    public Set<PageRequestRoute> getRoutes() {
+        return ROUTES;
+    }
+
     @Override
     public boolean supports(CanvasPageRequest source) {
         return (source.getWebApplicationController().equalsIgnoreCase("discussion_topics_api")) &&
@@ -37,7 +48,7 @@ public class CanvasPageRequestDiscussionForumEntryViewToNavigatedToEventConverte
     @Override
     public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supportingEntities) {
 
-        logger.debug("Source: {}", source);
+        logger.trace("Source: {}", source);
 
         Optional<Event> result = null;
 
@@ -47,8 +58,7 @@ public class CanvasPageRequestDiscussionForumEntryViewToNavigatedToEventConverte
             result = Optional.empty();
         } else {
 
-            Optional<User> maybeUser = supportingEntities.getUsers().values().stream().filter(u -> u.getSourcedId().equalsIgnoreCase(
-                    String.valueOf(userId.get()))).findFirst();
+            Optional<User> maybeUser = supportingEntities.findUser(String.valueOf(userId.get()));
 
             if (maybeUser != null & maybeUser.isPresent()) {
                 User user = maybeUser.get();
@@ -60,18 +70,10 @@ public class CanvasPageRequestDiscussionForumEntryViewToNavigatedToEventConverte
 
                 if (source.getCourseId().isPresent()) {
                     String courseId = source.getCourseId().get().toString();
-                    enrollment 
-                    = supportingEntities.getEnrollments()
-                      .values().stream()
-                      .filter(
-                              e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                                && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                          ).findFirst().get();
+                    enrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId()).get();
 
                     CanvasDiscussionForumEntryFact discussionForumEntryFact =
-                            supportingEntities.getDiscussionForumEntryFacts().stream().filter(
-                                e -> e.getDiscussionEntryId().equals(source.getDiscussionId().get())
-                            ).findFirst().get();
+                            supportingEntities.findDiscussionForumEntryFact(source.getDiscussionId().get()).get();
 
                     Entity discussionForumEntryObject = new Entity.Builder()
                             .withId(String.valueOf(source.getDiscussionId().get()))
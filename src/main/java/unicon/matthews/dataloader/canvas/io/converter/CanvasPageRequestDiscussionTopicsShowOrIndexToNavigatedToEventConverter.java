@@ -6,7 +6,9 @@ import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.u
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,10 +23,19 @@ import unicon.matthews.oneroster.User;
 
 @Component
 public class CanvasPageRequestDiscussionTopicsShowOrIndexToNavigatedToEventConverter 
-  implements Converter<CanvasPageRequest, Optional<Event>> {
+  implements RoutedPageRequestConverter {
   
 private static Logger logger = LoggerFactory.getLogger(CanvasPageRequestDiscussionTopicsShowOrIndexToNavigatedToEventConverter.class);
 
+private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+    Arrays.asList("discussion_topics"), Arrays.asList("show", "index"),
+    HttpStatus.OK, HttpStatus.NOT_MODIFIED);
+
+@Override
+public Set<PageRequestRoute> getRoutes() {
+  return ROUTES;
+}
+
 @Override
 public boolean supports(CanvasPageRequest source) {
   return ( 
@@ -38,7 +49,7 @@ public boolean supports(CanvasPageRequest source) {
 @Override
 public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supportingEntities) {
 
-  logger.debug("Source: {}",source);
+  logger.trace("Source: {}",source);
   
   Optional<Event> result = null;
 
@@ -48,8 +59,7 @@ public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supp
       result = Optional.empty();
   } else {
 
-      Optional<User> maybeUser = supportingEntities.getUsers().values().stream().filter(u -> u.getSourcedId().equalsIgnoreCase(
-          String.valueOf(userId.get()))).findFirst();
+      Optional<User> maybeUser = supportingEntities.findUser(String.valueOf(userId.get()));
       
       if (maybeUser != null & maybeUser.isPresent()) {
         User user = maybeUser.get();
@@ -60,13 +70,7 @@ public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supp
         Enrollment enrollment = null;
         if (source.getCourseId().isPresent()) {
             String courseId = source.getCourseId().get().toString();
-            enrollment 
-            = supportingEntities.getEnrollments()
-              .values().stream()
-              .filter(
-                      e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                        && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                  ).findFirst().get();
+            enrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId()).get();
             
             Entity resource = null;
             if (source.getDiscussionId() != null 
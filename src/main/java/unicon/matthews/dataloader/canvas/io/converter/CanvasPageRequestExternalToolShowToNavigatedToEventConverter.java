@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,10 +25,19 @@ import unicon.matthews.oneroster.User;
 
 @Component
 public class CanvasPageRequestExternalToolShowToNavigatedToEventConverter 
-  implements Converter<CanvasPageRequest, Optional<Event>> {
+  implements RoutedPageRequestConverter {
   
   private static Logger logger = LoggerFactory.getLogger(CanvasPageRequestExternalToolShowToNavigatedToEventConverter.class);
   
+  private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+      Arrays.asList("external_tools"), Arrays.asList("show"),
+      HttpStatus.OK, HttpStatus.NOT_MODIFIED);
+
+  @Override
+  public Set<PageRequestRoute> getRoutes() {
+    return ROUTES;
+  }
+
   @Override
   public boolean supports(CanvasPageRequest source) {
     return (
@@ -40,7 +51,7 @@ public class CanvasPageRequestExternalToolShowToNavigatedToEventConverter
   @Override
   public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supportingEntities) {
   
-    logger.debug("Source: {}",source);
+    logger.trace("Source: {}",source);
     
     Optional<Event> result = null;
   
@@ -50,8 +61,7 @@ public class CanvasPageRequestExternalToolShowToNavigatedToEventConverter
         result = Optional.empty();
     } else {
   
-        Optional<User> maybeUser = supportingEntities.getUsers().values().stream().filter(u -> u.getSourcedId().equalsIgnoreCase(
-            String.valueOf(userId.get()))).findFirst();
+        Optional<User> maybeUser = supportingEntities.findUser(String.valueOf(userId.get()));
         
         if (maybeUser != null & maybeUser.isPresent()) {
           User user = maybeUser.get();
@@ -62,13 +72,7 @@ public class CanvasPageRequestExternalToolShowToNavigatedToEventConverter
           Enrollment enrollment = null;
           if (source.getCourseId().isPresent()) {
               String courseId = source.getCourseId().get().toString();
-              Optional<Enrollment> maybeEnrollment
-              = supportingEntities.getEnrollments()
-                .values().stream()
-                .filter(
-                        e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                          && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                    ).findFirst();
+              Optional<Enrollment> maybeEnrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId());
               
               if (!maybeEnrollment.isPresent()) {
                 // TODO fixme
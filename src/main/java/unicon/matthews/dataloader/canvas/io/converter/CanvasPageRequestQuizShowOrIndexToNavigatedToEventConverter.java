@@ -14,7 +14,9 @@ import unicon.matthews.oneroster.User;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingCourseSectionGroup;
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingMembership;
@@ -22,10 +24,19 @@ import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.u
 
 @Component
 public class CanvasPageRequestQuizShowOrIndexToNavigatedToEventConverter
-        implements Converter<CanvasPageRequest, Optional<Event>> {
+        implements RoutedPageRequestConverter {
 
     private static Logger logger = LoggerFactory.getLogger(CanvasPageRequestQuizShowOrIndexToNavigatedToEventConverter.class);
 
+    private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+            Arrays.asList("quizzes/quizzes"), Arrays.asList("show", "index"),
+            HttpStatus.OK);
+
+    @Override
+    public Set<PageRequestRoute> getRoutes() {
+        return ROUTES;
+    }
+
     @Override
     public boolean supports(CanvasPageRequest source) {
         return (source.getWebApplicationController().equalsIgnoreCase("quizzes/quizzes")) &&
@@ -38,7 +49,7 @@ public class CanvasPageRequestQuizShowOrIndexToNavigatedToEventConverter
     @Override
     public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supportingEntities) {
 
-        logger.debug("Source: {}", source);
+        logger.trace("Source: {}", source);
 
         Optional<Event> result = null;
 
@@ -48,8 +59,7 @@ public class CanvasPageRequestQuizShowOrIndexToNavigatedToEventConverter
             result = Optional.empty();
         } else {
 
-            Optional<User> maybeUser = supportingEntities.getUsers().values().stream().filter(u -> u.getSourcedId().equalsIgnoreCase(
-                    String.valueOf(userId.get()))).findFirst();
+            Optional<User> maybeUser = supportingEntities.findUser(String.valueOf(userId.get()));
 
             if (maybeUser != null & maybeUser.isPresent()) {
                 User user = maybeUser.get();
@@ -61,13 +71,7 @@ public class CanvasPageRequestQuizShowOrIndexToNavigatedToEventConverter
 
                 if (source.getCourseId().isPresent()) {
                     String courseId = source.getCourseId().get().toString();
-                    Optional<Enrollment> maybeEnrollment
-                    = supportingEntities.getEnrollments()
-                      .values().stream()
-                      .filter(
-                              e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                                && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                          ).findFirst();
+                    Optional<Enrollment> maybeEnrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId());
                     
                     if (!maybeEnrollment.isPresent()) {
                       // TODO fixme
@@ -81,9 +85,8 @@ public class CanvasPageRequestQuizShowOrIndexToNavigatedToEventConverter
                     if (source.getQuizId() != null
                             && source.getQuizId().isPresent()) {
 
-                        LineItem canvasQuizLineItem = supportingEntities.getLineItems().values().stream().filter(
-                                l -> l.getSourcedId().equalsIgnoreCase(
-                                        source.getQuizId().get().toString())).findFirst().get();
+                        LineItem canvasQuizLineItem = supportingEntities.findLineItem(
+                                source.getQuizId().get().toString()).get();
 
                         quizObject = new Entity.Builder()
                                 .withId(String.valueOf(source.getQuizId().get()))
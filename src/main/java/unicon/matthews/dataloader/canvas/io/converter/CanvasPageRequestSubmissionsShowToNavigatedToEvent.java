@@ -6,7 +6,9 @@ import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.u
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,10 +22,19 @@ import unicon.matthews.oneroster.Enrollment;
 import unicon.matthews.oneroster.User;
 
 @Component
-public class CanvasPageRequestSubmissionsShowToNavigatedToEvent   implements Converter<CanvasPageRequest, Optional<Event>> {
+public class CanvasPageRequestSubmissionsShowToNavigatedToEvent   implements RoutedPageRequestConverter {
   
   private static Logger logger = LoggerFactory.getLogger(CanvasPageRequestSubmissionsShowToNavigatedToEvent.class);
 
+  private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+      Arrays.asList("submissions/previews", "submissions"), Arrays.asList("show"),
+      HttpStatus.OK);
+
+  @Override
+  public Set<PageRequestRoute> getRoutes() {
+    return ROUTES;
+  }
+
   @Override
   public boolean supports(CanvasPageRequest source) {
     return (source.getWebApplicationController().equalsIgnoreCase("submissions/previews") || source.getWebApplicationController().equalsIgnoreCase("submissions")) &&
@@ -34,7 +45,7 @@ public class CanvasPageRequestSubmissionsShowToNavigatedToEvent   implements Con
   @Override
   public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supportingEntities) {
 
-    logger.debug("Source: {}",source);
+    logger.trace("Source: {}",source);
     
     Optional<Event> result = null;
 
@@ -44,8 +55,7 @@ public class CanvasPageRequestSubmissionsShowToNavigatedToEvent   implements Con
         result = Optional.empty();
     } else {
 
-        Optional<User> maybeUser = supportingEntities.getUsers().values().stream().filter(u -> u.getSourcedId().equalsIgnoreCase(
-            String.valueOf(userId.get()))).findFirst();
+        Optional<User> maybeUser = supportingEntities.findUser(String.valueOf(userId.get()));
         
         if (maybeUser != null & maybeUser.isPresent()) {
           User user = maybeUser.get();
@@ -56,13 +66,7 @@ public class CanvasPageRequestSubmissionsShowToNavigatedToEvent   implements Con
           Enrollment enrollment = null;
           if (source.getCourseId().isPresent()) {
               String courseId = source.getCourseId().get().toString();
-              enrollment 
-              = supportingEntities.getEnrollments()
-                .values().stream()
-                .filter(
-                        e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                          && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                    ).findFirst().get();
+              enrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId()).get();
               
               Entity assignmentObject = null;
               if (source.getAssignmentId() != null 
@@ -10,9 +10,9 @@ import unicon.matthews.oneroster.User;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingMembership;
 
@@ -24,7 +24,16 @@ import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.u
  * events.
  */
 @Component
-public class CanvasPageRequestToLoginEventConverter implements Converter<CanvasPageRequest, Optional<Event>> {
+public class CanvasPageRequestToLoginEventConverter implements RoutedPageRequestConverter {
+
+    private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+            Arrays.asList("login/canvas"), Arrays.asList("new", "create"),
+            HttpStatus.OK);
+
+    @Override
+    public Set<PageRequestRoute> getRoutes() {
+        return ROUTES;
+    }
 
     @Override
     public boolean supports(CanvasPageRequest source) {
@@ -45,15 +54,13 @@ public class CanvasPageRequestToLoginEventConverter implements Converter<CanvasP
             result = Optional.empty();
         } else {
 
-            Optional<User> maybeUser = supportingEntities.getUsers().values().stream().filter(u -> u.getSourcedId().equalsIgnoreCase(
-                userId.get())).findFirst();
+            Optional<User> maybeUser = supportingEntities.findUser(userId.get());
             
             if (maybeUser != null & maybeUser.isPresent()) {
               User user = maybeUser.get();
               
-              CanvasDataPseudonymDimension pseudonym = supportingEntities.getPseudonymDimensions().stream().filter(
-                      p -> p.getUserId().toString().equalsIgnoreCase(userId.get())
-              ).findFirst().get();
+              CanvasDataPseudonymDimension pseudonym = supportingEntities.findPseudonymDimensionByUserId(
+                      userId.get()).get();
     
     
               String userLogin = pseudonym.getUniqueName();
@@ -65,13 +72,7 @@ public class CanvasPageRequestToLoginEventConverter implements Converter<CanvasP
               Enrollment enrollment = null;
               if (request.getCourseId().isPresent()) {
                   String courseId = request.getCourseId().get().toString();
-                  enrollment 
-                  = supportingEntities.getEnrollments()
-                    .values().stream()
-                    .filter(
-                            e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                              && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                        ).findFirst().get();
+                  enrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId()).get();
     
                   event = EventBuilderUtils.usingLoginEventType()
                           .withEventTime(eventTime)
@@ -101,8 +102,8 @@ public class CanvasPageRequestToLoginEventConverter implements Converter<CanvasP
     /**
      * The Canvas page requests data does not provide the user ID for the login event. We cannot reliably use the
      * homepage/dashboard request as that may occur far more frequently and skew login metrics, so instead we will
-     * scan for another request within the authenticated session which should contain the user ID. This is horribly
-     * inefficient, need to find another way.
+     * use another request within the authenticated session which should contain the user ID, found through the
+     * session user index rather than scanning all requests for every login.
      *
      * The users controller with the user_dashboard action sometimes appears to have a URL of /?login_success=1
      * If that was consistent we could use it and avoid this, however, our small sample of data from 1/22/2017 shows
@@ -117,16 +118,6 @@ public class CanvasPageRequestToLoginEventConverter implements Converter<CanvasP
      */
     private Optional<String> getUserIdFromAnotherSessionRequest(CanvasPageRequest canvasPageRequest,
             SupportingEntities supportingEntities) {
-        List<CanvasPageRequest> otherRequestsInSession = supportingEntities.getPageRequests().stream().filter(request ->
-                canvasPageRequest.getSessionId().equalsIgnoreCase(request.getSessionId())
-                        && request.getUserId().isPresent()).collect(Collectors.toList());
-
-        Optional<String> userId = null;
-        if (otherRequestsInSession.isEmpty()) {
-            userId = Optional.empty();
-        } else {
-            userId = Optional.of(otherRequestsInSession.get(0).getUserId().get().toString());
-        }
-        return userId;
+        return supportingEntities.findUserIdBySession(canvasPageRequest.getSessionId());
     }
 }
@@ -15,7 +15,9 @@ import unicon.matthews.oneroster.User;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingCourseSectionGroup;
@@ -28,7 +30,16 @@ import static unicon.matthews.dataloader.util.Maps.entry;
  * events.
  */
 @Component
-public class CanvasPageRequestToLogoutEventConverter implements Converter<CanvasPageRequest, Optional<Event>> {
+public class CanvasPageRequestToLogoutEventConverter implements RoutedPageRequestConverter {
+
+    private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+            Arrays.asList("login"), Arrays.asList("destroy"),
+            HttpStatus.OK);
+
+    @Override
+    public Set<PageRequestRoute> getRoutes() {
+        return ROUTES;
+    }
 
     @Override
     public boolean supports(CanvasPageRequest source) {
@@ -46,9 +57,7 @@ public class CanvasPageRequestToLogoutEventConverter implements Converter<Canvas
 
         User user = supportingEntities.getUsers().get(userId);
 
-        CanvasDataPseudonymDimension pseudonym = supportingEntities.getPseudonymDimensions().stream().filter(
-                    p -> p.getUserId().toString().equalsIgnoreCase(userId)
-            ).findFirst().get();
+        CanvasDataPseudonymDimension pseudonym = supportingEntities.findPseudonymDimensionByUserId(userId).get();
 
         String userLogin = pseudonym.getUniqueName();
         String rootAccountId = request.getRootAccountId().toString();
@@ -59,13 +68,7 @@ public class CanvasPageRequestToLogoutEventConverter implements Converter<Canvas
         Enrollment enrollment = null;
         if (request.getCourseId().isPresent()) {
             String courseId = request.getCourseId().get().toString();
-            enrollment 
-            = supportingEntities.getEnrollments()
-              .values().stream()
-              .filter(
-                      e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                        && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                  ).findFirst().get();
+            enrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId()).get();
 
             event = EventBuilderUtils.usingLogoutEventType()
                     .withEventTime(eventTime)
@@ -13,7 +13,9 @@ import unicon.matthews.oneroster.User;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingCourseSectionGroup;
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingMembership;
@@ -21,10 +23,19 @@ import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.u
 
 @Component
 public class CanvasPageRequestWikiPageEditToBasicProfileEventConverter
-        implements Converter<CanvasPageRequest, Optional<Event>> {
+        implements RoutedPageRequestConverter {
 
     private static Logger logger = LoggerFactory.getLogger(CanvasPageRequestWikiPageEditToBasicProfileEventConverter.class);
 
+    private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+            Arrays.asList("wiki_pages_api"), Arrays.asList("update"),
+            HttpStatus.OK);
+
+    @Override
+    public Set<PageRequestRoute> getRoutes() {
+        return ROUTES;
+    }
+
     @Override
     public boolean supports(CanvasPageRequest source) {
         return (source.getWebApplicationController().equalsIgnoreCase("wiki_pages_api")) &&
@@ -36,7 +47,7 @@ public class CanvasPageRequestWikiPageEditToBasicProfileEventConverter
     @Override
     public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supportingEntities) {
 
-        logger.debug("Source: {}", source);
+        logger.trace("Source: {}", source);
 
         Optional<Event> result = null;
 
@@ -46,8 +57,7 @@ public class CanvasPageRequestWikiPageEditToBasicProfileEventConverter
             result = Optional.empty();
         } else {
 
-            Optional<User> maybeUser = supportingEntities.getUsers().values().stream().filter(u -> u.getSourcedId().equalsIgnoreCase(
-                    String.valueOf(userId.get()))).findFirst();
+            Optional<User> maybeUser = supportingEntities.findUser(String.valueOf(userId.get()));
 
             if (maybeUser != null & maybeUser.isPresent()) {
                 User user = maybeUser.get();
@@ -59,13 +69,7 @@ public class CanvasPageRequestWikiPageEditToBasicProfileEventConverter
 
                 if (source.getCourseId().isPresent()) {
                     String courseId = source.getCourseId().get().toString();
-                    enrollment 
-                    = supportingEntities.getEnrollments()
-                      .values().stream()
-                      .filter(
-                              e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                                && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                          ).findFirst().get();
+                    enrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId()).get();
 
                     Entity wikiPageObject = new Entity.Builder()
                             .withId(String.valueOf(source.getUrl()))
@@ -14,7 +14,9 @@ import unicon.matthews.oneroster.User;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingCourseSectionGroup;
 import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.usingMembership;
@@ -22,10 +24,19 @@ import static unicon.matthews.dataloader.canvas.io.converter.EventBuilderUtils.u
 
 @Component
 public class CanvasPageRequestWikiPageShowOrIndexOrFrontPageToNavigatedToEventConverter
-        implements Converter<CanvasPageRequest, Optional<Event>> {
+        implements RoutedPageRequestConverter {
 
     private static Logger logger = LoggerFactory.getLogger(CanvasPageRequestWikiPageShowOrIndexOrFrontPageToNavigatedToEventConverter.class);
 
+    private static final Set<PageRequestRoute> ROUTES = PageRequestRoute.combinations(
+            Arrays.asList("wiki_pages"), Arrays.asList("show", "index", "front_page"),
+            HttpStatus.OK);
+
+    @Override
+    public Set<PageRequestRoute> getRoutes() {
+        return ROUTES;
+    }
+
     @Override
     public boolean supports(CanvasPageRequest source) {
         return (source.getWebApplicationController().equalsIgnoreCase("wiki_pages")) &&
@@ -39,7 +50,7 @@ public class CanvasPageRequestWikiPageShowOrIndexOrFrontPageToNavigatedToEventCo
     @Override
     public Optional<Event> convert(CanvasPageRequest source, SupportingEntities supportingEntities) {
 
-        logger.debug("Source: {}", source);
+        logger.trace("Source: {}", source);
 
         Optional<Event> result = null;
 
@@ -49,8 +60,7 @@ public class CanvasPageRequestWikiPageShowOrIndexOrFrontPageToNavigatedToEventCo
             result = Optional.empty();
         } else {
 
-            Optional<User> maybeUser = supportingEntities.getUsers().values().stream().filter(u -> u.getSourcedId().equalsIgnoreCase(
-                    String.valueOf(userId.get()))).findFirst();
+            Optional<User> maybeUser = supportingEntities.findUser(String.valueOf(userId.get()));
 
             if (maybeUser != null & maybeUser.isPresent()) {
                 User user = maybeUser.get();
@@ -62,13 +72,7 @@ public class CanvasPageRequestWikiPageShowOrIndexOrFrontPageToNavigatedToEventCo
 
                 if (source.getCourseId().isPresent()) {
                     String courseId = source.getCourseId().get().toString();
-                    enrollment 
-                    = supportingEntities.getEnrollments()
-                      .values().stream()
-                      .filter(
-                              e -> e.getKlass().getSourcedId().equalsIgnoreCase(courseId)
-                                && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                          ).findFirst().get();
+                    enrollment = supportingEntities.findEnrollment(courseId, user.getSourcedId()).get();
 
                     Entity wikiPageObject = new Entity.Builder()
                             .withId(String.valueOf(source.getUrl()))
@@ -39,30 +39,25 @@ public class CanvasQuizSubmissionEventConverter implements Converter<CanvasQuizS
         Optional<Event> result = null;
 
         CanvasQuizSubmissionDimension canvasQuizSubmissionDimension =
-                supportingEntities.getCanvasQuizSubmissionDimensions().stream().filter(
-                        dim -> canvasQuizSubmissionFact.getQuizSubmissionId().equals(dim.getId())).findFirst().get();
+                supportingEntities.findCanvasQuizSubmissionDimension(
+                        canvasQuizSubmissionFact.getQuizSubmissionId()).get();
 
         User user = supportingEntities.getUsers().get(canvasQuizSubmissionFact.getUserId().toString());
 
-        CanvasUserDimension canvasUserDimension = supportingEntities.getCanvasUserDimensions().stream().filter(
-                u -> u.getId().equalsIgnoreCase(canvasQuizSubmissionFact.getUserId().toString())).findFirst().get();
+        CanvasUserDimension canvasUserDimension = supportingEntities.findCanvasUserDimension(
+                canvasQuizSubmissionFact.getUserId().toString()).get();
 
         // CanvasQuizSubmissionDimension (latest submissions) seem to always have a created date, only historical
         // dimensions sometimes do not, so not guarding against it.
         LocalDateTime eventTime = LocalDateTime.ofInstant(canvasQuizSubmissionDimension.getCreatedAt().get(),
                 ZoneId.of("UTC"));
 
-        Enrollment enrollment = supportingEntities.getEnrollments()
-            .values().stream()
-            .filter(
-                    e -> e.getKlass().getSourcedId().equalsIgnoreCase(canvasQuizSubmissionFact.getCourseId().toString())
-                      && e.getUser().getSourcedId().equalsIgnoreCase(user.getSourcedId())
-                ).findFirst().get();
+        Enrollment enrollment = supportingEntities.findEnrollment(
+                canvasQuizSubmissionFact.getCourseId().toString(), user.getSourcedId()).get();
 
 
-        LineItem canvasQuizLineItem = supportingEntities.getLineItems().values().stream().filter(
-                l -> l.getSourcedId().equalsIgnoreCase(
-                        canvasQuizSubmissionFact.getQuizId().toString())).findFirst().get();
+        LineItem canvasQuizLineItem = supportingEntities.findLineItem(
+                canvasQuizSubmissionFact.getQuizId().toString()).get();
 
         Event event = new EventBuilderUtils()
                 .usingQuizSubmissionEventType()
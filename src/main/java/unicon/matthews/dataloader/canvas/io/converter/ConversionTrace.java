@@ -0,0 +1,135 @@
+package unicon.matthews.dataloader.canvas.io.converter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import unicon.matthews.dataloader.LoadMetrics;
+
+/**
+ * Records the outcome of every conversion by converter, and logs source rows and their results only for a sample of
+ * conversions and for failures, so the conversion hot path does not format every row and event.
+ *
+ * <p>Counts of converted, unconverted, skipped and failed rows are always kept, and are logged and reset by
+ * {@link #logSummary()}, typically once per dump. Sampled conversions are logged at DEBUG, failures at WARN with the
+ * row which failed.</p>
+ *
+ * <p>When load metrics are available, each converter also has a timer, <em>conversion.</em><code>converter</code>,
+ * counting the rows it was given, the time it took and, as its amount, the results it produced, and a counter of its
+ * failures.</p>
+ */
+@Component
+public class ConversionTrace {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Fraction of conversions logged at DEBUG with their source row and result: 0 logs none, 1 logs all of them.
+     */
+    @Value("${conversion.trace.sample-rate:0}")
+    private double sampleRate;
+
+    @Autowired(required = false)
+    private LoadMetrics metrics;
+
+    private final Map<Object, Counters> countersByConverter = new ConcurrentHashMap<>();
+
+    public ConversionTrace() {
+    }
+
+    ConversionTrace(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * @param converter name or class of the converter
+     * @param nanos time the conversion took
+     */
+    void converted(Object converter, Object source, Object result, long nanos) {
+        Counters counters = countersFor(converter);
+        counters.converted.increment();
+        if (counters.timer != null) {
+            counters.timer.record(nanos, 1);
+        }
+        if (isSampled()) {
+            logger.debug("{} converted {} > {}", counters.name, source, result);
+        }
+    }
+
+    void notConverted(Object converter, Object source, long nanos) {
+        Counters counters = countersFor(converter);
+        counters.notConverted.increment();
+        if (counters.timer != null) {
+            counters.timer.record(nanos, 0);
+        }
+        if (isSampled()) {
+            logger.debug("{} converted {} > NO RESULT", counters.name, source);
+        }
+    }
+
+    /**
+     * Records a row no converter supports.
+     */
+    void skipped(Object converter, Object source) {
+        Counters counters = countersFor(converter);
+        counters.skipped.increment();
+        if (isSampled()) {
+            logger.debug("{} skipped {}, no converter supports it", counters.name, source);
+        }
+    }
+
+    void failed(Object converter, Object source, RuntimeException failure, long nanos) {
+        Counters counters = countersFor(converter);
+        counters.failed.increment();
+        if (counters.timer != null) {
+            counters.timer.record(nanos, 0);
+            metrics.increment("conversion.failures." + counters.name);
+        }
+        logger.warn("{} failed to convert {}", counters.name, source, failure);
+    }
+
+    /**
+     * Logs the counts of each converter since the last summary, and resets them.
+     */
+    public void logSummary() {
+        for (Counters counters : countersByConverter.values()) {
+            logger.info("{}: {} converted, {} without result, {} skipped, {} failed", counters.name,
+                    counters.converted.sumThenReset(), counters.notConverted.sumThenReset(),
+                    counters.skipped.sumThenReset(), counters.failed.sumThenReset());
+        }
+    }
+
+    private Counters countersFor(Object converter) {
+        Counters counters = countersByConverter.get(converter);
+        return counters != null ? counters : countersByConverter.computeIfAbsent(converter,
+                key -> new Counters(key, metrics));
+    }
+
+    private boolean isSampled() {
+        return sampleRate > 0 && logger.isDebugEnabled()
+                && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private static final class Counters {
+
+        private final String name;
+        private final LongAdder converted = new LongAdder();
+        private final LongAdder notConverted = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        private final LoadMetrics.Timer timer;
+
+        private Counters(Object converter, LoadMetrics metrics) {
+            this.name = converter instanceof Class ? ((Class<?>) converter).getSimpleName() : converter.toString();
+            this.timer = metrics != null ? metrics.timer("conversion." + name) : null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package unicon.matthews.dataloader.canvas.io.converter;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import unicon.matthews.dataloader.canvas.model.CanvasPageRequest;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Web application controller, action and HTTP status of a Canvas page request, used as the key to route requests to
+ * the converters which handle them. Controller and action are matched case insensitively.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageRequestRoute {
+
+    String controller;
+    String action;
+    String httpStatus;
+
+    public static PageRequestRoute of(String controller, String action, HttpStatus httpStatus) {
+        return new PageRequestRoute(normalize(controller), normalize(action), String.valueOf(httpStatus.value()));
+    }
+
+    public static PageRequestRoute of(CanvasPageRequest request) {
+        return new PageRequestRoute(normalize(request.getWebApplicationController()),
+                normalize(request.getWebApplicationAction()), request.getHttpStatus());
+    }
+
+    /**
+     * @return a route for every combination of the given controllers, actions and HTTP statuses
+     */
+    public static Set<PageRequestRoute> combinations(Collection<String> controllers, Collection<String> actions,
+            HttpStatus... httpStatuses) {
+        Set<PageRequestRoute> routes = new LinkedHashSet<>();
+        for (String controller : controllers) {
+            for (String action : actions) {
+                for (HttpStatus httpStatus : httpStatuses) {
+                    routes.add(of(controller, action, httpStatus));
+                }
+            }
+        }
+        return Collections.unmodifiableSet(routes);
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,157 @@
+package unicon.matthews.dataloader.canvas.io.converter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Converts rows of a table on a pool of workers, in partitions of {@value #PARTITION_SIZE} consecutive rows which each
+ * collect their results in their own buffer, so workers share nothing but the read-only {@link SupportingEntities}.
+ *
+ * <p>When ordered, partitions are handed back in row order, so results are in the same order as a sequential
+ * conversion produces them. Otherwise each partition is handed back as soon as it completes. With a parallelism of 1,
+ * rows are converted on the calling thread.</p>
+ */
+class ParallelConversion {
+
+    static final int PARTITION_SIZE = 1024;
+
+    private final int parallelism;
+    private final boolean ordered;
+    private final ExecutorService executor;
+
+    ParallelConversion(int parallelism, boolean ordered) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format("Conversion parallelism must be at least 1, was %d",
+                    parallelism));
+        }
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+        if (parallelism > 1) {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "conversion-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * @return the present results of converting each row
+     */
+    <S, R> List<R> convert(Collection<S> sources, Function<S, Optional<R>> conversion) {
+        if (executor == null || sources.size() <= PARTITION_SIZE) {
+            return convertPartition(sources, conversion);
+        }
+        List<R> results = new ArrayList<>(sources.size());
+        convert(sources.stream(), conversion, results::add);
+        return results;
+    }
+
+    /**
+     * Converts rows as they are pulled from the stream, with at most twice the parallelism of partitions pulled ahead
+     * of the consumer.
+     *
+     * @param resultConsumer receives each present result on the calling thread
+     * @return the number of present results
+     */
+    <S, R> long convert(Stream<S> sources, Function<S, Optional<R>> conversion, Consumer<R> resultConsumer) {
+        long resultCount = 0;
+        if (executor == null) {
+            Iterator<S> iterator = sources.iterator();
+            while (iterator.hasNext()) {
+                Optional<R> result = conversion.apply(iterator.next());
+                if (result != null && result.isPresent()) {
+                    resultConsumer.accept(result.get());
+                    resultCount++;
+                }
+            }
+            return resultCount;
+        }
+
+        CompletionService<List<R>> completionService = new ExecutorCompletionService<>(executor);
+        Deque<Future<List<R>>> inFlight = new ArrayDeque<>();
+        Iterator<S> iterator = sources.iterator();
+        try {
+            while (iterator.hasNext()) {
+                List<S> partition = new ArrayList<>(PARTITION_SIZE);
+                while (partition.size() < PARTITION_SIZE && iterator.hasNext()) {
+                    partition.add(iterator.next());
+                }
+                Callable<List<R>> task = () -> convertPartition(partition, conversion);
+                // Only unordered conversions take partitions from the completion queue, so only they are queued there
+                inFlight.addLast(ordered ? executor.submit(task) : completionService.submit(task));
+                if (inFlight.size() == parallelism * 2) {
+                    resultCount += handOver(nextCompleted(completionService, inFlight), resultConsumer);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                resultCount += handOver(nextCompleted(completionService, inFlight), resultConsumer);
+            }
+            return resultCount;
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private <S, R> List<R> convertPartition(Collection<S> partition, Function<S, Optional<R>> conversion) {
+        List<R> results = new ArrayList<>();
+        for (S source : partition) {
+            Optional<R> result = conversion.apply(source);
+            if (result != null && result.isPresent()) {
+                results.add(result.get());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return the results of the first partition in row order if ordered, or else of any completed partition
+     */
+    private <R> List<R> nextCompleted(CompletionService<List<R>> completionService, Deque<Future<List<R>>> inFlight) {
+        try {
+            Future<List<R>> completed = ordered ? inFlight.removeFirst() : completionService.take();
+            if (!ordered) {
+                inFlight.remove(completed);
+            }
+            return completed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a conversion", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Conversion failed", e.getCause());
+        }
+    }
+
+    private static <R> long handOver(List<R> results, Consumer<R> resultConsumer) {
+        results.forEach(resultConsumer);
+        return results.size();
+    }
+}
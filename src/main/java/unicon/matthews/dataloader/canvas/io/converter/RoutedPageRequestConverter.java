@@ -0,0 +1,19 @@
+package unicon.matthews.dataloader.canvas.io.converter;
+
+import unicon.matthews.caliper.Event;
+import unicon.matthews.dataloader.canvas.model.CanvasPageRequest;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Page request converter which declares the routes it handles, so the conversion service can select it with a single
+ * lookup instead of asking every converter whether it supports a request. The <code>supports</code> method is still
+ * called for requests on a declared route, to check anything the route does not cover (such as the HTTP method), so
+ * the routes must include every request the converter supports.
+ */
+public interface RoutedPageRequestConverter extends Converter<CanvasPageRequest, Optional<Event>> {
+
+    Set<PageRequestRoute> getRoutes();
+
+}
@@ -0,0 +1,162 @@
+package unicon.matthews.dataloader.canvas.io.converter;
+
+import unicon.matthews.dataloader.canvas.model.CanvasPageRequest;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+/**
+ * Index of Canvas session ID to the ID of the first authenticated user seen in that session, used to attribute
+ * requests (such as logins) which do not carry the user ID themselves.
+ *
+ * <p>The index is built in a single pass over the page requests as they are read, so the requests table does not
+ * need to be held in memory. Session IDs are matched case insensitively. User IDs are kept unboxed in an open
+ * addressing table, as a dump can contain millions of sessions.</p>
+ *
+ * <p>It is built by a {@link Builder} before any conversion reads it, and cannot change once built, so concurrent
+ * conversions look users up without locking. The builder itself is not thread safe.</p>
+ */
+public final class SessionUserIndex {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final String[] sessionIds;
+    private final long[] userIds;
+    private final int size;
+
+    private SessionUserIndex(String[] sessionIds, long[] userIds, int size) {
+        this.sessionIds = sessionIds;
+        this.userIds = userIds;
+        this.size = size;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builds an index from the given requests, consuming the stream.
+     */
+    public static SessionUserIndex of(Stream<CanvasPageRequest> requests) {
+        Builder builder = builder();
+        requests.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Builds an index from the given requests.
+     */
+    public static SessionUserIndex of(Iterable<CanvasPageRequest> requests) {
+        Builder builder = builder();
+        if (requests != null) {
+            requests.forEach(builder::add);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param sessionId Canvas session ID
+     * @return the user ID of the first authenticated request in the session, if any
+     */
+    public Optional<String> findUserId(String sessionId) {
+        if (sessionId == null) {
+            return Optional.empty();
+        }
+        int slot = slotOf(sessionIds, normalize(sessionId));
+        return sessionIds[slot] != null ? Optional.of(String.valueOf(userIds[slot])) : Optional.empty();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int slotOf(String[] sessionIds, String sessionId) {
+        int mask = sessionIds.length - 1;
+        int slot = mix(sessionId.hashCode()) & mask;
+        while (sessionIds[slot] != null && !sessionIds[slot].equals(sessionId)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static String normalize(String sessionId) {
+        return sessionId.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "SessionUserIndex(size=" + size + ")";
+    }
+
+    /**
+     * Collects the users of sessions into the table which {@link #build()} then hands over to the index.
+     */
+    public static class Builder {
+
+        private String[] sessionIds = new String[INITIAL_CAPACITY];
+        private long[] userIds = new long[INITIAL_CAPACITY];
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * Records the user of the request against its session, unless the request is anonymous or the session
+         * already has a user, so the first authenticated request of a session wins.
+         */
+        public Builder add(CanvasPageRequest request) {
+            if (sessionIds == null) {
+                throw new IllegalStateException("The index has already been built");
+            }
+            OptionalLong userId = request.userIdValue();
+            if (request.getSessionId() == null || !userId.isPresent()) {
+                return this;
+            }
+
+            String sessionId = normalize(request.getSessionId());
+            int slot = slotOf(sessionIds, sessionId);
+            if (sessionIds[slot] == null) {
+                sessionIds[slot] = sessionId;
+                userIds[slot] = userId.getAsLong();
+                if (++size * 2 > sessionIds.length) {
+                    resize();
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Hands the table over to the index rather than copying it, so the builder cannot be added to afterwards.
+         */
+        public SessionUserIndex build() {
+            if (sessionIds == null) {
+                throw new IllegalStateException("The index has already been built");
+            }
+            SessionUserIndex index = new SessionUserIndex(sessionIds, userIds, size);
+            sessionIds = null;
+            userIds = null;
+            return index;
+        }
+
+        private void resize() {
+            String[] oldSessionIds = sessionIds;
+            long[] oldUserIds = userIds;
+            sessionIds = new String[oldSessionIds.length * 2];
+            userIds = new long[oldUserIds.length * 2];
+            for (int i = 0; i < oldSessionIds.length; i++) {
+                if (oldSessionIds[i] != null) {
+                    int slot = slotOf(sessionIds, oldSessionIds[i]);
+                    sessionIds[slot] = oldSessionIds[i];
+                    userIds[slot] = oldUserIds[i];
+                }
+            }
+        }
+    }
+}
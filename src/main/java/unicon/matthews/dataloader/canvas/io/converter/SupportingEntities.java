@@ -1,8 +1,12 @@
 package unicon.matthews.dataloader.canvas.io.converter;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
-import lombok.Singular;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import unicon.matthews.dataloader.canvas.model.CanvasAssignmentDimension;
 import unicon.matthews.dataloader.canvas.model.CanvasAssignmentSubmissionDimension;
 import unicon.matthews.dataloader.canvas.model.CanvasDataPseudonymDimension;
@@ -20,10 +24,24 @@ import unicon.matthews.oneroster.LineItem;
 import unicon.matthews.oneroster.User;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * Entities the converters join against while converting a dump.
+ *
+ * <p>The <code>find</code> methods are backed by hash indexes which are built on first use and reused for every
+ * following lookup, so converters can join per row in constant time instead of scanning the collections. An index is
+ * rebuilt when its collection is replaced through a setter; collections must not be modified in place once lookups
+ * have started.</p>
+ */
 @Data
-@Builder
+@EqualsAndHashCode(exclude = "lookupIndexes")
+@ToString(exclude = "lookupIndexes")
 public class SupportingEntities {
 
     Collection<CanvasEnrollmentTermDimension> enrollmentTerms;
@@ -35,10 +53,181 @@ public class SupportingEntities {
     Map<String, Enrollment> enrollments;
     Map<String, LineItem> lineItems;
     Collection<CanvasPageRequest> pageRequests;
+    SessionUserIndex sessionUserIndex;
     Collection<CanvasDiscussionForumEntryDimension> discussionForumEntryDimensions;
     Collection<CanvasDiscussionForumEntryFact> discussionForumEntryFacts;
     Collection<CanvasQuizSubmissionDimension> canvasQuizSubmissionDimensions;
     Collection<CanvasQuizSubmissionHistoricalDimension> canvasQuizSubmissionHistoricalDimensions;
     Collection<CanvasAssignmentSubmissionDimension> canvasAssignmentSubmissionDimensions;
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Map<String, LookupIndex> lookupIndexes = new ConcurrentHashMap<>();
+
+    @Builder
+    SupportingEntities(Collection<CanvasEnrollmentTermDimension> enrollmentTerms, Map<String, Class> classes,
+            Map<String, User> users, Map<String, String> userEmailMap,
+            Collection<CanvasUserDimension> canvasUserDimensions,
+            Collection<CanvasDataPseudonymDimension> pseudonymDimensions, Map<String, Enrollment> enrollments,
+            Map<String, LineItem> lineItems, Collection<CanvasPageRequest> pageRequests,
+            SessionUserIndex sessionUserIndex,
+            Collection<CanvasDiscussionForumEntryDimension> discussionForumEntryDimensions,
+            Collection<CanvasDiscussionForumEntryFact> discussionForumEntryFacts,
+            Collection<CanvasQuizSubmissionDimension> canvasQuizSubmissionDimensions,
+            Collection<CanvasQuizSubmissionHistoricalDimension> canvasQuizSubmissionHistoricalDimensions,
+            Collection<CanvasAssignmentSubmissionDimension> canvasAssignmentSubmissionDimensions) {
+        this.enrollmentTerms = enrollmentTerms;
+        this.classes = classes;
+        this.users = users;
+        this.userEmailMap = userEmailMap;
+        this.canvasUserDimensions = canvasUserDimensions;
+        this.pseudonymDimensions = pseudonymDimensions;
+        this.enrollments = enrollments;
+        this.lineItems = lineItems;
+        this.pageRequests = pageRequests;
+        this.sessionUserIndex = sessionUserIndex;
+        this.discussionForumEntryDimensions = discussionForumEntryDimensions;
+        this.discussionForumEntryFacts = discussionForumEntryFacts;
+        this.canvasQuizSubmissionDimensions = canvasQuizSubmissionDimensions;
+        this.canvasQuizSubmissionHistoricalDimensions = canvasQuizSubmissionHistoricalDimensions;
+        this.canvasAssignmentSubmissionDimensions = canvasAssignmentSubmissionDimensions;
+    }
+
+    /**
+     * @param userSourcedId OneRoster user sourced ID, which is the Canvas user dimension ID
+     */
+    public Optional<User> findUser(String userSourcedId) {
+        return users != null ? Optional.ofNullable(users.get(userSourcedId)) : Optional.empty();
+    }
+
+    /**
+     * @param id Canvas user dimension ID
+     */
+    public Optional<CanvasUserDimension> findCanvasUserDimension(String id) {
+        return Optional.ofNullable(this.<Map<String, CanvasUserDimension>>lookupIndex(
+                "canvasUserDimensionsById", canvasUserDimensions, () -> indexBy(canvasUserDimensions, CanvasUserDimension::getId)).get(id));
+    }
+
+    /**
+     * @param userId Canvas user dimension ID of the pseudonym's user
+     * @return the first pseudonym of the user
+     */
+    public Optional<CanvasDataPseudonymDimension> findPseudonymDimensionByUserId(String userId) {
+        return Optional.ofNullable(this.<Map<String, CanvasDataPseudonymDimension>>lookupIndex(
+                "pseudonymDimensionsByUserId", pseudonymDimensions, () -> indexBy(pseudonymDimensions,
+                        pseudonym -> pseudonym.getUserId() != null ? pseudonym.getUserId().toString() : null))
+                .get(userId));
+    }
+
+    /**
+     * @param classSourcedId OneRoster class sourced ID, which is the Canvas course section dimension ID
+     * @param userSourcedId OneRoster user sourced ID, which is the Canvas user dimension ID
+     * @return the first enrollment of the user in the class
+     */
+    public Optional<Enrollment> findEnrollment(String classSourcedId, String userSourcedId) {
+        Map<String, Enrollment> classEnrollments = this.<Map<String, Map<String, Enrollment>>>lookupIndex(
+                "enrollmentsByClassAndUser", enrollments, this::indexEnrollmentsByClassAndUser).get(classSourcedId);
+        return classEnrollments != null ? Optional.ofNullable(classEnrollments.get(userSourcedId)) : Optional.empty();
+    }
+
+    /**
+     * @param sourcedId OneRoster line item sourced ID, which is the Canvas assignment or quiz dimension ID
+     */
+    public Optional<LineItem> findLineItem(String sourcedId) {
+        return lineItems != null ? Optional.ofNullable(lineItems.get(sourcedId)) : Optional.empty();
+    }
+
+    /**
+     * Finds the user of a session from the session user index, or when no index was supplied (the page requests were
+     * read into memory) from an index built over the page requests.
+     *
+     * @param sessionId Canvas session ID
+     * @return the Canvas user dimension ID of the first authenticated request in the session
+     */
+    public Optional<String> findUserIdBySession(String sessionId) {
+        SessionUserIndex index = sessionUserIndex != null ? sessionUserIndex
+                : lookupIndex("sessionUserIndex", pageRequests, () -> SessionUserIndex.of(pageRequests));
+        return index.findUserId(sessionId);
+    }
+
+    public Optional<CanvasQuizSubmissionDimension> findCanvasQuizSubmissionDimension(Long id) {
+        return Optional.ofNullable(this.<Map<Long, CanvasQuizSubmissionDimension>>lookupIndex(
+                "canvasQuizSubmissionDimensionsById", canvasQuizSubmissionDimensions,
+                () -> indexBy(canvasQuizSubmissionDimensions, CanvasQuizSubmissionDimension::getId)).get(id));
+    }
+
+    public Optional<CanvasAssignmentSubmissionDimension> findCanvasAssignmentSubmissionDimension(Long id) {
+        return Optional.ofNullable(this.<Map<Long, CanvasAssignmentSubmissionDimension>>lookupIndex(
+                "canvasAssignmentSubmissionDimensionsById", canvasAssignmentSubmissionDimensions,
+                () -> indexBy(canvasAssignmentSubmissionDimensions, CanvasAssignmentSubmissionDimension::getId))
+                .get(id));
+    }
+
+    public Optional<CanvasDiscussionForumEntryDimension> findDiscussionForumEntryDimension(Long id) {
+        return Optional.ofNullable(this.<Map<Long, CanvasDiscussionForumEntryDimension>>lookupIndex(
+                "discussionForumEntryDimensionsById", discussionForumEntryDimensions,
+                () -> indexBy(discussionForumEntryDimensions, CanvasDiscussionForumEntryDimension::getId)).get(id));
+    }
+
+    public Optional<CanvasDiscussionForumEntryFact> findDiscussionForumEntryFact(Long discussionEntryId) {
+        return Optional.ofNullable(this.<Map<Long, CanvasDiscussionForumEntryFact>>lookupIndex(
+                "discussionForumEntryFactsByDiscussionEntryId", discussionForumEntryFacts,
+                () -> indexBy(discussionForumEntryFacts, CanvasDiscussionForumEntryFact::getDiscussionEntryId))
+                .get(discussionEntryId));
+    }
+
+    /**
+     * Returns the named index, building it if it does not exist yet or if it was built from a different source
+     * collection than the current one. Concurrent first lookups may build the same index more than once, which is
+     * harmless as the results are identical.
+     */
+    @SuppressWarnings("unchecked")
+    private <I> I lookupIndex(String name, Object source, Supplier<I> indexBuilder) {
+        LookupIndex index = lookupIndexes.get(name);
+        if (index == null || index.source != source) {
+            index = new LookupIndex(source, indexBuilder.get());
+            lookupIndexes.put(name, index);
+        }
+        return (I) index.entries;
+    }
+
+    private Map<String, Map<String, Enrollment>> indexEnrollmentsByClassAndUser() {
+        Map<String, Map<String, Enrollment>> index = new HashMap<>();
+        if (enrollments != null) {
+            for (Enrollment enrollment : enrollments.values()) {
+                if (enrollment.getKlass() != null && enrollment.getUser() != null) {
+                    index.computeIfAbsent(enrollment.getKlass().getSourcedId(), classSourcedId -> new HashMap<>())
+                            .putIfAbsent(enrollment.getUser().getSourcedId(), enrollment);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Indexes the items by key, keeping the first item for duplicate keys to match a <code>findFirst</code> scan.
+     */
+    private static <K, V> Map<K, V> indexBy(Collection<? extends V> items, Function<V, K> keyFunction) {
+        Map<K, V> index = new HashMap<>();
+        if (items != null) {
+            for (V item : items) {
+                K key = keyFunction.apply(item);
+                if (key != null) {
+                    index.putIfAbsent(key, item);
+                }
+            }
+        }
+        return index;
+    }
+
+    private static final class LookupIndex {
+
+        private final Object source;
+        private final Object entries;
+
+        LookupIndex(Object source, Object entries) {
+            this.source = source;
+            this.entries = entries;
+        }
+    }
 }
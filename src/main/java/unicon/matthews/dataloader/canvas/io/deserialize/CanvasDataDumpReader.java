@@ -1,23 +1,49 @@
 package unicon.matthews.dataloader.canvas.io.deserialize;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
 import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import unicon.matthews.dataloader.LoadMetrics;
 import unicon.matthews.dataloader.canvas.model.CanvasDataArtifact;
 import unicon.matthews.dataloader.canvas.model.CanvasDataDump;
 import unicon.matthews.dataloader.canvas.model.CanvasDataFile;
 
+import java.io.Closeable;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -27,6 +53,15 @@ import java.util.zip.GZIPInputStream;
  */
 public class CanvasDataDumpReader<T extends ReadableCanvasDumpArtifact> {
 
+    private static final String SKIPPED_COLUMN_PREFIX = "__skipped_";
+
+    // To allow for unknown trailing fields, enable the IGNORE_TRAILING_UNMAPPABLE feature below
+    private static final CsvMapper TSV_MAPPER = new CsvMapper().configure(
+            CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE, false);
+    // Schemas and bindings are immutable once built, so each model type has one shared by all of its readers
+    private static final Map<Class<?>, CsvSchema> TSV_SCHEMAS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, CanvasTsvBinding<?>> TSV_BINDINGS = new ConcurrentHashMap<>();
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private T type;
@@ -36,15 +71,25 @@ public class CanvasDataDumpReader<T extends ReadableCanvasDumpArtifact> {
     private CsvSchema tsvSchema;
     private Function<T, Boolean> filter;
     private List<String> includedTypes;
+    private int parallelism = 1;
+    private boolean ordered = true;
+    private CanvasTsvBinding<T> tsvBinding;
+    private Set<String> projectedColumns;
+    private Map<String, ColumnPredicate> pushdownPredicates = new LinkedHashMap<>();
+    private Set<String> deduplicatedColumns;
+    private List<Field> deduplicatedFields;
+    private StringDictionary stringDictionary;
+    private CanvasDumpSnapshot<T> snapshot;
+    private LoadMetrics metrics;
 
     public CanvasDataDumpReader(Class<T> clazz) throws Exception {
         this.type = clazz.newInstance();
         this.clazz = clazz;
         List<? extends Enum> supportedTypes = type.supports();
         this.includedTypes = supportedTypes.stream().map(Enum::name).collect(Collectors.toList());
-        // To allow for unknown trailing fields, enable the IGNORE_TRAILING_UNMAPPABLE feature below
-        this.tsvMapper = new CsvMapper().configure(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE, false);
-        this.tsvSchema = tsvMapper.schemaFor(clazz).withColumnSeparator('\t');
+        this.tsvMapper = TSV_MAPPER;
+        this.tsvSchema = TSV_SCHEMAS.computeIfAbsent(clazz,
+                modelType -> TSV_MAPPER.schemaFor(modelType).withColumnSeparator('\t'));
     }
 
     public static <T extends ReadableCanvasDumpArtifact> CanvasDataDumpReader<T> forType(Class<T> clazz)
@@ -52,6 +97,10 @@ public class CanvasDataDumpReader<T extends ReadableCanvasDumpArtifact> {
         return new CanvasDataDumpReader<>(clazz);
     }
 
+    public Class<T> getModelClass() {
+        return clazz;
+    }
+
     /**
      * Constrain the artifact types to the specified values, instead of reading all supported artifacts.
      *
@@ -83,32 +132,484 @@ public class CanvasDataDumpReader<T extends ReadableCanvasDumpArtifact> {
         return this;
     }
 
+    /**
+     * Reads the data files with the {@link CanvasTsvParser}, which decodes fields straight from the decompressed bytes,
+     * instead of the Jackson <code>CsvMapper</code>. Both produce equal rows for well formed Canvas dump files.
+     *
+     * @return reader using the TSV parser
+     * @throws IllegalArgumentException if the model type has a field the TSV parser cannot decode
+     */
+    @SuppressWarnings("unchecked")
+    public CanvasDataDumpReader<T> withFastParser() {
+        this.tsvBinding = (CanvasTsvBinding<T>) TSV_BINDINGS.computeIfAbsent(clazz, CanvasTsvBinding::forType);
+        return this;
+    }
+
+    /**
+     * Only deserializes the specified columns, leaving the fields of all other columns unset (null, an unset
+     * <code>Optional</code> field, or absent for a {@link CompactColumns} field), so rows used for a single purpose skip
+     * decoding the columns they never read.
+     *
+     * <p>With the fast parser, the rest of a line after the last projected column is not scanned at all. With the
+     * Jackson <code>CsvMapper</code>, the other columns are still tokenized but not deserialized.</p>
+     *
+     * @param columns column names as listed in the <code>@JsonPropertyOrder</code> of the model type
+     * @return reader with the columns projected
+     * @throws IllegalArgumentException if a column is not one of the columns of the model type
+     */
+    public CanvasDataDumpReader<T> project(String... columns) {
+        List<String> modelColumns = Arrays.asList(clazz.getAnnotation(JsonPropertyOrder.class).value());
+        if (!modelColumns.containsAll(Arrays.asList(columns))) {
+            throw new IllegalArgumentException(String.format("Invalid columns were specified for model %s. " +
+                    "Allowed: %s, Provided: %s", clazz.getName(), modelColumns, Arrays.asList(columns)));
+        }
+        this.projectedColumns = new HashSet<>(Arrays.asList(columns));
+        return this;
+    }
+
+    /**
+     * Makes rows share one <code>String</code> instance per distinct value of the specified low cardinality columns,
+     * such as controllers, HTTP methods or workflow states, through a dictionary held by this reader, instead of each
+     * row holding its own copy. With the fast parser, a value already in the dictionary is not decoded at all.
+     *
+     * @param columns column names of <code>String</code> fields, as listed in the <code>@JsonPropertyOrder</code> of
+     *        the model type
+     * @return reader with the columns deduplicated
+     * @throws IllegalArgumentException if a column is not a <code>String</code> column of the model type
+     */
+    public CanvasDataDumpReader<T> deduplicate(String... columns) {
+        List<String> modelColumns = Arrays.asList(clazz.getAnnotation(JsonPropertyOrder.class).value());
+        Map<String, Field> fieldsByProperty = CanvasTsvBinding.fieldsByProperty(clazz);
+        List<Field> fields = new ArrayList<>();
+        for (String column : columns) {
+            Field field = fieldsByProperty.get(column);
+            if (!modelColumns.contains(column) || field == null || field.getType() != String.class) {
+                throw new IllegalArgumentException(String.format("Invalid column was specified for model %s, only " +
+                        "String columns can be deduplicated. Provided: %s", clazz.getName(), column));
+            }
+            field.setAccessible(true);
+            fields.add(field);
+        }
+        this.deduplicatedColumns = new HashSet<>(Arrays.asList(columns));
+        this.deduplicatedFields = fields;
+        this.stringDictionary = new StringDictionary();
+        return this;
+    }
+
+    /**
+     * Adds a condition on the raw value of a column, evaluated while each line is tokenized so rows which do not
+     * match are discarded before any model object is created. Conditions added for the same or different columns must
+     * all match. Unlike {@link #withFilter(Function)}, the column does not have to be projected.
+     *
+     * <p>Pushdown conditions are evaluated by the {@link CanvasTsvParser}, so this enables {@link #withFastParser()}.
+     * </p>
+     *
+     * @param column column name as listed in the <code>@JsonPropertyOrder</code> of the model type
+     * @param predicate condition on the raw bytes of the column
+     * @return reader with the condition added
+     * @throws IllegalArgumentException if the column is not one of the columns of the model type, or the model type
+     *         has a field the TSV parser cannot decode
+     */
+    public CanvasDataDumpReader<T> where(String column, ColumnPredicate predicate) {
+        List<String> modelColumns = Arrays.asList(clazz.getAnnotation(JsonPropertyOrder.class).value());
+        if (!modelColumns.contains(column)) {
+            throw new IllegalArgumentException(String.format("Invalid column was specified for model %s. " +
+                    "Allowed: %s, Provided: %s", clazz.getName(), modelColumns, column));
+        }
+        if (tsvBinding == null) {
+            withFastParser();
+        }
+        pushdownPredicates.merge(column, predicate, ColumnPredicate::and);
+        return this;
+    }
+
+    /**
+     * Reads each data file from a binary columnar snapshot stored beside it (see {@link CanvasDumpSnapshot}), which is
+     * memory mapped instead of decompressed and parsed. A data file without a snapshot, or whose snapshot was written
+     * from a different download, is parsed in full once to write it. Projection, pushdown conditions and deduplication
+     * apply to snapshot reads as to parsed ones.
+     *
+     * <p>If the snapshot cannot be written or opened, such as when it would be too large to map, the data file is read
+     * without it.</p>
+     *
+     * @return reader using snapshots
+     * @throws IllegalArgumentException if the model type has a field a snapshot cannot hold
+     */
+    public CanvasDataDumpReader<T> withSnapshots() {
+        this.snapshot = CanvasDumpSnapshot.forType(clazz);
+        return this;
+    }
+
+    /**
+     * Records the rows read from each data file, and the time spent reading them, under the timer
+     * <em>reader.</em><code>ModelType</code>. Only the time spent in the reader counts, not the time the rows of a
+     * stream spend with their consumer, so the rate is that of reading alone.
+     *
+     * @return reader recording its metrics
+     */
+    public CanvasDataDumpReader<T> withMetrics(LoadMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Reads the data files of the included artifacts concurrently, each file being decompressed and parsed on its own
+     * worker, instead of one after another on the calling thread. Only applies to {@link #read(CanvasDataDump)}.
+     *
+     * <p>When enabled, the filter (if any) is invoked concurrently from the worker threads.</p>
+     *
+     * @param parallelism maximum number of data files read at the same time; 1 reads sequentially
+     * @return reader with parallel reads configured
+     */
+    public CanvasDataDumpReader<T> withParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format("Reader parallelism must be at least 1, was %d",
+                    parallelism));
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Allows a parallel read to return the rows of each data file as soon as that file is complete, rather than in
+     * artifact file order. Rows within a single file always stay in file order.
+     *
+     * @return reader with unordered results enabled
+     */
+    public CanvasDataDumpReader<T> unordered() {
+        this.ordered = false;
+        return this;
+    }
+
+    /**
+     * Reads all of the included artifacts of the dump into memory.
+     *
+     * <p>For large artifacts such as <em>requests</em>, prefer {@link #stream(CanvasDataDump)} which does not hold
+     * every row at once.</p>
+     *
+     * @param dump downloaded Canvas data dump
+     * @return all rows of the included artifacts which pass the filter, if any
+     * @throws Exception if a data file cannot be opened or deserialized
+     */
     public Collection<T> read(CanvasDataDump dump) throws Exception {
+        List<CanvasDataFile> files = includedFiles(dump);
+        if (parallelism > 1 && files.size() > 1) {
+            return readInParallel(files);
+        }
+        try (Stream<T> rows = stream(dump)) {
+            return rows.collect(Collectors.toCollection(ArrayList::new));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 
-        Collection<T> results = new ArrayList<>();
+    /**
+     * Returns a lazily evaluated stream over the rows of the included artifacts of the dump. Data files are opened one
+     * at a time as the stream is consumed, so only the current row is held in memory by the reader.
+     *
+     * <p>The returned stream holds an open data file and must be closed, preferably with try-with-resources. I/O
+     * failures while consuming the stream are reported as <code>UncheckedIOException</code>.</p>
+     *
+     * @param dump downloaded Canvas data dump
+     * @return sequential stream of the rows of the included artifacts which pass the filter, if any
+     */
+    public Stream<T> stream(CanvasDataDump dump) {
+        DataFileIterator iterator = new DataFileIterator(includedFiles(dump));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(iterator::close);
+    }
 
+    List<CanvasDataFile> includedFiles(CanvasDataDump dump) {
         List<CanvasDataArtifact> artifacts = dump.getArtifactsByTable().entrySet().stream().filter(
                 artifactEntry -> includedTypes.contains(artifactEntry.getKey())).map(Map.Entry::getValue).collect(
                 Collectors.toList());
 
-        List<CanvasDataFile> files = artifacts.stream().map(CanvasDataArtifact::getFiles).flatMap(
+        return artifacts.stream().map(CanvasDataArtifact::getFiles).flatMap(
                 List::stream).collect(Collectors.toList());
+    }
 
-        for (CanvasDataFile dataFile : files) {
-            MappingIterator<T> iterator = tsvMapper.readerFor(clazz).with(tsvSchema).readValues(new GZIPInputStream(
-                    new FileInputStream(dataFile.getDownloadPath().toFile())));
-            if (filter != null) {
-                while (iterator.hasNextValue()) {
-                    T item = iterator.nextValue();
-                    if (filter.apply(item)) {
-                        results.add(item);
-                    }
+    private Collection<T> readInParallel(List<CanvasDataFile> files) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, files.size()));
+        try {
+            CompletionService<List<T>> completionService = new ExecutorCompletionService<>(executor);
+            List<Future<List<T>>> futures = new ArrayList<>();
+            for (CanvasDataFile dataFile : files) {
+                futures.add(completionService.submit(() -> readFile(dataFile)));
+            }
+
+            Collection<T> results = new ArrayList<>();
+            if (ordered) {
+                for (Future<List<T>> future : futures) {
+                    results.addAll(resultOf(future));
                 }
             } else {
-                results.addAll(iterator.readAll());
+                for (int i = 0; i < files.size(); i++) {
+                    results.addAll(resultOf(completionService.take()));
+                }
             }
+            return results;
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
+    private List<T> readFile(CanvasDataFile dataFile) throws IOException {
+        List<T> results = new ArrayList<>();
+        try (RowSource<T> rows = open(dataFile)) {
+            T item;
+            while ((item = rows.next()) != null) {
+                if (filter == null || filter.apply(item)) {
+                    results.add(item);
+                }
+            }
+        }
+        logger.debug("Read {} {} rows from {}", results.size(), clazz.getSimpleName(), dataFile.getFilename());
         return results;
     }
+
+    private List<T> resultOf(Future<List<T>> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private RowSource<T> open(CanvasDataFile dataFile) throws IOException {
+        if (metrics == null) {
+            return openUnmetered(dataFile);
+        }
+        long openStart = System.nanoTime();
+        RowSource<T> rows = openUnmetered(dataFile);
+        LoadMetrics.Timer timer = metrics.timer("reader." + clazz.getSimpleName());
+        long openNanos = System.nanoTime() - openStart;
+        return new RowSource<T>() {
+            private long nanos = openNanos;
+            private long rowCount;
+
+            @Override
+            public T next() throws IOException {
+                long start = System.nanoTime();
+                T row = rows.next();
+                nanos += System.nanoTime() - start;
+                if (row != null) {
+                    rowCount++;
+                }
+                return row;
+            }
+
+            @Override
+            public void close() throws IOException {
+                rows.close();
+                timer.record(nanos, rowCount);
+            }
+        };
+    }
+
+    private RowSource<T> openUnmetered(CanvasDataFile dataFile) throws IOException {
+        if (snapshot != null) {
+            Path snapshotPath = snapshot.pathFor(dataFile);
+            if (snapshot.isCurrent(snapshotPath, dataFile.getDownloadPath()) || writeSnapshot(dataFile, snapshotPath)) {
+                try {
+                    return openSnapshot(dataFile, snapshotPath);
+                } catch (IOException e) {
+                    logger.warn("Unable to open the snapshot of {}, reading it without one", dataFile.getFilename(),
+                            e);
+                }
+            }
+        }
+        return openDataFile(dataFile, false);
+    }
+
+    /**
+     * Parses the data file, either as configured or, to write its snapshot, in full: every column, every line and no
+     * deduplication.
+     */
+    private RowSource<T> openDataFile(CanvasDataFile dataFile, boolean full) throws IOException {
+        InputStream in = new GZIPInputStream(new FileInputStream(dataFile.getDownloadPath().toFile()));
+        if (tsvBinding != null) {
+            CanvasTsvBinding<T> binding = projectedColumns != null && !full ? tsvBinding.project(projectedColumns)
+                    : tsvBinding;
+            if (deduplicatedColumns != null && !full) {
+                binding = binding.deduplicate(deduplicatedColumns, stringDictionary);
+            }
+            Map<String, ColumnPredicate> predicates = full ? Collections.emptyMap() : pushdownPredicates;
+            CanvasTsvParser<T> parser = new CanvasTsvParser<>(binding, predicates, in);
+            return new RowSource<T>() {
+                @Override
+                public T next() throws IOException {
+                    return parser.next();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (!predicates.isEmpty()) {
+                        logger.debug("Discarded {} of {} {} lines from {} by pushdown conditions",
+                                parser.getFilteredLines(), parser.getLineNumber(), clazz.getSimpleName(),
+                                dataFile.getFilename());
+                    }
+                    parser.close();
+                }
+            };
+        }
+
+        MappingIterator<T> iterator = projectedColumns != null && !full
+                ? tsvMapper.readerFor(clazz).with(projectedSchema()).without(
+                        DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).readValues(in)
+                : tsvMapper.readerFor(clazz).with(tsvSchema).readValues(in);
+        return new RowSource<T>() {
+            @Override
+            public T next() throws IOException {
+                T row = iterator.hasNextValue() ? iterator.nextValue() : null;
+                if (row != null && deduplicatedFields != null && !full) {
+                    deduplicateStrings(row);
+                }
+                return row;
+            }
+
+            @Override
+            public void close() throws IOException {
+                iterator.close();
+            }
+        };
+    }
+
+    /**
+     * Writes the snapshot of the data file from a full parse of it.
+     *
+     * @return true if the snapshot was written
+     */
+    private boolean writeSnapshot(CanvasDataFile dataFile, Path snapshotPath) {
+        long start = System.currentTimeMillis();
+        try (RowSource<T> rows = openDataFile(dataFile, true);
+             CanvasDumpSnapshot<T>.Writer writer = snapshot.newWriter(snapshotPath, dataFile.getDownloadPath())) {
+            T row;
+            while ((row = rows.next()) != null) {
+                writer.add(row);
+            }
+            writer.commit();
+            logger.info("Wrote snapshot of {} {} rows from {} in {} ms", writer.getRowCount(), clazz.getSimpleName(),
+                    dataFile.getFilename(), System.currentTimeMillis() - start);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Unable to write the snapshot of {}, reading it without one", dataFile.getFilename(), e);
+            return false;
+        }
+    }
+
+    private RowSource<T> openSnapshot(CanvasDataFile dataFile, Path snapshotPath) throws IOException {
+        CanvasDumpSnapshot<T>.Reader reader = snapshot.open(snapshotPath, dataFile.getDownloadPath(), projectedColumns,
+                pushdownPredicates, deduplicatedColumns, stringDictionary);
+        logger.debug("Reading {} rows from the snapshot of {}", clazz.getSimpleName(), dataFile.getFilename());
+        return new RowSource<T>() {
+            @Override
+            public T next() throws IOException {
+                return reader.next();
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    /**
+     * Replaces the values of the deduplicated columns of a row created by the <code>CsvMapper</code> with their shared
+     * instances.
+     */
+    private void deduplicateStrings(T row) {
+        for (Field field : deduplicatedFields) {
+            try {
+                field.set(row, stringDictionary.intern((String) field.get(row)));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(String.format("Unable to deduplicate %s.%s", clazz.getName(),
+                        field.getName()), e);
+            }
+        }
+    }
+
+    /**
+     * Renames the columns which are not projected to names no property has, so the <code>CsvMapper</code> skips their
+     * values instead of deserializing them.
+     */
+    private CsvSchema projectedSchema() {
+        CsvSchema.Builder builder = tsvSchema.rebuild().clearColumns();
+        for (CsvSchema.Column column : tsvSchema) {
+            builder.addColumn(projectedColumns.contains(column.getName()) ? column
+                    : column.withName(SKIPPED_COLUMN_PREFIX + column.getIndex()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Rows of a single open data file, from either the Jackson or the TSV parser.
+     */
+    private interface RowSource<T> extends Closeable {
+
+        /**
+         * @return the next row, or null when the file is exhausted
+         */
+        T next() throws IOException;
+    }
+
+    /**
+     * Iterates the rows of a list of data files in order, opening each file only once the previous one has been
+     * exhausted and applying the reader filter as rows are pulled.
+     */
+    private class DataFileIterator implements Iterator<T>, Closeable {
+
+        private final Iterator<CanvasDataFile> files;
+        private RowSource<T> current;
+        private T next;
+
+        DataFileIterator(List<CanvasDataFile> files) {
+            this.files = files.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    T item = current != null ? current.next() : null;
+                    if (item != null) {
+                        if (filter == null || filter.apply(item)) {
+                            next = item;
+                        }
+                    } else if (files.hasNext()) {
+                        close();
+                        current = open(files.next());
+                    } else {
+                        close();
+                        return false;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T item = next;
+            next = null;
+            return item;
+        }
+
+        @Override
+        public void close() {
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close Canvas data file", e);
+                }
+                current = null;
+            }
+        }
+    }
 }
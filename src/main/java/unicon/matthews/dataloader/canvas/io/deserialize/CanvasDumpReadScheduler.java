@@ -0,0 +1,185 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import unicon.matthews.dataloader.canvas.model.CanvasDataDump;
+import unicon.matthews.dataloader.canvas.model.CanvasDataFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the tables of a dump ahead of the code consuming them, several at a time, instead of each table being read
+ * when it is needed and only once the previous one has been consumed.
+ *
+ * <p>Tables are read in the order they are scheduled, on up to <code>parallelism</code> workers, and each is handed to
+ * its consumer through a {@link Table} as soon as it is complete. Tables read ahead but not yet taken by their
+ * consumer are bounded by a memory budget, estimated from the size of their downloaded files: a table is only started
+ * once enough of the budget is free, and its share is returned when it is taken. A table larger than the whole budget
+ * waits for all of it. A consumer asking for a table which has not started yet does not wait for budget, so tables may
+ * be taken in any order.</p>
+ */
+public class CanvasDumpReadScheduler implements AutoCloseable {
+
+    /**
+     * Estimated ratio of the heap held by the rows of a table to the size of its gzipped files.
+     */
+    static final int HEAP_TO_DOWNLOAD_RATIO = 10;
+
+    private static final int BUDGET_UNIT = 1024 * 1024;
+    private static final long BUDGET_POLL_MILLISECONDS = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final CanvasDataDump dump;
+    private final ExecutorService executor;
+    private final int budget;
+    private final Semaphore budgetUnits;
+
+    /**
+     * @param dump downloaded Canvas data dump
+     * @param parallelism maximum number of tables read at the same time
+     * @param memoryBudgetMegabytes estimated heap the tables read ahead may hold, in megabytes
+     */
+    public CanvasDumpReadScheduler(CanvasDataDump dump, int parallelism, int memoryBudgetMegabytes) {
+        if (parallelism < 1 || memoryBudgetMegabytes < 1) {
+            throw new IllegalArgumentException(String.format("Read scheduler parallelism and memory budget must be " +
+                    "at least 1, were %d and %d MB", parallelism, memoryBudgetMegabytes));
+        }
+        this.dump = dump;
+        this.budget = memoryBudgetMegabytes;
+        this.budgetUnits = new Semaphore(memoryBudgetMegabytes, true);
+        AtomicInteger workers = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "dump-reader-" + workers.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = Executors.newFixedThreadPool(parallelism, threadFactory);
+    }
+
+    /**
+     * Schedules reading all rows of the table, as {@link CanvasDataDumpReader#read(CanvasDataDump)} does.
+     *
+     * @param reader configured reader of the table
+     * @return table whose rows are handed over once read
+     */
+    public <T extends ReadableCanvasDumpArtifact> Table<T> schedule(CanvasDataDumpReader<T> reader) {
+        Table<T> table = new Table<>(reader, Math.min(budget, estimateUnits(reader)));
+        executor.execute(table::readAhead);
+        return table;
+    }
+
+    /**
+     * Stops reading the tables which have not been read yet.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private int estimateUnits(CanvasDataDumpReader<?> reader) {
+        long bytes = 0;
+        for (CanvasDataFile dataFile : reader.includedFiles(dump)) {
+            try {
+                bytes += Files.size(dataFile.getDownloadPath());
+            } catch (IOException e) {
+                // The read itself reports the missing file
+            }
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytes * HEAP_TO_DOWNLOAD_RATIO / BUDGET_UNIT));
+    }
+
+    /**
+     * Rows of a scheduled table.
+     */
+    public class Table<T extends ReadableCanvasDumpArtifact> {
+
+        private final CanvasDataDumpReader<T> reader;
+        private final CompletableFuture<Collection<T>> rows = new CompletableFuture<>();
+        private final int units;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile boolean demanded;
+        private volatile boolean acquired;
+        private boolean taken;
+
+        private Table(CanvasDataDumpReader<T> reader, int units) {
+            this.reader = reader;
+            this.units = units;
+        }
+
+        /**
+         * Waits for the table to be read and hands its rows over, returning its share of the memory budget. A table
+         * which has not started reading yet is read by the calling thread, outside of the budget.
+         *
+         * @return all rows of the included artifacts which pass the filter of the reader, if any
+         * @throws Exception if the table could not be read
+         */
+        public synchronized Collection<T> take() throws Exception {
+            demanded = true;
+            if (claimed.compareAndSet(false, true)) {
+                read();
+            }
+            try {
+                return rows.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            } finally {
+                if (!taken && rows.isDone()) {
+                    taken = true;
+                    if (acquired) {
+                        budgetUnits.release(units);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Reads the table on a worker once its share of the budget is free, unless its consumer asks for it first.
+         */
+        private void readAhead() {
+            try {
+                // The budget semaphore is fair, so reads waiting for budget still start in schedule order
+                while (!demanded && !claimed.get()) {
+                    if (budgetUnits.tryAcquire(units, BUDGET_POLL_MILLISECONDS, TimeUnit.MILLISECONDS)) {
+                        if (claimed.compareAndSet(false, true)) {
+                            acquired = true;
+                            read();
+                        } else {
+                            budgetUnits.release(units);
+                        }
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (claimed.compareAndSet(false, true)) {
+                read();
+            }
+        }
+
+        private void read() {
+            try {
+                long start = System.currentTimeMillis();
+                Collection<T> result = reader.read(dump);
+                logger.debug("Read {} {} rows in {} ms", result.size(), reader.getModelClass().getSimpleName(),
+                        System.currentTimeMillis() - start);
+                rows.complete(result);
+            } catch (Throwable e) {
+                rows.completeExceptionally(e);
+            }
+        }
+    }
+}
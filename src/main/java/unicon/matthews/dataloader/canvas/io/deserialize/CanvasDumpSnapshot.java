@@ -0,0 +1,432 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import unicon.matthews.dataloader.canvas.model.CanvasDataFile;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Binary columnar copy of the rows of one Canvas data dump file, stored beside the download so later runs over the
+ * same dump can skip decompressing and parsing it again.
+ *
+ * <p>A snapshot holds every field of the model, in row groups of up to {@value #ROW_GROUP_SIZE} rows. Each row group
+ * stores one {@link SnapshotField} vector per field, prefixed by its length so vectors of columns which are not
+ * projected are skipped without being decoded. The header records the size and modification time of the source file
+ * and the field layout of the model, and a snapshot is only read when all of them still match. Snapshots are read
+ * through a single memory mapped buffer, so a snapshot can be no larger than {@value Integer#MAX_VALUE} bytes; the
+ * writer gives up on a data file whose snapshot would be larger.</p>
+ *
+ * @param <T> model type of the snapshot
+ */
+public class CanvasDumpSnapshot<T> {
+
+    static final int ROW_GROUP_SIZE = 65536;
+
+    private static final byte[] MAGIC = "CDSNAP".getBytes(StandardCharsets.US_ASCII);
+    private static final short VERSION = 1;
+    private static final String FILE_SUFFIX = ".snapshot";
+    // A snapshot is mapped as a single buffer, which is indexed by int
+    private static final long MAX_SNAPSHOT_SIZE = Integer.MAX_VALUE;
+
+    private final Class<T> clazz;
+    private final Constructor<T> constructor;
+    private final List<SnapshotField> fields;
+    private final List<String> signatures;
+
+    private CanvasDumpSnapshot(Class<T> clazz) {
+        this.clazz = clazz;
+        List<String> columns = Arrays.asList(clazz.getAnnotation(JsonPropertyOrder.class).value());
+        Map<Field, String> columnsByField = new HashMap<>();
+        CanvasTsvBinding.fieldsByProperty(clazz).forEach((column, field) -> {
+            if (columns.contains(column)) {
+                columnsByField.put(field, column);
+            }
+        });
+
+        List<SnapshotField> fields = new ArrayList<>();
+        for (Class<?> type = clazz; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                String column = columnsByField.get(field);
+                int compactBit = column != null && CanvasTsvBinding.isCompact(field) ? columns.indexOf(column) : -1;
+                fields.add(SnapshotField.of(field, column, compactBit));
+            }
+        }
+        this.fields = Collections.unmodifiableList(fields);
+        this.signatures = new ArrayList<>();
+        for (SnapshotField field : fields) {
+            signatures.add(field.signature());
+        }
+
+        try {
+            this.constructor = clazz.getDeclaredConstructor();
+            this.constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(String.format("%s has no no-argument constructor", clazz.getName()), e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the type has a field which cannot be stored in a snapshot
+     */
+    public static <T> CanvasDumpSnapshot<T> forType(Class<T> clazz) {
+        return new CanvasDumpSnapshot<>(clazz);
+    }
+
+    /**
+     * @return location of the snapshot of the data file for this model type, beside the downloaded file
+     */
+    public Path pathFor(CanvasDataFile dataFile) {
+        Path source = dataFile.getDownloadPath();
+        return source.resolveSibling(source.getFileName() + "." + clazz.getSimpleName() + FILE_SUFFIX);
+    }
+
+    /**
+     * @return true if the snapshot exists and was written from the source file as it is now, for the current fields of
+     *         the model type
+     */
+    public boolean isCurrent(Path snapshot, Path source) {
+        if (!Files.isRegularFile(snapshot)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (channel.size() > MAX_SNAPSHOT_SIZE) {
+                return false;
+            }
+            return readHeader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), source);
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts writing a snapshot of the source file. The snapshot only replaces an existing one when the writer is
+     * committed.
+     */
+    public Writer newWriter(Path snapshot, Path source) throws IOException {
+        return new Writer(snapshot, source);
+    }
+
+    /**
+     * Opens a snapshot which {@link #isCurrent(Path, Path) is current}.
+     *
+     * @param projectedColumns columns to decode, or null for all
+     * @param predicates conditions on columns which all have to match for a row to be returned
+     * @param deduplicatedColumns string columns whose values are taken from the dictionary, or null
+     * @param dictionary dictionary of shared string values, or null
+     */
+    public Reader open(Path snapshot, Path source, Set<String> projectedColumns, Map<String, ColumnPredicate> predicates,
+            Set<String> deduplicatedColumns, StringDictionary dictionary) throws IOException {
+        return new Reader(snapshot, source, projectedColumns, predicates, deduplicatedColumns, dictionary);
+    }
+
+    private void writeHeader(DataOutputStream out, Path source) throws IOException {
+        out.write(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(Files.size(source));
+        out.writeLong(Files.getLastModifiedTime(source).toMillis());
+        writeString(out, clazz.getName());
+        out.writeInt(signatures.size());
+        for (String signature : signatures) {
+            writeString(out, signature);
+        }
+    }
+
+    /**
+     * Reads the header from the start of the buffer, leaving it positioned at the first row group.
+     *
+     * @return true if the header matches the source file and model type
+     */
+    private boolean readHeader(ByteBuffer buffer, Path source) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || buffer.getShort() != VERSION || buffer.getLong() != Files.size(source)
+                || buffer.getLong() != Files.getLastModifiedTime(source).toMillis()
+                || !clazz.getName().equals(readString(buffer))) {
+            return false;
+        }
+        int fieldCount = buffer.getInt();
+        if (fieldCount != signatures.size()) {
+            return false;
+        }
+        for (String signature : signatures) {
+            if (!signature.equals(readString(buffer))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] utf8 = new byte[buffer.getInt()];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes rows to a temporary file, which replaces the snapshot on {@link #commit()}. Closing a writer which has not
+     * been committed discards what was written. A row group which would take the snapshot past the size that can be
+     * mapped fails the writer instead of being written.
+     */
+    public class Writer implements Closeable {
+
+        private final Path snapshot;
+        private final Path temporary;
+        private final DataOutputStream out;
+        private final List<T> rowGroup = new ArrayList<>(ROW_GROUP_SIZE);
+        private boolean committed;
+        private long rowCount;
+        private long size;
+
+        private Writer(Path snapshot, Path source) throws IOException {
+            this.snapshot = snapshot;
+            this.temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+            OutputStream file = Files.newOutputStream(temporary);
+            this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+            writeHeader(out, source);
+            size = out.size();
+        }
+
+        /**
+         * @throws IOException if the snapshot cannot be written, or would be too large to be read
+         */
+        public void add(T row) throws IOException {
+            rowGroup.add(row);
+            if (rowGroup.size() == ROW_GROUP_SIZE) {
+                writeRowGroup();
+            }
+        }
+
+        /**
+         * Completes the snapshot and moves it into place.
+         *
+         * @throws IOException if the snapshot cannot be written, or would be too large to be read
+         */
+        public void commit() throws IOException {
+            writeRowGroup();
+            out.writeInt(0);
+            out.close();
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private void writeRowGroup() throws IOException {
+            if (rowGroup.isEmpty()) {
+                return;
+            }
+            byte[][] vectors = new byte[fields.size()][];
+            // Row count, vector lengths and the end marker after this row group
+            long groupSize = Integer.BYTES * (2L + fields.size());
+            for (int index = 0; index < vectors.length; index++) {
+                vectors[index] = fields.get(index).encode(rowGroup);
+                groupSize += vectors[index].length;
+            }
+            if (size + groupSize > MAX_SNAPSHOT_SIZE) {
+                throw new IOException(String.format("Snapshot %s would be larger than the %d bytes which can be mapped",
+                        snapshot, MAX_SNAPSHOT_SIZE));
+            }
+            out.writeInt(rowGroup.size());
+            for (byte[] vector : vectors) {
+                out.writeInt(vector.length);
+                out.write(vector);
+            }
+            size += groupSize - Integer.BYTES;
+            rowCount += rowGroup.size();
+            rowGroup.clear();
+        }
+    }
+
+    /**
+     * Returns the rows of a snapshot one row group at a time, decoding only the vectors of the projected and filtered
+     * columns.
+     */
+    public class Reader implements Closeable {
+
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final boolean[] decoded;
+        private final boolean[] projected;
+        private final StringDictionary[] dictionaries;
+        private final int[] predicateFields;
+        private final ColumnPredicate[] predicates;
+        private final int presentColumnsField;
+        private final long presentColumnsMask;
+        private final byte[] scratch = new byte[32];
+
+        private SnapshotField.Vector[] vectors;
+        private int row;
+        private int rowCount;
+
+        private Reader(Path snapshot, Path source, Set<String> projectedColumns, Map<String, ColumnPredicate> predicates,
+                Set<String> deduplicatedColumns, StringDictionary dictionary) throws IOException {
+            this.channel = FileChannel.open(snapshot, StandardOpenOption.READ);
+            try {
+                if (channel.size() > MAX_SNAPSHOT_SIZE) {
+                    throw new IOException(String.format("Snapshot %s is too large to map", snapshot));
+                }
+                this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (!readHeader(buffer, source)) {
+                    throw new IOException(String.format("Snapshot %s is not current", snapshot));
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+
+            int fieldCount = fields.size();
+            this.decoded = new boolean[fieldCount];
+            this.projected = new boolean[fieldCount];
+            this.dictionaries = new StringDictionary[fieldCount];
+            this.predicateFields = new int[predicates.size()];
+            this.predicates = new ColumnPredicate[predicates.size()];
+            int presentColumnsField = -1;
+            long presentColumnsMask = 0;
+            for (int index = 0; index < fieldCount; index++) {
+                SnapshotField field = fields.get(index);
+                projected[index] = field.column == null || projectedColumns == null
+                        || projectedColumns.contains(field.column);
+                decoded[index] = projected[index] || predicates.containsKey(field.column);
+                if (field.column != null && deduplicatedColumns != null && deduplicatedColumns.contains(field.column)) {
+                    dictionaries[index] = dictionary;
+                }
+                if (field.field.getName().equals(CompactColumns.PRESENT_COLUMNS_FIELD)) {
+                    presentColumnsField = index;
+                }
+                if (field.compactBit >= 0 && projected[index]) {
+                    presentColumnsMask |= 1L << field.compactBit;
+                }
+            }
+            this.presentColumnsField = presentColumnsField;
+            this.presentColumnsMask = presentColumnsMask;
+
+            int predicateIndex = 0;
+            for (Map.Entry<String, ColumnPredicate> predicate : predicates.entrySet()) {
+                int index = indexOfColumn(predicate.getKey());
+                predicateFields[predicateIndex] = index;
+                this.predicates[predicateIndex++] = predicate.getValue();
+            }
+        }
+
+        /**
+         * @return the next row which matches the predicates, or null at the end of the snapshot
+         */
+        public T next() throws IOException {
+            while (true) {
+                if (vectors == null || row == rowCount) {
+                    if (!readRowGroup()) {
+                        return null;
+                    }
+                }
+                int current = row++;
+                if (matches(current)) {
+                    return materialize(current);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private boolean readRowGroup() {
+            rowCount = buffer.getInt();
+            row = 0;
+            if (rowCount == 0) {
+                vectors = null;
+                return false;
+            }
+            vectors = new SnapshotField.Vector[fields.size()];
+            for (int index = 0; index < fields.size(); index++) {
+                int length = buffer.getInt();
+                int end = buffer.position() + length;
+                if (decoded[index]) {
+                    vectors[index] = fields.get(index).decode(buffer, rowCount, dictionaries[index]);
+                }
+                buffer.position(end);
+            }
+            return true;
+        }
+
+        private boolean matches(int current) {
+            long presentColumns = presentColumnsField >= 0 ? vectors[presentColumnsField].getLong(current) : 0;
+            for (int i = 0; i < predicates.length; i++) {
+                if (!vectors[predicateFields[i]].test(predicates[i], current, presentColumns, scratch)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private T materialize(int current) throws IOException {
+            try {
+                T target = constructor.newInstance();
+                for (int index = 0; index < fields.size(); index++) {
+                    SnapshotField field = fields.get(index);
+                    if (index == presentColumnsField) {
+                        // Compact columns which are not projected read as absent, as with the TSV parser
+                        field.field.setLong(target, vectors[index].getLong(current) & presentColumnsMask);
+                    } else if (projected[index]) {
+                        vectors[index].set(target, current);
+                    }
+                }
+                return target;
+            } catch (ReflectiveOperationException e) {
+                throw new IOException(String.format("Unable to create %s from its snapshot", clazz.getName()), e);
+            }
+        }
+
+        private int indexOfColumn(String column) {
+            for (int index = 0; index < fields.size(); index++) {
+                if (column.equals(fields.get(index).column)) {
+                    return index;
+                }
+            }
+            throw new IllegalArgumentException(String.format("%s has no column %s to filter on", clazz.getName(),
+                    column));
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses the Canvas dump timestamp layout <em>yyyy-MM-dd HH:mm:ss[.ffffff]</em> (UTC, no zone) from text or directly
+ * from the raw bytes of a data file, computing the epoch second arithmetically instead of going through a
+ * <code>DateTimeFormatter</code>.
+ *
+ * <p>The fraction of second is optional, may have up to 6 digits, and is truncated to milliseconds. Results match
+ * those of the <em>yyyy-MM-dd HH:mm:ss</em> pattern with an optional milli-of-second fraction, as previously used by
+ * {@link IsoDateTimeWithOptionalFractionOfSecondDeserializer}, including a day past the end of the month resolving to
+ * its last day and <em>24:00:00</em> resolving to the start of the next day.</p>
+ *
+ * <p>The rows of a dump cluster on a few days, so the epoch second of the start of each recently seen day is kept in a
+ * small cache shared by all threads.</p>
+ */
+public final class CanvasTimestampParser {
+
+    private static final int MIN_LENGTH = "yyyy-MM-dd HH:mm:ss".length();
+    private static final int MAX_FRACTION_DIGITS = 6;
+    private static final long SECONDS_PER_DAY = 86400L;
+    private static final long DAYS_0000_TO_1970 = 719528L;
+    private static final int DAY_CACHE_SIZE = 64;
+
+    /**
+     * Start of a day, by its <em>yyyyMMdd</em> value as written. Entries are immutable, so slots may be replaced
+     * concurrently without locking.
+     */
+    private static final class CachedDay {
+        final int date;
+        final long epochSecond;
+
+        CachedDay(int date, long epochSecond) {
+            this.date = date;
+            this.epochSecond = epochSecond;
+        }
+    }
+
+    private static final CachedDay[] DAY_CACHE = new CachedDay[DAY_CACHE_SIZE];
+
+    private CanvasTimestampParser() {
+    }
+
+    /**
+     * @param bytes buffer holding the ASCII timestamp
+     * @param start index of the first character
+     * @param end index after the last character
+     * @return the timestamp as an instant in UTC
+     * @throws DateTimeParseException if the text does not match the layout or is not a valid date and time
+     */
+    public static Instant parse(byte[] bytes, int start, int end) {
+        int length = end - start;
+        if (length < MIN_LENGTH || length > MIN_LENGTH + 1 + MAX_FRACTION_DIGITS
+                || bytes[start + 4] != '-' || bytes[start + 7] != '-' || bytes[start + 10] != ' '
+                || bytes[start + 13] != ':' || bytes[start + 16] != ':'
+                || (length > MIN_LENGTH && bytes[start + MIN_LENGTH] != '.')) {
+            throw invalid(bytes, start, end);
+        }
+
+        int year = digits(bytes, start, 4, start, end);
+        int month = digits(bytes, start + 5, 2, start, end);
+        int day = digits(bytes, start + 8, 2, start, end);
+        int hour = digits(bytes, start + 11, 2, start, end);
+        int minute = digits(bytes, start + 14, 2, start, end);
+        int second = digits(bytes, start + 17, 2, start, end);
+
+        int millis = 0;
+        int fractionDigits = length - MIN_LENGTH - 1;
+        for (int i = 0; i < fractionDigits; i++) {
+            int digit = digit(bytes, start + MIN_LENGTH + 1 + i, start, end);
+            if (i < 3) {
+                millis = millis * 10 + digit;
+            }
+        }
+        for (int i = fractionDigits; i < 3; i++) {
+            millis *= 10;
+        }
+
+        if (!isValid(month, day, hour, minute, second, millis)) {
+            throw invalid(bytes, start, end);
+        }
+        return toInstant(year, month, day, hour, minute, second, millis);
+    }
+
+    /**
+     * @param text the timestamp
+     * @return the timestamp as an instant in UTC
+     * @throws DateTimeParseException if the text does not match the layout or is not a valid date and time
+     */
+    public static Instant parse(CharSequence text) {
+        int length = text.length();
+        if (length < MIN_LENGTH || length > MIN_LENGTH + 1 + MAX_FRACTION_DIGITS
+                || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != ' '
+                || text.charAt(13) != ':' || text.charAt(16) != ':'
+                || (length > MIN_LENGTH && text.charAt(MIN_LENGTH) != '.')) {
+            throw invalid(text);
+        }
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+
+        int millis = 0;
+        int fractionDigits = length - MIN_LENGTH - 1;
+        for (int i = 0; i < fractionDigits; i++) {
+            int digit = digit(text, MIN_LENGTH + 1 + i);
+            if (i < 3) {
+                millis = millis * 10 + digit;
+            }
+        }
+        for (int i = fractionDigits; i < 3; i++) {
+            millis *= 10;
+        }
+
+        if (!isValid(month, day, hour, minute, second, millis)) {
+            throw invalid(text);
+        }
+        return toInstant(year, month, day, hour, minute, second, millis);
+    }
+
+    /**
+     * As with the smart resolver of the formatter, <em>24:00:00</em> is accepted as the midnight that ends the day.
+     */
+    private static boolean isValid(int month, int day, int hour, int minute, int second, int millis) {
+        return month >= 1 && month <= 12 && day >= 1 && day <= 31 && minute <= 59 && second <= 59
+                && (hour <= 23 || hour == 24 && minute == 0 && second == 0 && millis == 0);
+    }
+
+    private static Instant toInstant(int year, int month, int day, int hour, int minute, int second, int millis) {
+        long epochSecond = startOfDay(year, month, day) + hour * 3600 + minute * 60 + second;
+        return Instant.ofEpochSecond(epochSecond, millis * 1_000_000L);
+    }
+
+    private static long startOfDay(int year, int month, int day) {
+        int date = year * 10000 + month * 100 + day;
+        int slot = (date ^ (date >>> 7)) & (DAY_CACHE_SIZE - 1);
+        CachedDay cached = DAY_CACHE[slot];
+        if (cached != null && cached.date == date) {
+            return cached.epochSecond;
+        }
+
+        // Like the smart resolver of the formatter, a day past the end of the month resolves to its last day
+        long epochSecond = epochDay(year, month, Math.min(day, lengthOfMonth(year, month))) * SECONDS_PER_DAY;
+        DAY_CACHE[slot] = new CachedDay(date, epochSecond);
+        return epochSecond;
+    }
+
+    /**
+     * Same computation as <code>LocalDate.toEpochDay()</code>, without creating the date.
+     */
+    static long epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int digits(byte[] bytes, int offset, int count, int start, int end) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            value = value * 10 + digit(bytes, offset + i, start, end);
+        }
+        return value;
+    }
+
+    private static int digit(byte[] bytes, int index, int start, int end) {
+        int digit = bytes[index] - '0';
+        if (digit < 0 || digit > 9) {
+            throw invalid(bytes, start, end);
+        }
+        return digit;
+    }
+
+    private static int digits(CharSequence text, int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            value = value * 10 + digit(text, offset + i);
+        }
+        return value;
+    }
+
+    private static int digit(CharSequence text, int index) {
+        int digit = text.charAt(index) - '0';
+        if (digit < 0 || digit > 9) {
+            throw invalid(text);
+        }
+        return digit;
+    }
+
+    private static DateTimeParseException invalid(byte[] bytes, int start, int end) {
+        return invalid(new String(bytes, start, end - start, StandardCharsets.US_ASCII));
+    }
+
+    private static DateTimeParseException invalid(CharSequence text) {
+        return new DateTimeParseException("Text '" + text + "' is not a Canvas timestamp", text, 0);
+    }
+}
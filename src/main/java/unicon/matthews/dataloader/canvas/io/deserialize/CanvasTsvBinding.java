@@ -0,0 +1,441 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Binds the tab delimited columns of a Canvas data dump artifact to the fields of its model type, decoding each field
+ * from the raw bytes of the data file for use by {@link CanvasTsvParser}.
+ *
+ * <p>The column order and field mapping come from the same Jackson annotations the <code>CsvMapper</code> path uses
+ * (<code>@JsonPropertyOrder</code>, <code>@JsonProperty</code> and <code>@JsonDeserialize</code>), and each supported
+ * deserializer has a byte level equivalent here, so both paths produce equal objects. Numbers, booleans and
+ * timestamps are decoded without creating an intermediate <code>String</code>, and the primitive fields of
+ * {@link CompactColumns} are set without boxing.</p>
+ *
+ * @param <T> model type to be bound
+ */
+public class CanvasTsvBinding<T> {
+
+    /**
+     * Decodes the bytes of a single field.
+     */
+    @FunctionalInterface
+    interface FieldDecoder {
+        Object decode(byte[] bytes, int start, int end);
+    }
+
+    /**
+     * Decodes the bytes of a single field into the row.
+     */
+    @FunctionalInterface
+    interface ColumnSetter {
+        void set(Object target, byte[] bytes, int start, int end) throws IllegalAccessException;
+    }
+
+    private static final Map<Class<?>, FieldDecoder> DESERIALIZER_DECODERS = new HashMap<>();
+    private static final Map<Class<?>, FieldDecoder> TYPE_DECODERS = new HashMap<>();
+    // Nullable deserializers which may also be used on a primitive field of CompactColumns, by that primitive type
+    private static final Map<Class<?>, Class<?>> COMPACT_DESERIALIZERS = new HashMap<>();
+
+    static {
+        DESERIALIZER_DECODERS.put(NullableLongFieldDeserializer.class,
+                (bytes, start, end) -> isNull(bytes, start, end) ? Optional.empty()
+                        : Optional.of(parseLong(bytes, start, end)));
+        DESERIALIZER_DECODERS.put(NullableIntegerFieldDeserializer.class,
+                (bytes, start, end) -> isNull(bytes, start, end) ? Optional.empty()
+                        : Optional.of(parseInt(bytes, start, end)));
+        DESERIALIZER_DECODERS.put(NullableDoubleFieldDeserializer.class,
+                (bytes, start, end) -> isNull(bytes, start, end) ? Optional.empty()
+                        : Optional.of(Double.valueOf(string(bytes, start, end))));
+        DESERIALIZER_DECODERS.put(NullableBooleanFieldDeserializer.class,
+                (bytes, start, end) -> isNull(bytes, start, end) ? Optional.empty()
+                        : Optional.of(parseBoolean(bytes, start, end)));
+        DESERIALIZER_DECODERS.put(IsoDateTimeWithOptionalFractionOfSecondDeserializer.class,
+                CanvasTimestampParser::parse);
+        DESERIALIZER_DECODERS.put(NullableIsoDateTimeWithOptionalFractionOfSecondDeserializer.class,
+                (bytes, start, end) -> isNull(bytes, start, end) ? Optional.empty()
+                        : Optional.of(CanvasTimestampParser.parse(bytes, start, end)));
+        DESERIALIZER_DECODERS.put(EpochMillisecondsDeserializer.class,
+                (bytes, start, end) -> Instant.ofEpochMilli(parseLong(bytes, start, end)));
+
+        COMPACT_DESERIALIZERS.put(NullableLongFieldDeserializer.class, long.class);
+        COMPACT_DESERIALIZERS.put(NullableIntegerFieldDeserializer.class, int.class);
+        COMPACT_DESERIALIZERS.put(NullableDoubleFieldDeserializer.class, double.class);
+
+        // Jackson coerces an empty column to null for boxed types and to the default value for primitives
+        TYPE_DECODERS.put(String.class, CanvasTsvBinding::string);
+        TYPE_DECODERS.put(Long.class, (bytes, start, end) -> start == end ? null : parseLong(bytes, start, end));
+        TYPE_DECODERS.put(long.class, (bytes, start, end) -> start == end ? 0L : parseLong(bytes, start, end));
+        TYPE_DECODERS.put(Integer.class, (bytes, start, end) -> start == end ? null : parseInt(bytes, start, end));
+        TYPE_DECODERS.put(int.class, (bytes, start, end) -> start == end ? 0 : parseInt(bytes, start, end));
+        TYPE_DECODERS.put(Double.class,
+                (bytes, start, end) -> start == end ? null : Double.valueOf(string(bytes, start, end)));
+        TYPE_DECODERS.put(double.class,
+                (bytes, start, end) -> start == end ? 0d : Double.parseDouble(string(bytes, start, end)));
+        TYPE_DECODERS.put(Boolean.class, (bytes, start, end) -> start == end ? null : parseBoolean(bytes, start, end));
+        TYPE_DECODERS.put(boolean.class, CanvasTsvBinding::parseBoolean);
+    }
+
+    private final Class<T> clazz;
+    private final Constructor<T> constructor;
+    private final String[] columnNames;
+    private final Field[] fields;
+    // Null for columns which are not projected, so they are skipped without decoding
+    private final ColumnSetter[] setters;
+    private final int lastDecodedColumn;
+
+    private CanvasTsvBinding(Class<T> clazz) {
+        this.clazz = clazz;
+
+        JsonPropertyOrder propertyOrder = clazz.getAnnotation(JsonPropertyOrder.class);
+        if (propertyOrder == null) {
+            throw new IllegalArgumentException(String.format("%s has no @JsonPropertyOrder to define its columns",
+                    clazz.getName()));
+        }
+
+        Map<String, Field> fieldsByProperty = fieldsByProperty(clazz);
+
+        this.columnNames = propertyOrder.value();
+        this.fields = new Field[columnNames.length];
+        this.setters = new ColumnSetter[columnNames.length];
+        Field presentColumns = null;
+        for (int column = 0; column < columnNames.length; column++) {
+            Field field = fieldsByProperty.get(columnNames[column]);
+            if (field == null) {
+                throw new IllegalArgumentException(String.format("%s has no field for column %s", clazz.getName(),
+                        columnNames[column]));
+            }
+            field.setAccessible(true);
+            fields[column] = field;
+            if (isCompact(field)) {
+                if (presentColumns == null) {
+                    presentColumns = presentColumnsField();
+                }
+                setters[column] = compactSetterFor(field, column, presentColumns);
+            } else {
+                FieldDecoder decoder = decoderFor(field);
+                setters[column] = (target, bytes, start, end) -> field.set(target, decoder.decode(bytes, start, end));
+            }
+        }
+        this.lastDecodedColumn = columnNames.length - 1;
+
+        try {
+            this.constructor = clazz.getDeclaredConstructor();
+            this.constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(String.format("%s has no no-argument constructor", clazz.getName()), e);
+        }
+    }
+
+    private CanvasTsvBinding(CanvasTsvBinding<T> binding, ColumnSetter[] setters) {
+        this.clazz = binding.clazz;
+        this.constructor = binding.constructor;
+        this.columnNames = binding.columnNames;
+        this.fields = binding.fields;
+        this.setters = setters;
+        int last = -1;
+        for (int column = 0; column < columnNames.length; column++) {
+            if (setters[column] != null) {
+                last = column;
+            }
+        }
+        this.lastDecodedColumn = last;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the type has a field which cannot be decoded from bytes
+     */
+    public static <T> CanvasTsvBinding<T> forType(Class<T> clazz) {
+        return new CanvasTsvBinding<>(clazz);
+    }
+
+    /**
+     * Returns a binding which only decodes the given columns, leaving the fields of all other columns unset.
+     *
+     * @param projectedColumns column names as listed in the <code>@JsonPropertyOrder</code> of the type
+     */
+    public CanvasTsvBinding<T> project(Collection<String> projectedColumns) {
+        ColumnSetter[] projected = new ColumnSetter[columnNames.length];
+        for (int column = 0; column < columnNames.length; column++) {
+            if (projectedColumns.contains(columnNames[column])) {
+                projected[column] = setters[column];
+            }
+        }
+        return new CanvasTsvBinding<>(this, projected);
+    }
+
+    /**
+     * Returns a binding which takes the values of the given string columns from the dictionary, so rows share one
+     * instance per distinct value.
+     *
+     * @param columns names of low cardinality columns of type <code>String</code>
+     * @throws IllegalArgumentException if a column is not a plain <code>String</code> field
+     */
+    public CanvasTsvBinding<T> deduplicate(Collection<String> columns, StringDictionary dictionary) {
+        ColumnSetter[] deduplicated = setters.clone();
+        for (int column = 0; column < columnNames.length; column++) {
+            if (!columns.contains(columnNames[column])) {
+                continue;
+            }
+            Field field = fields[column];
+            JsonDeserialize deserialize = field.getAnnotation(JsonDeserialize.class);
+            if (field.getType() != String.class
+                    || (deserialize != null && deserialize.using() != JsonDeserializer.None.class)) {
+                throw new IllegalArgumentException(String.format("Column %s of %s is not a String field",
+                        columnNames[column], clazz.getName()));
+            }
+            if (deduplicated[column] != null) {
+                deduplicated[column] = (target, bytes, start, end) -> field.set(target,
+                        dictionary.get(bytes, start, end));
+            }
+        }
+        return new CanvasTsvBinding<>(this, deduplicated);
+    }
+
+    public Class<T> getType() {
+        return clazz;
+    }
+
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    /**
+     * @return index of the column with the given name, or -1 if the type has no such column
+     */
+    public int getColumnIndex(String columnName) {
+        for (int column = 0; column < columnNames.length; column++) {
+            if (columnNames[column].equals(columnName)) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return index of the last column which is decoded, so the rest of a line can be skipped without scanning it
+     */
+    public int getLastDecodedColumn() {
+        return lastDecodedColumn;
+    }
+
+    boolean isDecoded(int column) {
+        return setters[column] != null;
+    }
+
+    T newInstance() {
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(String.format("Unable to create %s", clazz.getName()), e);
+        }
+    }
+
+    void set(T target, int column, byte[] bytes, int start, int end) {
+        try {
+            setters[column].set(target, bytes, start, end);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(String.format("Unable to set %s.%s", clazz.getName(),
+                    fields[column].getName()), e);
+        }
+    }
+
+    /**
+     * @return the instance fields of the type by their <code>@JsonProperty</code> name, or field name if they have none
+     */
+    static Map<String, Field> fieldsByProperty(Class<?> clazz) {
+        Map<String, Field> fieldsByProperty = new HashMap<>();
+        for (Class<?> type = clazz; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                JsonProperty property = field.getAnnotation(JsonProperty.class);
+                String name = property != null && !property.value().isEmpty() ? property.value() : field.getName();
+                fieldsByProperty.putIfAbsent(name, field);
+            }
+        }
+        return fieldsByProperty;
+    }
+
+    /**
+     * A primitive field with a nullable deserializer is a compact column, flagged in the present columns field.
+     */
+    static boolean isCompact(Field field) {
+        JsonDeserialize deserialize = field.getAnnotation(JsonDeserialize.class);
+        return field.getType().isPrimitive() && deserialize != null
+                && COMPACT_DESERIALIZERS.get(deserialize.using()) == field.getType();
+    }
+
+    private Field presentColumnsField() {
+        for (Class<?> type = clazz; type != null && type != Object.class; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(CompactColumns.PRESENT_COLUMNS_FIELD);
+                if (field.getType() == long.class) {
+                    field.setAccessible(true);
+                    return field;
+                }
+            } catch (NoSuchFieldException e) {
+                // Look in the superclass
+            }
+        }
+        throw new IllegalArgumentException(String.format("%s has compact columns but no long %s field",
+                clazz.getName(), CompactColumns.PRESENT_COLUMNS_FIELD));
+    }
+
+    private ColumnSetter compactSetterFor(Field field, int column, Field presentColumns) {
+        if (column >= Long.SIZE) {
+            throw new IllegalArgumentException(String.format("Compact column %s of %s is past the first %d columns",
+                    columnNames[column], clazz.getName(), Long.SIZE));
+        }
+        long bit = 1L << column;
+        if (field.getType() == long.class) {
+            return (target, bytes, start, end) -> {
+                if (!isNull(bytes, start, end)) {
+                    field.setLong(target, parseLong(bytes, start, end));
+                    presentColumns.setLong(target, presentColumns.getLong(target) | bit);
+                }
+            };
+        }
+        if (field.getType() == int.class) {
+            return (target, bytes, start, end) -> {
+                if (!isNull(bytes, start, end)) {
+                    field.setInt(target, parseInt(bytes, start, end));
+                    presentColumns.setLong(target, presentColumns.getLong(target) | bit);
+                }
+            };
+        }
+        return (target, bytes, start, end) -> {
+            if (!isNull(bytes, start, end)) {
+                field.setDouble(target, Double.parseDouble(string(bytes, start, end)));
+                presentColumns.setLong(target, presentColumns.getLong(target) | bit);
+            }
+        };
+    }
+
+    private FieldDecoder decoderFor(Field field) {
+        JsonDeserialize deserialize = field.getAnnotation(JsonDeserialize.class);
+        if (deserialize != null && deserialize.using() != JsonDeserializer.None.class) {
+            FieldDecoder decoder = DESERIALIZER_DECODERS.get(deserialize.using());
+            if (decoder == null) {
+                throw new IllegalArgumentException(String.format("Deserializer %s of %s.%s is not supported by the " +
+                        "TSV parser", deserialize.using().getName(), clazz.getName(), field.getName()));
+            }
+            return decoder;
+        }
+
+        FieldDecoder decoder = TYPE_DECODERS.get(field.getType());
+        if (decoder == null) {
+            throw new IllegalArgumentException(String.format("Type %s of %s.%s is not supported by the TSV parser",
+                    field.getType().getName(), clazz.getName(), field.getName()));
+        }
+        return decoder;
+    }
+
+    /**
+     * Matches the <em>\N</em> NULL value case insensitively, as the nullable deserializers do.
+     */
+    static boolean isNull(byte[] bytes, int start, int end) {
+        return end - start == 2 && bytes[start] == '\\' && (bytes[start + 1] == 'N' || bytes[start + 1] == 'n');
+    }
+
+    /**
+     * Compares the field with each of the encoded values, optionally ignoring the case of ASCII letters.
+     */
+    static boolean equalsAny(byte[][] values, byte[] bytes, int start, int end, boolean ignoreCase) {
+        for (byte[] value : values) {
+            if (value.length == end - start && equals(value, bytes, start, ignoreCase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean equals(byte[] value, byte[] bytes, int start, boolean ignoreCase) {
+        for (int i = 0; i < value.length; i++) {
+            int expected = value[i];
+            int actual = bytes[start + i];
+            if (expected != actual && !(ignoreCase && (expected | 0x20) == (actual | 0x20)
+                    && (expected | 0x20) >= 'a' && (expected | 0x20) <= 'z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String string(byte[] bytes, int start, int end) {
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a decimal long with the same rules as <code>Long.parseLong</code>.
+     */
+    static long parseLong(byte[] bytes, int start, int end) {
+        if (start == end) {
+            throw new NumberFormatException("For input string: \"\"");
+        }
+        int index = start;
+        boolean negative = false;
+        if (bytes[index] == '-' || bytes[index] == '+') {
+            negative = bytes[index] == '-';
+            index++;
+            if (index == end) {
+                throw numberFormat(bytes, start, end);
+            }
+        }
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        // Accumulate negatively, as Long.parseLong does, to reach Long.MIN_VALUE without overflow
+        for (; index < end; index++) {
+            int digit = bytes[index] - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                throw numberFormat(bytes, start, end);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw numberFormat(bytes, start, end);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    static int parseInt(byte[] bytes, int start, int end) {
+        long value = parseLong(bytes, start, end);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw numberFormat(bytes, start, end);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Same result as <code>Boolean.valueOf</code>: true only for <em>true</em> in any case.
+     */
+    static boolean parseBoolean(byte[] bytes, int start, int end) {
+        return end - start == 4
+                && (bytes[start] | 0x20) == 't' && (bytes[start + 1] | 0x20) == 'r'
+                && (bytes[start + 2] | 0x20) == 'u' && (bytes[start + 3] | 0x20) == 'e';
+    }
+
+    private static NumberFormatException numberFormat(byte[] bytes, int start, int end) {
+        return new NumberFormatException("For input string: \"" + string(bytes, start, end) + "\"");
+    }
+}
@@ -0,0 +1,232 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Tokenizes a Canvas data dump file, scanning the decompressed bytes for tab and newline delimiters and handing each
+ * field to the {@link CanvasTsvBinding} as a slice of the read buffer, so no line or field <code>String</code> is
+ * created unless the field itself is a string.
+ *
+ * <p>Canvas dump files are tab delimited with <em>\N</em> for NULL and no quoting, so a tab or newline always ends a
+ * field. Lines may end with <em>\n</em> or <em>\r\n</em>, and empty lines are skipped. Unlike the Jackson CSV
+ * parser, a field starting with a double quote is taken literally. A line with more fields than the model has
+ * columns is an error; missing trailing fields are left unset.</p>
+ *
+ * <p>With a projected binding, fields which are not projected are skipped by their delimiters only, and scanning of a
+ * line stops after the last projected or filtered field, so extra trailing fields are not detected.</p>
+ *
+ * <p>A line is tokenized before its row is created, so {@link ColumnPredicate}s on the raw fields can discard it
+ * without creating the row or decoding any of its fields.</p>
+ *
+ * @param <T> model type to be read
+ */
+public class CanvasTsvParser<T> implements Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final CanvasTsvBinding<T> binding;
+    private final InputStream in;
+    private final int[] predicateColumns;
+    private final ColumnPredicate[] predicates;
+    private final int lastScannedColumn;
+    private final int[] fieldStarts;
+    private final int[] fieldEnds;
+
+    private byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    private long lineNumber;
+
+    private long filteredLines;
+
+    public CanvasTsvParser(CanvasTsvBinding<T> binding, InputStream in) {
+        this(binding, Collections.emptyMap(), in);
+    }
+
+    /**
+     * @param predicates conditions on raw fields, by column name, which all have to match for a row to be returned
+     * @throws IllegalArgumentException if a predicate is for a column the binding does not have
+     */
+    public CanvasTsvParser(CanvasTsvBinding<T> binding, Map<String, ColumnPredicate> predicates, InputStream in) {
+        this.binding = binding;
+        this.in = in;
+        this.predicateColumns = new int[predicates.size()];
+        this.predicates = new ColumnPredicate[predicates.size()];
+        int lastColumn = binding.getLastDecodedColumn();
+        int index = 0;
+        for (Map.Entry<String, ColumnPredicate> predicate : predicates.entrySet()) {
+            int column = binding.getColumnIndex(predicate.getKey());
+            if (column < 0) {
+                throw new IllegalArgumentException(String.format("%s has no column %s to filter on",
+                        binding.getType().getSimpleName(), predicate.getKey()));
+            }
+            predicateColumns[index] = column;
+            this.predicates[index++] = predicate.getValue();
+            lastColumn = Math.max(lastColumn, column);
+        }
+        this.lastScannedColumn = lastColumn;
+        this.fieldStarts = new int[binding.getColumnCount()];
+        this.fieldEnds = new int[binding.getColumnCount()];
+    }
+
+    /**
+     * @return the next row, or null at the end of the input
+     * @throws IOException if the input cannot be read or a field cannot be decoded
+     */
+    public T next() throws IOException {
+        while (true) {
+            int lineEnd = findLineEnd();
+            if (lineEnd < 0) {
+                return null;
+            }
+
+            int lineStart = position;
+            position = lineEnd < limit ? lineEnd + 1 : lineEnd;
+            lineNumber++;
+
+            int contentEnd = lineEnd > lineStart && buffer[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (contentEnd > lineStart) {
+                T row = bind(lineStart, contentEnd);
+                if (row != null) {
+                    return row;
+                }
+                filteredLines++;
+            }
+        }
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return number of lines discarded so far because a predicate did not match
+     */
+    public long getFilteredLines() {
+        return filteredLines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Tokenizes the line, then creates and decodes its row if every predicate matches, returning null otherwise.
+     */
+    private T bind(int start, int end) throws IOException {
+        int columnCount = binding.getColumnCount();
+        int fieldCount = tokenize(start, end, columnCount);
+
+        for (int i = 0; i < predicates.length; i++) {
+            int column = predicateColumns[i];
+            // A missing trailing field is tested as empty
+            int fieldStart = column < fieldCount ? fieldStarts[column] : end;
+            int fieldEnd = column < fieldCount ? fieldEnds[column] : end;
+            boolean matches;
+            try {
+                matches = predicates[i].test(buffer, fieldStart, fieldEnd);
+            } catch (RuntimeException e) {
+                throw new IOException(String.format("Unable to filter on column %s of %s on line %d",
+                        binding.getColumnName(column), binding.getType().getSimpleName(), lineNumber), e);
+            }
+            if (!matches) {
+                return null;
+            }
+        }
+
+        T row = binding.newInstance();
+        for (int column = 0; column < fieldCount; column++) {
+            if (binding.isDecoded(column)) {
+                try {
+                    binding.set(row, column, buffer, fieldStarts[column], fieldEnds[column]);
+                } catch (RuntimeException e) {
+                    throw new IOException(String.format("Unable to decode column %s of %s on line %d",
+                            binding.getColumnName(column), binding.getType().getSimpleName(), lineNumber), e);
+                }
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Records the bounds of each field of the line, up to the last column which is decoded or filtered on.
+     *
+     * @return number of fields found
+     */
+    private int tokenize(int start, int end, int columnCount) throws IOException {
+        int fieldStart = start;
+        int column = 0;
+        while (true) {
+            if (column > lastScannedColumn && lastScannedColumn < columnCount - 1) {
+                // Nothing after this column is decoded or filtered on, so the rest of the line is not scanned
+                return column;
+            }
+
+            int fieldEnd = fieldStart;
+            while (fieldEnd < end && buffer[fieldEnd] != '\t') {
+                fieldEnd++;
+            }
+
+            if (column >= columnCount) {
+                throw new IOException(String.format("Line %d has more than the %d columns of %s", lineNumber,
+                        columnCount, binding.getType().getSimpleName()));
+            }
+            fieldStarts[column] = fieldStart;
+            fieldEnds[column] = fieldEnd;
+            column++;
+
+            if (fieldEnd == end) {
+                return column;
+            }
+            fieldStart = fieldEnd + 1;
+        }
+    }
+
+    /**
+     * Returns the index of the newline ending the line at the current position, reading more input as needed, the
+     * limit if the input ends without a newline, or -1 if there is no more input.
+     */
+    private int findLineEnd() throws IOException {
+        int scan = position;
+        while (true) {
+            for (; scan < limit; scan++) {
+                if (buffer[scan] == '\n') {
+                    return scan;
+                }
+            }
+            if (endOfInput) {
+                return limit > position ? limit : -1;
+            }
+            scan -= position;
+            fill();
+        }
+    }
+
+    /**
+     * Moves the unconsumed bytes to the start of the buffer, growing it if a single line fills it, and reads more.
+     */
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            byte[] grown = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, grown, 0, limit);
+            buffer = grown;
+        }
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+}
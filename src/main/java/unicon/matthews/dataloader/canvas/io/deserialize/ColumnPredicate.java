@@ -0,0 +1,78 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Condition on the raw bytes of a single column of a Canvas data dump file, evaluated by the {@link CanvasTsvParser}
+ * while tokenizing a line, so rows which do not match are discarded before their model object is created.
+ *
+ * <p>Values are compared as they appear in the file: <em>\N</em> is a NULL value and a missing trailing field is
+ * empty.</p>
+ */
+@FunctionalInterface
+public interface ColumnPredicate {
+
+    /**
+     * @param bytes buffer holding the field
+     * @param start index of the first byte of the field
+     * @param end index after the last byte of the field
+     * @return true if the row should be kept
+     */
+    boolean test(byte[] bytes, int start, int end);
+
+    default ColumnPredicate and(ColumnPredicate other) {
+        return (bytes, start, end) -> test(bytes, start, end) && other.test(bytes, start, end);
+    }
+
+    default ColumnPredicate negate() {
+        return (bytes, start, end) -> !test(bytes, start, end);
+    }
+
+    /**
+     * Matches fields which are neither NULL nor empty.
+     */
+    static ColumnPredicate notNull() {
+        return (bytes, start, end) -> start < end && !CanvasTsvBinding.isNull(bytes, start, end);
+    }
+
+    static ColumnPredicate equalTo(String value) {
+        return in(Collections.singletonList(value));
+    }
+
+    /**
+     * Matches fields equal to one of the values, compared byte for byte.
+     */
+    static ColumnPredicate in(Collection<String> values) {
+        byte[][] encoded = values.stream().map(value -> value.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+        return (bytes, start, end) -> CanvasTsvBinding.equalsAny(encoded, bytes, start, end, false);
+    }
+
+    /**
+     * Matches fields equal to one of the values, ignoring the case of ASCII letters.
+     */
+    static ColumnPredicate inIgnoreCase(Collection<String> values) {
+        byte[][] encoded = values.stream().map(value -> value.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+        return (bytes, start, end) -> CanvasTsvBinding.equalsAny(encoded, bytes, start, end, true);
+    }
+
+    /**
+     * Matches timestamps at or after the instant; NULL or empty fields do not match.
+     */
+    static ColumnPredicate timestampAtLeast(Instant instant) {
+        return (bytes, start, end) -> start < end && !CanvasTsvBinding.isNull(bytes, start, end)
+                && !CanvasTimestampParser.parse(bytes, start, end).isBefore(instant);
+    }
+
+    /**
+     * Matches timestamps before the instant; NULL or empty fields do not match.
+     */
+    static ColumnPredicate timestampBefore(Instant instant) {
+        return (bytes, start, end) -> start < end && !CanvasTsvBinding.isNull(bytes, start, end)
+                && CanvasTimestampParser.parse(bytes, start, end).isBefore(instant);
+    }
+}
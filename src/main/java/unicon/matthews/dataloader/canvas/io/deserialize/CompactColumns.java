@@ -0,0 +1,79 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+/**
+ * Support for dump models which store nullable numeric columns compactly, as a primitive field plus a bit in a
+ * <code>long presentColumns</code> field, instead of as an <code>Optional</code> of a boxed number.
+ *
+ * <p>A compact column is a primitive <code>long</code>, <code>int</code> or <code>double</code> field annotated with
+ * the matching <code>Nullable*FieldDeserializer</code>. Its bit is its index in the <code>@JsonPropertyOrder</code> of
+ * the model, and is set when the column has a value, so a column which was not read (see
+ * {@link CanvasDataDumpReader#project(String...)}) is absent like a NULL one. The model keeps its
+ * <code>Optional</code> getter and setter for the column, the setter being what the Jackson <code>CsvMapper</code>
+ * calls, while {@link CanvasTsvBinding} sets the primitive and the bit directly.</p>
+ */
+public final class CompactColumns {
+
+    /**
+     * Name of the <code>long</code> field holding the bits of the compact columns which have a value.
+     */
+    public static final String PRESENT_COLUMNS_FIELD = "presentColumns";
+
+    private CompactColumns() {
+    }
+
+    /**
+     * @return index of the column in the <code>@JsonPropertyOrder</code> of the model, to be used as its bit
+     * @throws IllegalArgumentException if the model has no such column, or it is past the 64 columns a bitmask holds
+     */
+    public static int columnIndex(Class<?> type, String column) {
+        int index = Arrays.asList(type.getAnnotation(JsonPropertyOrder.class).value()).indexOf(column);
+        if (index < 0 || index >= Long.SIZE) {
+            throw new IllegalArgumentException(String.format("%s has no column %s within the first %d columns",
+                    type.getName(), column, Long.SIZE));
+        }
+        return index;
+    }
+
+    public static boolean isPresent(long presentColumns, int column) {
+        return (presentColumns & (1L << column)) != 0;
+    }
+
+    /**
+     * @return the present columns with the bit of the column set if the value is present, cleared otherwise
+     */
+    public static long mark(long presentColumns, int column, Optional<?> value) {
+        return value != null && value.isPresent() ? presentColumns | (1L << column) : presentColumns & ~(1L << column);
+    }
+
+    public static Optional<Long> boxedLong(long presentColumns, int column, long value) {
+        return isPresent(presentColumns, column) ? Optional.of(value) : Optional.empty();
+    }
+
+    public static Optional<Integer> boxedInteger(long presentColumns, int column, int value) {
+        return isPresent(presentColumns, column) ? Optional.of(value) : Optional.empty();
+    }
+
+    public static Optional<Double> boxedDouble(long presentColumns, int column, double value) {
+        return isPresent(presentColumns, column) ? Optional.of(value) : Optional.empty();
+    }
+
+    public static OptionalLong optionalLong(long presentColumns, int column, long value) {
+        return isPresent(presentColumns, column) ? OptionalLong.of(value) : OptionalLong.empty();
+    }
+
+    public static OptionalInt optionalInt(long presentColumns, int column, int value) {
+        return isPresent(presentColumns, column) ? OptionalInt.of(value) : OptionalInt.empty();
+    }
+
+    public static OptionalDouble optionalDouble(long presentColumns, int column, double value) {
+        return isPresent(presentColumns, column) ? OptionalDouble.of(value) : OptionalDouble.empty();
+    }
+}
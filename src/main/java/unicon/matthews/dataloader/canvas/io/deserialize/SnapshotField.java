@@ -0,0 +1,407 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Encoding of one model field as a column vector of a {@link CanvasDumpSnapshot} row group.
+ *
+ * <p>Each vector starts with a presence bitmap when the field is nullable, followed by the values: longs, ints,
+ * doubles or booleans as fixed width arrays, instants as an array of epoch seconds and one of nanoseconds, and strings
+ * as a dictionary of distinct UTF-8 values followed by one code per row.</p>
+ */
+final class SnapshotField {
+
+    enum Kind {
+        STRING, LONG, INT, DOUBLE, BOOLEAN, INSTANT
+    }
+
+    /**
+     * How the field holds its value: as a primitive, a nullable boxed value, or an <code>Optional</code>.
+     */
+    enum Holder {
+        PRIMITIVE, BOXED, OPTIONAL
+    }
+
+    private static final Map<Class<?>, Kind> KINDS = new HashMap<>();
+    private static final byte[] NULL_TEXT = CanvasDataFieldValueOptions.NULL.getFieldValue()
+            .getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        KINDS.put(String.class, Kind.STRING);
+        KINDS.put(Long.class, Kind.LONG);
+        KINDS.put(long.class, Kind.LONG);
+        KINDS.put(Integer.class, Kind.INT);
+        KINDS.put(int.class, Kind.INT);
+        KINDS.put(Double.class, Kind.DOUBLE);
+        KINDS.put(double.class, Kind.DOUBLE);
+        KINDS.put(Boolean.class, Kind.BOOLEAN);
+        KINDS.put(boolean.class, Kind.BOOLEAN);
+        KINDS.put(Instant.class, Kind.INSTANT);
+    }
+
+    final Field field;
+    // Dump column of the field, or null for a field which is not a column, such as the present columns of a model
+    final String column;
+    final Kind kind;
+    final Holder holder;
+    // Bit of a compact column in the present columns field, or -1
+    final int compactBit;
+
+    private SnapshotField(Field field, String column, Kind kind, Holder holder, int compactBit) {
+        this.field = field;
+        this.column = column;
+        this.kind = kind;
+        this.holder = holder;
+        this.compactBit = compactBit;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the type of the field cannot be stored in a snapshot
+     */
+    static SnapshotField of(Field field, String column, int compactBit) {
+        Class<?> type = field.getType();
+        Holder holder = type.isPrimitive() ? Holder.PRIMITIVE : Holder.BOXED;
+        if (type == Optional.class) {
+            Type generic = field.getGenericType();
+            Type element = generic instanceof ParameterizedType
+                    ? ((ParameterizedType) generic).getActualTypeArguments()[0] : null;
+            type = element instanceof Class ? (Class<?>) element : null;
+            holder = Holder.OPTIONAL;
+        }
+        Kind kind = type != null ? KINDS.get(type) : null;
+        if (kind == null) {
+            throw new IllegalArgumentException(String.format("Type %s of %s.%s cannot be stored in a snapshot",
+                    field.getGenericType().getTypeName(), field.getDeclaringClass().getName(), field.getName()));
+        }
+        field.setAccessible(true);
+        return new SnapshotField(field, column, kind, holder, compactBit);
+    }
+
+    /**
+     * Identifies the field and its encoding, so a snapshot written for another version of the model is not read.
+     */
+    String signature() {
+        return field.getName() + ":" + holder + ":" + kind;
+    }
+
+    /**
+     * Encodes the field of the rows as a column vector.
+     */
+    byte[] encode(List<?> rows) throws IOException {
+        int rowCount = rows.size();
+        Object[] values = new Object[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            values[row] = valueOf(rows.get(row));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        if (holder != Holder.PRIMITIVE) {
+            long[] presence = new long[words(rowCount)];
+            for (int row = 0; row < rowCount; row++) {
+                if (values[row] != null) {
+                    presence[row >>> 6] |= 1L << row;
+                }
+            }
+            for (long word : presence) {
+                out.writeLong(word);
+            }
+        }
+
+        switch (kind) {
+            case STRING:
+                Map<String, Integer> codes = new HashMap<>();
+                List<String> dictionary = new ArrayList<>();
+                int[] rowCodes = new int[rowCount];
+                for (int row = 0; row < rowCount; row++) {
+                    String value = (String) values[row];
+                    rowCodes[row] = value == null ? -1 : codes.computeIfAbsent(value, key -> {
+                        dictionary.add(key);
+                        return dictionary.size() - 1;
+                    });
+                }
+                out.writeInt(dictionary.size());
+                for (String value : dictionary) {
+                    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(utf8.length);
+                    out.write(utf8);
+                }
+                for (int code : rowCodes) {
+                    out.writeInt(code);
+                }
+                break;
+            case LONG:
+                for (Object value : values) {
+                    out.writeLong(value != null ? (Long) value : 0L);
+                }
+                break;
+            case INT:
+                for (Object value : values) {
+                    out.writeInt(value != null ? (Integer) value : 0);
+                }
+                break;
+            case DOUBLE:
+                for (Object value : values) {
+                    out.writeDouble(value != null ? (Double) value : 0d);
+                }
+                break;
+            case BOOLEAN:
+                for (Object value : values) {
+                    out.writeBoolean(value != null && (Boolean) value);
+                }
+                break;
+            case INSTANT:
+                for (Object value : values) {
+                    out.writeLong(value != null ? ((Instant) value).getEpochSecond() : 0L);
+                }
+                for (Object value : values) {
+                    out.writeInt(value != null ? ((Instant) value).getNano() : 0);
+                }
+                break;
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a column vector encoded by {@link #encode(List)} from the current position of the buffer.
+     *
+     * @param dictionary shared instances for the string values, or null
+     */
+    Vector decode(ByteBuffer buffer, int rowCount, StringDictionary dictionary) {
+        Vector vector = new Vector(rowCount);
+        if (holder != Holder.PRIMITIVE) {
+            vector.presence = new long[words(rowCount)];
+            buffer.asLongBuffer().get(vector.presence);
+            buffer.position(buffer.position() + vector.presence.length * Long.BYTES);
+        }
+
+        switch (kind) {
+            case STRING:
+                int size = buffer.getInt();
+                vector.strings = new String[size];
+                vector.stringBytes = new byte[size][];
+                for (int code = 0; code < size; code++) {
+                    byte[] utf8 = new byte[buffer.getInt()];
+                    buffer.get(utf8);
+                    String value = new String(utf8, StandardCharsets.UTF_8);
+                    vector.stringBytes[code] = utf8;
+                    vector.strings[code] = dictionary != null ? dictionary.intern(value) : value;
+                }
+                vector.ints = new int[rowCount];
+                buffer.asIntBuffer().get(vector.ints);
+                buffer.position(buffer.position() + rowCount * Integer.BYTES);
+                break;
+            case LONG:
+                vector.longs = new long[rowCount];
+                buffer.asLongBuffer().get(vector.longs);
+                buffer.position(buffer.position() + rowCount * Long.BYTES);
+                break;
+            case INT:
+                vector.ints = new int[rowCount];
+                buffer.asIntBuffer().get(vector.ints);
+                buffer.position(buffer.position() + rowCount * Integer.BYTES);
+                break;
+            case DOUBLE:
+                vector.doubles = new double[rowCount];
+                buffer.asDoubleBuffer().get(vector.doubles);
+                buffer.position(buffer.position() + rowCount * Double.BYTES);
+                break;
+            case BOOLEAN:
+                byte[] booleans = new byte[rowCount];
+                buffer.get(booleans);
+                vector.booleans = booleans;
+                break;
+            case INSTANT:
+                vector.longs = new long[rowCount];
+                buffer.asLongBuffer().get(vector.longs);
+                buffer.position(buffer.position() + rowCount * Long.BYTES);
+                vector.ints = new int[rowCount];
+                buffer.asIntBuffer().get(vector.ints);
+                buffer.position(buffer.position() + rowCount * Integer.BYTES);
+                break;
+        }
+        return vector;
+    }
+
+    private Object valueOf(Object row) {
+        Object value;
+        try {
+            value = field.get(row);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(String.format("Unable to read %s.%s", field.getDeclaringClass().getName(),
+                    field.getName()), e);
+        }
+        return holder == Holder.OPTIONAL ? (value != null ? ((Optional<?>) value).orElse(null) : null) : value;
+    }
+
+    private static int words(int rowCount) {
+        return (rowCount + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Decoded values of the field for the rows of a row group.
+     */
+    final class Vector {
+
+        private final int rowCount;
+        private long[] presence;
+        private long[] longs;
+        private int[] ints;
+        private double[] doubles;
+        private byte[] booleans;
+        private String[] strings;
+        private byte[][] stringBytes;
+        // Result of a predicate per string code: 0 not yet tested, 1 matches, 2 does not match
+        private byte[] stringMatches;
+
+        private Vector(int rowCount) {
+            this.rowCount = rowCount;
+        }
+
+        int getRowCount() {
+            return rowCount;
+        }
+
+        long getLong(int row) {
+            return longs[row];
+        }
+
+        /**
+         * Sets the field of the target to the value of the row.
+         */
+        void set(Object target, int row) throws IllegalAccessException {
+            if (holder == Holder.PRIMITIVE) {
+                switch (kind) {
+                    case LONG:
+                        field.setLong(target, longs[row]);
+                        return;
+                    case INT:
+                        field.setInt(target, ints[row]);
+                        return;
+                    case DOUBLE:
+                        field.setDouble(target, doubles[row]);
+                        return;
+                    case BOOLEAN:
+                        field.setBoolean(target, booleans[row] != 0);
+                        return;
+                    default:
+                        throw new IllegalStateException("No primitive " + kind);
+                }
+            }
+            Object value = isPresent(row) ? value(row) : null;
+            field.set(target, holder == Holder.OPTIONAL ? Optional.ofNullable(value) : value);
+        }
+
+        /**
+         * Tests the predicate on the value of the row as it would appear in a dump file: a missing value is
+         * <em>\N</em> for a nullable column and empty otherwise, and timestamps are rendered to milliseconds.
+         *
+         * @param presentColumns present columns of the row, for a compact column
+         * @param scratch buffer for rendering numbers
+         */
+        boolean test(ColumnPredicate predicate, int row, long presentColumns, byte[] scratch) {
+            boolean present = compactBit >= 0 ? CompactColumns.isPresent(presentColumns, compactBit) : isPresent(row);
+            if (!present) {
+                // A boxed field is null for an empty column, while NULL columns are held as absent
+                return holder == Holder.BOXED && compactBit < 0 ? predicate.test(scratch, 0, 0)
+                        : predicate.test(NULL_TEXT, 0, NULL_TEXT.length);
+            }
+            switch (kind) {
+                case STRING:
+                    int code = ints[row];
+                    if (stringMatches == null) {
+                        stringMatches = new byte[strings.length];
+                    }
+                    if (stringMatches[code] == 0) {
+                        byte[] utf8 = stringBytes[code];
+                        stringMatches[code] = predicate.test(utf8, 0, utf8.length) ? (byte) 1 : (byte) 2;
+                    }
+                    return stringMatches[code] == 1;
+                case LONG:
+                    return predicate.test(scratch, 0, renderLong(longs[row], scratch));
+                case INT:
+                    return predicate.test(scratch, 0, renderLong(ints[row], scratch));
+                default:
+                    byte[] text = render(row).getBytes(StandardCharsets.US_ASCII);
+                    return predicate.test(text, 0, text.length);
+            }
+        }
+
+        private boolean isPresent(int row) {
+            return presence == null || (presence[row >>> 6] & (1L << row)) != 0;
+        }
+
+        private Object value(int row) {
+            switch (kind) {
+                case STRING:
+                    return strings[ints[row]];
+                case LONG:
+                    return longs[row];
+                case INT:
+                    return ints[row];
+                case DOUBLE:
+                    return doubles[row];
+                case BOOLEAN:
+                    return booleans[row] != 0;
+                case INSTANT:
+                    return Instant.ofEpochSecond(longs[row], ints[row]);
+                default:
+                    throw new IllegalStateException("Unknown kind " + kind);
+            }
+        }
+
+        private String render(int row) {
+            if (kind == Kind.INSTANT) {
+                LocalDateTime dateTime = LocalDateTime.ofEpochSecond(longs[row], ints[row], ZoneOffset.UTC);
+                return String.format("%04d-%02d-%02d %02d:%02d:%02d.%03d", dateTime.getYear(),
+                        dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour(), dateTime.getMinute(),
+                        dateTime.getSecond(), dateTime.getNano() / 1_000_000);
+            }
+            return String.valueOf(value(row));
+        }
+    }
+
+    /**
+     * Writes the decimal digits of the value to the start of the scratch buffer.
+     *
+     * @return number of bytes written
+     */
+    private static int renderLong(long value, byte[] scratch) {
+        if (value == Long.MIN_VALUE) {
+            byte[] text = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(text, 0, scratch, 0, text.length);
+            return text.length;
+        }
+        int length = 0;
+        long remaining = Math.abs(value);
+        do {
+            scratch[length++] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (value < 0) {
+            scratch[length++] = '-';
+        }
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            byte swap = scratch[i];
+            scratch[i] = scratch[j];
+            scratch[j] = swap;
+        }
+        return length;
+    }
+}
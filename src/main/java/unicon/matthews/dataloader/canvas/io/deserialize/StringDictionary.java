@@ -0,0 +1,120 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Shares one <code>String</code> instance per distinct value of low cardinality dump columns, such as the web
+ * application controller of requests or the workflow state of enrollments, which otherwise get a new instance on every
+ * row. Values are looked up by their UTF-8 bytes, so the TSV parser only creates a <code>String</code> the first time
+ * a value is seen.
+ *
+ * <p>The dictionary stops growing at its maximum size, after which unseen values are returned as new instances, so a
+ * column designated by mistake cannot hold the whole table in memory. Methods are synchronized, as a reader may parse
+ * several data files at the same time.</p>
+ */
+public class StringDictionary {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    private final int maxSize;
+    private byte[][] keys = new byte[64][];
+    private String[] values = new String[64];
+    private int size;
+
+    public StringDictionary() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public StringDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the shared instance of the UTF-8 value held in the given range of bytes
+     */
+    public synchronized String get(byte[] bytes, int start, int end) {
+        int slot = slotOf(bytes, start, end);
+        while (keys[slot] != null) {
+            if (equals(keys[slot], bytes, start, end)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        String value = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        if (size < maxSize) {
+            insert(slot, Arrays.copyOfRange(bytes, start, end), value);
+        }
+        return value;
+    }
+
+    /**
+     * @return the shared instance equal to the value, which becomes the shared instance if there was none
+     */
+    public synchronized String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int slot = slotOf(bytes, 0, bytes.length);
+        while (keys[slot] != null) {
+            if (equals(keys[slot], bytes, 0, bytes.length)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        if (size < maxSize) {
+            insert(slot, bytes, value);
+        }
+        return value;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void insert(int slot, byte[] key, String value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+    }
+
+    private void resize() {
+        byte[][] oldKeys = keys;
+        String[] oldValues = values;
+        keys = new byte[oldKeys.length * 2][];
+        values = new String[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slotOf(oldKeys[i], 0, oldKeys[i].length);
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & (keys.length - 1);
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private int slotOf(byte[] bytes, int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    private static boolean equals(byte[] key, byte[] bytes, int start, int end) {
+        if (key.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != bytes[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
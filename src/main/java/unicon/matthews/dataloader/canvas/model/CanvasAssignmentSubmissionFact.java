@@ -1,22 +1,27 @@
 package unicon.matthews.dataloader.canvas.model;
 
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 
+import unicon.matthews.dataloader.canvas.io.deserialize.CompactColumns;
 import unicon.matthews.dataloader.canvas.io.deserialize.NullableDoubleFieldDeserializer;
 import unicon.matthews.dataloader.canvas.io.deserialize.NullableIntegerFieldDeserializer;
 import unicon.matthews.dataloader.canvas.io.deserialize.NullableLongFieldDeserializer;
 import unicon.matthews.dataloader.canvas.io.deserialize.ReadableCanvasDumpArtifact;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 @Data
+@ToString(exclude = "presentColumns")
 @NoArgsConstructor
-@AllArgsConstructor(suppressConstructorProperties = true)
 @JsonPropertyOrder({ "submission_id", "assignment_id", "course_id", "enrollment_term_id", "user_id", "grader_id", "course_account_id",
         "enrollment_rollup_id", "score", "published_score", "what_if_score",
         "submission_comments_count", "account_id", "assignment_group_id",
@@ -71,7 +76,7 @@ public class CanvasAssignmentSubmissionFact implements ReadableCanvasDumpArtifac
   
   @JsonProperty("grader_id")
   @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-  private Optional<Long> graderId;
+  private long graderId;
   
   @JsonProperty("course_account_id")
   private Long courseAccountId;
@@ -81,43 +86,195 @@ public class CanvasAssignmentSubmissionFact implements ReadableCanvasDumpArtifac
 
   @JsonProperty("score")
   @JsonDeserialize(using = NullableDoubleFieldDeserializer.class)
-  private Optional<Double> score;
+  private double score;
   
   @JsonProperty("published_score")
   @JsonDeserialize(using = NullableDoubleFieldDeserializer.class)
-  private Optional<Double> publishedScore;
+  private double publishedScore;
   
   @JsonProperty("what_if_score")
   @JsonDeserialize(using = NullableDoubleFieldDeserializer.class)
-  private Optional<Double> whatIfScore;
+  private double whatIfScore;
 
   @JsonProperty("submission_comments_count")
   @JsonDeserialize(using = NullableIntegerFieldDeserializer.class)
-  private Optional<Integer> submissionCommentsCount;
+  private int submissionCommentsCount;
   
   @JsonProperty("account_id")
   private Long accountId;
   
   @JsonProperty("assignment_group_id")
   @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-  private Optional<Long> assignmentGroupId;
+  private long assignmentGroupId;
 
   @JsonProperty("group_id")
   @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-  private Optional<Long> groupId;
+  private long groupId;
   
   @JsonProperty("quiz_id")
   @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-  private Optional<Long> quizId;
+  private long quizId;
   
   @JsonProperty("quiz_submission_id")
   @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-  private Optional<Long> quizSubmissionId;
+  private long quizSubmissionId;
   
   @JsonProperty("wiki_id")
   @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-  private Optional<Long> wikiId;
-  
+  private long wikiId;
+
+  /**
+   * Bits of the nullable numeric columns above which have a value, as they are stored in primitive fields (see
+   * <code>CompactColumns</code>) rather than as an <code>Optional</code> of a boxed number for each row.
+   */
+  @JsonIgnore
+  private long presentColumns;
+
+  private static final int GRADER_ID_COLUMN =
+          CompactColumns.columnIndex(CanvasAssignmentSubmissionFact.class, "grader_id");
+  private static final int SCORE_COLUMN = CompactColumns.columnIndex(CanvasAssignmentSubmissionFact.class, "score");
+  private static final int PUBLISHED_SCORE_COLUMN =
+          CompactColumns.columnIndex(CanvasAssignmentSubmissionFact.class, "published_score");
+  private static final int WHAT_IF_SCORE_COLUMN =
+          CompactColumns.columnIndex(CanvasAssignmentSubmissionFact.class, "what_if_score");
+  private static final int SUBMISSION_COMMENTS_COUNT_COLUMN =
+          CompactColumns.columnIndex(CanvasAssignmentSubmissionFact.class, "submission_comments_count");
+  private static final int ASSIGNMENT_GROUP_ID_COLUMN =
+          CompactColumns.columnIndex(CanvasAssignmentSubmissionFact.class, "assignment_group_id");
+  private static final int GROUP_ID_COLUMN =
+          CompactColumns.columnIndex(CanvasAssignmentSubmissionFact.class, "group_id");
+  private static final int QUIZ_ID_COLUMN = CompactColumns.columnIndex(CanvasAssignmentSubmissionFact.class, "quiz_id");
+  private static final int QUIZ_SUBMISSION_ID_COLUMN =
+          CompactColumns.columnIndex(CanvasAssignmentSubmissionFact.class, "quiz_submission_id");
+  private static final int WIKI_ID_COLUMN = CompactColumns.columnIndex(CanvasAssignmentSubmissionFact.class, "wiki_id");
+
+  public Optional<Long> getGraderId() {
+    return CompactColumns.boxedLong(presentColumns, GRADER_ID_COLUMN, graderId);
+  }
+
+  public OptionalLong graderIdValue() {
+    return CompactColumns.optionalLong(presentColumns, GRADER_ID_COLUMN, graderId);
+  }
+
+  public void setGraderId(Optional<Long> graderId) {
+    this.graderId = graderId != null ? graderId.orElse(0L) : 0L;
+    presentColumns = CompactColumns.mark(presentColumns, GRADER_ID_COLUMN, graderId);
+  }
+
+  public Optional<Double> getScore() {
+    return CompactColumns.boxedDouble(presentColumns, SCORE_COLUMN, score);
+  }
+
+  public OptionalDouble scoreValue() {
+    return CompactColumns.optionalDouble(presentColumns, SCORE_COLUMN, score);
+  }
+
+  public void setScore(Optional<Double> score) {
+    this.score = score != null ? score.orElse(0d) : 0d;
+    presentColumns = CompactColumns.mark(presentColumns, SCORE_COLUMN, score);
+  }
+
+  public Optional<Double> getPublishedScore() {
+    return CompactColumns.boxedDouble(presentColumns, PUBLISHED_SCORE_COLUMN, publishedScore);
+  }
+
+  public OptionalDouble publishedScoreValue() {
+    return CompactColumns.optionalDouble(presentColumns, PUBLISHED_SCORE_COLUMN, publishedScore);
+  }
+
+  public void setPublishedScore(Optional<Double> publishedScore) {
+    this.publishedScore = publishedScore != null ? publishedScore.orElse(0d) : 0d;
+    presentColumns = CompactColumns.mark(presentColumns, PUBLISHED_SCORE_COLUMN, publishedScore);
+  }
+
+  public Optional<Double> getWhatIfScore() {
+    return CompactColumns.boxedDouble(presentColumns, WHAT_IF_SCORE_COLUMN, whatIfScore);
+  }
+
+  public OptionalDouble whatIfScoreValue() {
+    return CompactColumns.optionalDouble(presentColumns, WHAT_IF_SCORE_COLUMN, whatIfScore);
+  }
+
+  public void setWhatIfScore(Optional<Double> whatIfScore) {
+    this.whatIfScore = whatIfScore != null ? whatIfScore.orElse(0d) : 0d;
+    presentColumns = CompactColumns.mark(presentColumns, WHAT_IF_SCORE_COLUMN, whatIfScore);
+  }
+
+  public Optional<Integer> getSubmissionCommentsCount() {
+    return CompactColumns.boxedInteger(presentColumns, SUBMISSION_COMMENTS_COUNT_COLUMN, submissionCommentsCount);
+  }
 
+  public OptionalInt submissionCommentsCountValue() {
+    return CompactColumns.optionalInt(presentColumns, SUBMISSION_COMMENTS_COUNT_COLUMN, submissionCommentsCount);
+  }
 
+  public void setSubmissionCommentsCount(Optional<Integer> submissionCommentsCount) {
+    this.submissionCommentsCount = submissionCommentsCount != null ? submissionCommentsCount.orElse(0) : 0;
+    presentColumns = CompactColumns.mark(presentColumns, SUBMISSION_COMMENTS_COUNT_COLUMN, submissionCommentsCount);
+  }
+
+  public Optional<Long> getAssignmentGroupId() {
+    return CompactColumns.boxedLong(presentColumns, ASSIGNMENT_GROUP_ID_COLUMN, assignmentGroupId);
+  }
+
+  public OptionalLong assignmentGroupIdValue() {
+    return CompactColumns.optionalLong(presentColumns, ASSIGNMENT_GROUP_ID_COLUMN, assignmentGroupId);
+  }
+
+  public void setAssignmentGroupId(Optional<Long> assignmentGroupId) {
+    this.assignmentGroupId = assignmentGroupId != null ? assignmentGroupId.orElse(0L) : 0L;
+    presentColumns = CompactColumns.mark(presentColumns, ASSIGNMENT_GROUP_ID_COLUMN, assignmentGroupId);
+  }
+
+  public Optional<Long> getGroupId() {
+    return CompactColumns.boxedLong(presentColumns, GROUP_ID_COLUMN, groupId);
+  }
+
+  public OptionalLong groupIdValue() {
+    return CompactColumns.optionalLong(presentColumns, GROUP_ID_COLUMN, groupId);
+  }
+
+  public void setGroupId(Optional<Long> groupId) {
+    this.groupId = groupId != null ? groupId.orElse(0L) : 0L;
+    presentColumns = CompactColumns.mark(presentColumns, GROUP_ID_COLUMN, groupId);
+  }
+
+  public Optional<Long> getQuizId() {
+    return CompactColumns.boxedLong(presentColumns, QUIZ_ID_COLUMN, quizId);
+  }
+
+  public OptionalLong quizIdValue() {
+    return CompactColumns.optionalLong(presentColumns, QUIZ_ID_COLUMN, quizId);
+  }
+
+  public void setQuizId(Optional<Long> quizId) {
+    this.quizId = quizId != null ? quizId.orElse(0L) : 0L;
+    presentColumns = CompactColumns.mark(presentColumns, QUIZ_ID_COLUMN, quizId);
+  }
+
+  public Optional<Long> getQuizSubmissionId() {
+    return CompactColumns.boxedLong(presentColumns, QUIZ_SUBMISSION_ID_COLUMN, quizSubmissionId);
+  }
+
+  public OptionalLong quizSubmissionIdValue() {
+    return CompactColumns.optionalLong(presentColumns, QUIZ_SUBMISSION_ID_COLUMN, quizSubmissionId);
+  }
+
+  public void setQuizSubmissionId(Optional<Long> quizSubmissionId) {
+    this.quizSubmissionId = quizSubmissionId != null ? quizSubmissionId.orElse(0L) : 0L;
+    presentColumns = CompactColumns.mark(presentColumns, QUIZ_SUBMISSION_ID_COLUMN, quizSubmissionId);
+  }
+
+  public Optional<Long> getWikiId() {
+    return CompactColumns.boxedLong(presentColumns, WIKI_ID_COLUMN, wikiId);
+  }
+
+  public OptionalLong wikiIdValue() {
+    return CompactColumns.optionalLong(presentColumns, WIKI_ID_COLUMN, wikiId);
+  }
+
+  public void setWikiId(Optional<Long> wikiId) {
+    this.wikiId = wikiId != null ? wikiId.orElse(0L) : 0L;
+    presentColumns = CompactColumns.mark(presentColumns, WIKI_ID_COLUMN, wikiId);
+  }
 }
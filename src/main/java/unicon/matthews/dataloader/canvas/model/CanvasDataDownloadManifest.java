@@ -0,0 +1,87 @@
+package unicon.matthews.dataloader.canvas.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Record of the data files of a Canvas data dump which have been completely downloaded, stored beside the
+ * <em>dump-metadata.json</em> of the dump download directory.
+ *
+ * <p>Files are keyed by their path relative to the dump download directory (e.g. <em>requests/filename.gz</em>), so a
+ * later run can skip files which are already complete, and verify them by size and SHA-256 checksum.</p>
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CanvasDataDownloadManifest {
+
+    public static final String FILE_NAME = "download-manifest.json";
+
+    private final String dumpId;
+    private final Map<String, Entry> files;
+
+    public CanvasDataDownloadManifest(final String dumpId) {
+        this(dumpId, null);
+    }
+
+    @JsonCreator
+    public CanvasDataDownloadManifest(
+            @JsonProperty("dumpId") final String dumpId,
+            @JsonProperty("files") final Map<String, Entry> files) {
+        this.dumpId = dumpId;
+        this.files = files != null ? new HashMap<>(files) : new HashMap<>();
+    }
+
+    public String getDumpId() {
+        return dumpId;
+    }
+
+    public synchronized Map<String, Entry> getFiles() {
+        return Collections.unmodifiableMap(new HashMap<>(files));
+    }
+
+    public synchronized Entry getEntry(final String file) {
+        return files.get(file);
+    }
+
+    public synchronized void markCompleted(final String file, final long size, final String sha256) {
+        files.put(file, new Entry(size, sha256, true));
+    }
+
+    public synchronized void remove(final String file) {
+        files.remove(file);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Entry {
+
+        private final long size;
+        private final String sha256;
+        private final boolean completed;
+
+        @JsonCreator
+        public Entry(
+                @JsonProperty("size") final long size,
+                @JsonProperty("sha256") final String sha256,
+                @JsonProperty("completed") final boolean completed) {
+            this.size = size;
+            this.sha256 = sha256;
+            this.completed = completed;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public boolean isCompleted() {
+            return completed;
+        }
+    }
+}
@@ -1,19 +1,22 @@
 package unicon.matthews.dataloader.canvas.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import unicon.matthews.dataloader.canvas.io.deserialize.CompactColumns;
 import unicon.matthews.dataloader.canvas.io.deserialize.NullableLongFieldDeserializer;
 import unicon.matthews.dataloader.canvas.io.deserialize.ReadableCanvasDumpArtifact;
 
 import java.util.Optional;
+import java.util.OptionalLong;
 
 @Data
+@ToString(exclude = "presentColumns")
 @NoArgsConstructor
-@AllArgsConstructor(suppressConstructorProperties = true)
 @JsonPropertyOrder({ "discussion_entry_id", "parent_discussion_entry_id", "user_id", "topic_id", "course_id",
         "enrollment_term_id", "course_account_id", "topic_user_id", "topic_assignment_id", "topic_editor_id",
         "enrollment_rollup_id", "message_length" })
@@ -54,7 +57,7 @@ public class CanvasDiscussionForumEntryFact implements ReadableCanvasDumpArtifac
    */
   @JsonProperty("parent_discussion_entry_id")
   @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-  private Optional<Long> parentDiscussionEntryId;
+  private long parentDiscussionEntryId;
   
   @JsonProperty("user_id")
   private Long userId;
@@ -77,7 +80,7 @@ public class CanvasDiscussionForumEntryFact implements ReadableCanvasDumpArtifac
    */
   @JsonProperty("topic_user_id")
   @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-  private Optional<Long> topicUserId;
+  private long topicUserId;
 
   /**
    * This field is actually optional and may be null (data value <em>\N</em>), even though the Canvas documentation does
@@ -85,7 +88,7 @@ public class CanvasDiscussionForumEntryFact implements ReadableCanvasDumpArtifac
    */
   @JsonProperty("topic_assignment_id")
   @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-  private Optional<Long> topicAssignmentId;
+  private long topicAssignmentId;
 
   /**
    * This field is actually optional and may be null (data value <em>\N</em>), even though the Canvas documentation does
@@ -93,11 +96,79 @@ public class CanvasDiscussionForumEntryFact implements ReadableCanvasDumpArtifac
    */
   @JsonProperty("topic_editor_id")
   @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-  private Optional<Long> topicEditorId;
+  private long topicEditorId;
 
   @JsonProperty("enrollment_rollup_id")
   private Long enrollmentRollupId;
 
   @JsonProperty("message_length")
   private int messageLength;
+
+  /**
+   * Bits of the nullable numeric columns above which have a value, as they are stored in primitive fields (see
+   * <code>CompactColumns</code>) rather than as an <code>Optional</code> of a boxed number for each row.
+   */
+  @JsonIgnore
+  private long presentColumns;
+
+  private static final int PARENT_DISCUSSION_ENTRY_ID_COLUMN =
+          CompactColumns.columnIndex(CanvasDiscussionForumEntryFact.class, "parent_discussion_entry_id");
+  private static final int TOPIC_USER_ID_COLUMN =
+          CompactColumns.columnIndex(CanvasDiscussionForumEntryFact.class, "topic_user_id");
+  private static final int TOPIC_ASSIGNMENT_ID_COLUMN =
+          CompactColumns.columnIndex(CanvasDiscussionForumEntryFact.class, "topic_assignment_id");
+  private static final int TOPIC_EDITOR_ID_COLUMN =
+          CompactColumns.columnIndex(CanvasDiscussionForumEntryFact.class, "topic_editor_id");
+
+  public Optional<Long> getParentDiscussionEntryId() {
+    return CompactColumns.boxedLong(presentColumns, PARENT_DISCUSSION_ENTRY_ID_COLUMN, parentDiscussionEntryId);
+  }
+
+  public OptionalLong parentDiscussionEntryIdValue() {
+    return CompactColumns.optionalLong(presentColumns, PARENT_DISCUSSION_ENTRY_ID_COLUMN, parentDiscussionEntryId);
+  }
+
+  public void setParentDiscussionEntryId(Optional<Long> parentDiscussionEntryId) {
+    this.parentDiscussionEntryId = parentDiscussionEntryId != null ? parentDiscussionEntryId.orElse(0L) : 0L;
+    presentColumns = CompactColumns.mark(presentColumns, PARENT_DISCUSSION_ENTRY_ID_COLUMN, parentDiscussionEntryId);
+  }
+
+  public Optional<Long> getTopicUserId() {
+    return CompactColumns.boxedLong(presentColumns, TOPIC_USER_ID_COLUMN, topicUserId);
+  }
+
+  public OptionalLong topicUserIdValue() {
+    return CompactColumns.optionalLong(presentColumns, TOPIC_USER_ID_COLUMN, topicUserId);
+  }
+
+  public void setTopicUserId(Optional<Long> topicUserId) {
+    this.topicUserId = topicUserId != null ? topicUserId.orElse(0L) : 0L;
+    presentColumns = CompactColumns.mark(presentColumns, TOPIC_USER_ID_COLUMN, topicUserId);
+  }
+
+  public Optional<Long> getTopicAssignmentId() {
+    return CompactColumns.boxedLong(presentColumns, TOPIC_ASSIGNMENT_ID_COLUMN, topicAssignmentId);
+  }
+
+  public OptionalLong topicAssignmentIdValue() {
+    return CompactColumns.optionalLong(presentColumns, TOPIC_ASSIGNMENT_ID_COLUMN, topicAssignmentId);
+  }
+
+  public void setTopicAssignmentId(Optional<Long> topicAssignmentId) {
+    this.topicAssignmentId = topicAssignmentId != null ? topicAssignmentId.orElse(0L) : 0L;
+    presentColumns = CompactColumns.mark(presentColumns, TOPIC_ASSIGNMENT_ID_COLUMN, topicAssignmentId);
+  }
+
+  public Optional<Long> getTopicEditorId() {
+    return CompactColumns.boxedLong(presentColumns, TOPIC_EDITOR_ID_COLUMN, topicEditorId);
+  }
+
+  public OptionalLong topicEditorIdValue() {
+    return CompactColumns.optionalLong(presentColumns, TOPIC_EDITOR_ID_COLUMN, topicEditorId);
+  }
+
+  public void setTopicEditorId(Optional<Long> topicEditorId) {
+    this.topicEditorId = topicEditorId != null ? topicEditorId.orElse(0L) : 0L;
+    presentColumns = CompactColumns.mark(presentColumns, TOPIC_EDITOR_ID_COLUMN, topicEditorId);
+  }
 }
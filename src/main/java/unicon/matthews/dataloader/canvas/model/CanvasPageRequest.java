@@ -1,17 +1,20 @@
 package unicon.matthews.dataloader.canvas.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import unicon.matthews.dataloader.canvas.io.deserialize.CompactColumns;
 import unicon.matthews.dataloader.canvas.io.deserialize.IsoDateTimeWithOptionalFractionOfSecondDeserializer;
 import unicon.matthews.dataloader.canvas.io.deserialize.NullableLongFieldDeserializer;
 import unicon.matthews.dataloader.canvas.io.deserialize.ReadableCanvasDumpArtifact;
 
 import java.time.Instant;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 /**
  * Canvas data dump pageview requests.
@@ -32,8 +35,8 @@ import java.util.Optional;
  * @see <a href="https://portal.inshosteddata.com/docs#requests">Canvas Requests Schema</a>
  */
 @Data
+@ToString(exclude = "presentColumns")
 @NoArgsConstructor
-@AllArgsConstructor(suppressConstructorProperties = true)
 @JsonPropertyOrder({ "id", "timestamp", "timestamp_year", "timestamp_month", "timestamp_day", "user_id", "course_id",
         "root_account_id", "course_account_id", "quiz_id", "discussion_id", "conversation_id", "assignment_id", "url",
         "user_agent", "http_method", "remote_ip", "interaction_micros", "web_application_controller",
@@ -85,7 +88,7 @@ public class CanvasPageRequest implements ReadableCanvasDumpArtifact<CanvasPageR
      */
     @JsonProperty("user_id")
     @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-    private Optional<Long> userId;
+    private long userId;
 
     /**
      * <blockquote>Foreign key in course_dim for the course that owned the page requested. Set to NULL if not
@@ -93,7 +96,7 @@ public class CanvasPageRequest implements ReadableCanvasDumpArtifact<CanvasPageR
      */
     @JsonProperty("course_id")
     @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-    private Optional<Long> courseId;
+    private long courseId;
 
     /**
      * <blockquote>Foreign key in account_dim for the root account on which this request was made.</blockquote>
@@ -109,7 +112,7 @@ public class CanvasPageRequest implements ReadableCanvasDumpArtifact<CanvasPageR
      */
     @JsonProperty("course_account_id")
     @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-    private Optional<Long> courseAccountId;
+    private long courseAccountId;
 
     /**
      * <blockquote>Foreign key in quiz_dim if the page request is for a quiz, otherwise NULL.</blockquote>
@@ -119,28 +122,28 @@ public class CanvasPageRequest implements ReadableCanvasDumpArtifact<CanvasPageR
      */
     @JsonProperty("quiz_id")
     @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-    private Optional<Long> quizId;
+    private long quizId;
 
     /**
      * <blockquote>Foreign key in discussion_dim if page request is for a discussion, otherwise NULL.</blockquote>
      */
     @JsonProperty("discussion_id")
     @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-    private Optional<Long> discussionId;
+    private long discussionId;
 
     /**
      * <blockquote>Foreign key in conversation_dim if page request is for a conversation, otherwise NULL.</blockquote>
      */
     @JsonProperty("conversation_id")
     @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-    private Optional<Long> conversationId;
+    private long conversationId;
 
     /**
      * <blockquote>Assignment foreign key if page request is for an assignment, otherwise NULL.</blockquote>
      */
     @JsonProperty("assignment_id")
     @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-    private Optional<Long> assignmentId;
+    private long assignmentId;
 
     /**
      * <blockquote>URL which was requested.</blockquote>
@@ -205,7 +208,7 @@ public class CanvasPageRequest implements ReadableCanvasDumpArtifact<CanvasPageR
      */
     @JsonProperty("real_user_id")
     @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-    private Optional<Long> realUserId;
+    private long realUserId;
 
     /**
      * <blockquote>ID of the user's session where this request was made.</blockquote>
@@ -218,7 +221,7 @@ public class CanvasPageRequest implements ReadableCanvasDumpArtifact<CanvasPageR
      */
     @JsonProperty("user_agent_id")
     @JsonDeserialize(using = NullableLongFieldDeserializer.class)
-    private Optional<Long> userAgentId;
+    private long userAgentId;
 
     /**
      * <blockquote>HTTP status of the request.</blockquote>
@@ -231,4 +234,143 @@ public class CanvasPageRequest implements ReadableCanvasDumpArtifact<CanvasPageR
      */
     @JsonProperty("http_version")
     private String httpVersion;
+
+    /**
+     * Bits of the nullable numeric columns above which have a value, as they are stored in primitive fields (see
+     * <code>CompactColumns</code>) rather than as an <code>Optional</code> of a boxed number for each row.
+     */
+    @JsonIgnore
+    private long presentColumns;
+
+    private static final int USER_ID_COLUMN = CompactColumns.columnIndex(CanvasPageRequest.class, "user_id");
+    private static final int COURSE_ID_COLUMN = CompactColumns.columnIndex(CanvasPageRequest.class, "course_id");
+    private static final int COURSE_ACCOUNT_ID_COLUMN =
+            CompactColumns.columnIndex(CanvasPageRequest.class, "course_account_id");
+    private static final int QUIZ_ID_COLUMN = CompactColumns.columnIndex(CanvasPageRequest.class, "quiz_id");
+    private static final int DISCUSSION_ID_COLUMN =
+            CompactColumns.columnIndex(CanvasPageRequest.class, "discussion_id");
+    private static final int CONVERSATION_ID_COLUMN =
+            CompactColumns.columnIndex(CanvasPageRequest.class, "conversation_id");
+    private static final int ASSIGNMENT_ID_COLUMN =
+            CompactColumns.columnIndex(CanvasPageRequest.class, "assignment_id");
+    private static final int REAL_USER_ID_COLUMN = CompactColumns.columnIndex(CanvasPageRequest.class, "real_user_id");
+    private static final int USER_AGENT_ID_COLUMN =
+            CompactColumns.columnIndex(CanvasPageRequest.class, "user_agent_id");
+
+    public Optional<Long> getUserId() {
+        return CompactColumns.boxedLong(presentColumns, USER_ID_COLUMN, userId);
+    }
+
+    public OptionalLong userIdValue() {
+        return CompactColumns.optionalLong(presentColumns, USER_ID_COLUMN, userId);
+    }
+
+    public void setUserId(Optional<Long> userId) {
+        this.userId = userId != null ? userId.orElse(0L) : 0L;
+        presentColumns = CompactColumns.mark(presentColumns, USER_ID_COLUMN, userId);
+    }
+
+    public Optional<Long> getCourseId() {
+        return CompactColumns.boxedLong(presentColumns, COURSE_ID_COLUMN, courseId);
+    }
+
+    public OptionalLong courseIdValue() {
+        return CompactColumns.optionalLong(presentColumns, COURSE_ID_COLUMN, courseId);
+    }
+
+    public void setCourseId(Optional<Long> courseId) {
+        this.courseId = courseId != null ? courseId.orElse(0L) : 0L;
+        presentColumns = CompactColumns.mark(presentColumns, COURSE_ID_COLUMN, courseId);
+    }
+
+    public Optional<Long> getCourseAccountId() {
+        return CompactColumns.boxedLong(presentColumns, COURSE_ACCOUNT_ID_COLUMN, courseAccountId);
+    }
+
+    public OptionalLong courseAccountIdValue() {
+        return CompactColumns.optionalLong(presentColumns, COURSE_ACCOUNT_ID_COLUMN, courseAccountId);
+    }
+
+    public void setCourseAccountId(Optional<Long> courseAccountId) {
+        this.courseAccountId = courseAccountId != null ? courseAccountId.orElse(0L) : 0L;
+        presentColumns = CompactColumns.mark(presentColumns, COURSE_ACCOUNT_ID_COLUMN, courseAccountId);
+    }
+
+    public Optional<Long> getQuizId() {
+        return CompactColumns.boxedLong(presentColumns, QUIZ_ID_COLUMN, quizId);
+    }
+
+    public OptionalLong quizIdValue() {
+        return CompactColumns.optionalLong(presentColumns, QUIZ_ID_COLUMN, quizId);
+    }
+
+    public void setQuizId(Optional<Long> quizId) {
+        this.quizId = quizId != null ? quizId.orElse(0L) : 0L;
+        presentColumns = CompactColumns.mark(presentColumns, QUIZ_ID_COLUMN, quizId);
+    }
+
+    public Optional<Long> getDiscussionId() {
+        return CompactColumns.boxedLong(presentColumns, DISCUSSION_ID_COLUMN, discussionId);
+    }
+
+    public OptionalLong discussionIdValue() {
+        return CompactColumns.optionalLong(presentColumns, DISCUSSION_ID_COLUMN, discussionId);
+    }
+
+    public void setDiscussionId(Optional<Long> discussionId) {
+        this.discussionId = discussionId != null ? discussionId.orElse(0L) : 0L;
+        presentColumns = CompactColumns.mark(presentColumns, DISCUSSION_ID_COLUMN, discussionId);
+    }
+
+    public Optional<Long> getConversationId() {
+        return CompactColumns.boxedLong(presentColumns, CONVERSATION_ID_COLUMN, conversationId);
+    }
+
+    public OptionalLong conversationIdValue() {
+        return CompactColumns.optionalLong(presentColumns, CONVERSATION_ID_COLUMN, conversationId);
+    }
+
+    public void setConversationId(Optional<Long> conversationId) {
+        this.conversationId = conversationId != null ? conversationId.orElse(0L) : 0L;
+        presentColumns = CompactColumns.mark(presentColumns, CONVERSATION_ID_COLUMN, conversationId);
+    }
+
+    public Optional<Long> getAssignmentId() {
+        return CompactColumns.boxedLong(presentColumns, ASSIGNMENT_ID_COLUMN, assignmentId);
+    }
+
+    public OptionalLong assignmentIdValue() {
+        return CompactColumns.optionalLong(presentColumns, ASSIGNMENT_ID_COLUMN, assignmentId);
+    }
+
+    public void setAssignmentId(Optional<Long> assignmentId) {
+        this.assignmentId = assignmentId != null ? assignmentId.orElse(0L) : 0L;
+        presentColumns = CompactColumns.mark(presentColumns, ASSIGNMENT_ID_COLUMN, assignmentId);
+    }
+
+    public Optional<Long> getRealUserId() {
+        return CompactColumns.boxedLong(presentColumns, REAL_USER_ID_COLUMN, realUserId);
+    }
+
+    public OptionalLong realUserIdValue() {
+        return CompactColumns.optionalLong(presentColumns, REAL_USER_ID_COLUMN, realUserId);
+    }
+
+    public void setRealUserId(Optional<Long> realUserId) {
+        this.realUserId = realUserId != null ? realUserId.orElse(0L) : 0L;
+        presentColumns = CompactColumns.mark(presentColumns, REAL_USER_ID_COLUMN, realUserId);
+    }
+
+    public Optional<Long> getUserAgentId() {
+        return CompactColumns.boxedLong(presentColumns, USER_AGENT_ID_COLUMN, userAgentId);
+    }
+
+    public OptionalLong userAgentIdValue() {
+        return CompactColumns.optionalLong(presentColumns, USER_AGENT_ID_COLUMN, userAgentId);
+    }
+
+    public void setUserAgentId(Optional<Long> userAgentId) {
+        this.userAgentId = userAgentId != null ? userAgentId.orElse(0L) : 0L;
+        presentColumns = CompactColumns.mark(presentColumns, USER_AGENT_ID_COLUMN, userAgentId);
+    }
 }
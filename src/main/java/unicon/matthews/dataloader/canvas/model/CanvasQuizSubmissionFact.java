@@ -1,11 +1,13 @@
 package unicon.matthews.dataloader.canvas.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import unicon.matthews.dataloader.canvas.io.deserialize.CompactColumns;
 import unicon.matthews.dataloader.canvas.io.deserialize.NullableDoubleFieldDeserializer;
 import unicon.matthews.dataloader.canvas.io.deserialize.NullableIntegerFieldDeserializer;
 import unicon.matthews.dataloader.canvas.io.deserialize.NullableIsoDateTimeWithOptionalFractionOfSecondDeserializer;
@@ -13,6 +15,8 @@ import unicon.matthews.dataloader.canvas.io.deserialize.ReadableCanvasDumpArtifa
 
 import java.time.Instant;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
 
 /**
  * Canvas data dump facts about quiz submissions. This applies to both the latest and historical quiz submission facts.
@@ -32,8 +36,8 @@ import java.util.Optional;
  * @see <a href="https://portal.inshosteddata.com/docs#quiz_submission_historical_fact">Canvas Quiz Submission Historical Fact Schema</a>
  */
 @Data
+@ToString(exclude = "presentColumns")
 @NoArgsConstructor
-@AllArgsConstructor(suppressConstructorProperties = true)
 @JsonPropertyOrder({ "score", "kept_score", "date", "course_id", "enrollment_term_id", "course_account_id", "quiz_id",
         "assignment_id", "user_id", "submission_id", "enrollment_rollup_id",
         "quiz_submission_id_OR_quiz_submission_historical_id", "quiz_points_possible", "score_before_regrade",
@@ -53,7 +57,7 @@ public class CanvasQuizSubmissionFact implements ReadableCanvasDumpArtifact<Canv
      */
     @JsonProperty("score")
     @JsonDeserialize(using = NullableDoubleFieldDeserializer.class)
-    private Optional<Double> score;
+    private double score;
 
     /**
      * <blockquote>For quizzes that allow multiple attempts, this is the actual score that will be associated with the
@@ -63,7 +67,7 @@ public class CanvasQuizSubmissionFact implements ReadableCanvasDumpArtifact<Canv
      */
     @JsonProperty("kept_score")
     @JsonDeserialize(using = NullableDoubleFieldDeserializer.class)
-    private Optional<Double> keptScore;
+    private double keptScore;
 
     /**
      * <blockquote>Contains the same value as 'finished_at'. Provided to support backward compatibility with the
@@ -146,7 +150,7 @@ public class CanvasQuizSubmissionFact implements ReadableCanvasDumpArtifact<Canv
      */
     @JsonProperty("score_before_regrade")
     @JsonDeserialize(using = NullableDoubleFieldDeserializer.class)
-    private Optional<Double> scoreBeforeRegrade;
+    private double scoreBeforeRegrade;
 
     /**
      * <blockquote>Number of points the quiz submission's score was fudged (changed) by. Values can be negative or
@@ -182,5 +186,72 @@ public class CanvasQuizSubmissionFact implements ReadableCanvasDumpArtifact<Canv
      */
     @JsonProperty("time_taken")
     @JsonDeserialize(using = NullableIntegerFieldDeserializer.class)
-    private Optional<Integer> timeTakenInSeconds;
+    private int timeTakenInSeconds;
+
+    /**
+     * Bits of the nullable numeric columns above which have a value, as they are stored in primitive fields (see
+     * <code>CompactColumns</code>) rather than as an <code>Optional</code> of a boxed number for each row.
+     */
+    @JsonIgnore
+    private long presentColumns;
+
+    private static final int SCORE_COLUMN = CompactColumns.columnIndex(CanvasQuizSubmissionFact.class, "score");
+    private static final int KEPT_SCORE_COLUMN =
+            CompactColumns.columnIndex(CanvasQuizSubmissionFact.class, "kept_score");
+    private static final int SCORE_BEFORE_REGRADE_COLUMN =
+            CompactColumns.columnIndex(CanvasQuizSubmissionFact.class, "score_before_regrade");
+    private static final int TIME_TAKEN_IN_SECONDS_COLUMN =
+            CompactColumns.columnIndex(CanvasQuizSubmissionFact.class, "time_taken");
+
+    public Optional<Double> getScore() {
+        return CompactColumns.boxedDouble(presentColumns, SCORE_COLUMN, score);
+    }
+
+    public OptionalDouble scoreValue() {
+        return CompactColumns.optionalDouble(presentColumns, SCORE_COLUMN, score);
+    }
+
+    public void setScore(Optional<Double> score) {
+        this.score = score != null ? score.orElse(0d) : 0d;
+        presentColumns = CompactColumns.mark(presentColumns, SCORE_COLUMN, score);
+    }
+
+    public Optional<Double> getKeptScore() {
+        return CompactColumns.boxedDouble(presentColumns, KEPT_SCORE_COLUMN, keptScore);
+    }
+
+    public OptionalDouble keptScoreValue() {
+        return CompactColumns.optionalDouble(presentColumns, KEPT_SCORE_COLUMN, keptScore);
+    }
+
+    public void setKeptScore(Optional<Double> keptScore) {
+        this.keptScore = keptScore != null ? keptScore.orElse(0d) : 0d;
+        presentColumns = CompactColumns.mark(presentColumns, KEPT_SCORE_COLUMN, keptScore);
+    }
+
+    public Optional<Double> getScoreBeforeRegrade() {
+        return CompactColumns.boxedDouble(presentColumns, SCORE_BEFORE_REGRADE_COLUMN, scoreBeforeRegrade);
+    }
+
+    public OptionalDouble scoreBeforeRegradeValue() {
+        return CompactColumns.optionalDouble(presentColumns, SCORE_BEFORE_REGRADE_COLUMN, scoreBeforeRegrade);
+    }
+
+    public void setScoreBeforeRegrade(Optional<Double> scoreBeforeRegrade) {
+        this.scoreBeforeRegrade = scoreBeforeRegrade != null ? scoreBeforeRegrade.orElse(0d) : 0d;
+        presentColumns = CompactColumns.mark(presentColumns, SCORE_BEFORE_REGRADE_COLUMN, scoreBeforeRegrade);
+    }
+
+    public Optional<Integer> getTimeTakenInSeconds() {
+        return CompactColumns.boxedInteger(presentColumns, TIME_TAKEN_IN_SECONDS_COLUMN, timeTakenInSeconds);
+    }
+
+    public OptionalInt timeTakenInSecondsValue() {
+        return CompactColumns.optionalInt(presentColumns, TIME_TAKEN_IN_SECONDS_COLUMN, timeTakenInSeconds);
+    }
+
+    public void setTimeTakenInSeconds(Optional<Integer> timeTakenInSeconds) {
+        this.timeTakenInSeconds = timeTakenInSeconds != null ? timeTakenInSeconds.orElse(0) : 0;
+        presentColumns = CompactColumns.mark(presentColumns, TIME_TAKEN_IN_SECONDS_COLUMN, timeTakenInSeconds);
+    }
 }
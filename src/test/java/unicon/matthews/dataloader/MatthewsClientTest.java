@@ -0,0 +1,149 @@
+package unicon.matthews.dataloader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import unicon.matthews.oneroster.User;
+
+/**
+ * Posts users through a Matthews stand-in which answers the bulk endpoint with each of the statuses the client tells
+ * apart, checking when it falls back to posting users one at a time and when it keeps using the bulk endpoint.
+ */
+public class MatthewsClientTest {
+
+  private static final String BASE_URL = "http://matthews.test";
+
+  private final List<User> users = Arrays.asList(user("1"), user("2"));
+
+  private MockRestServiceServer server;
+  private MatthewsClient client;
+
+  @Before
+  public void login() {
+    RestTemplate restTemplate = new RestTemplate();
+    server = MockRestServiceServer.bindTo(restTemplate).build();
+    server.expect(requestTo(BASE_URL + "/api/auth/login")).andExpect(method(HttpMethod.POST))
+        .andRespond(withSuccess("{\"token\":\"test-token\"}", MediaType.APPLICATION_JSON));
+
+    client = new MatthewsClient.Builder()
+        .withBaseUrl(BASE_URL)
+        .withHttpHeaders(new HttpHeaders())
+        .withKey("key")
+        .withSecret("secret")
+        .withRestTemplate(restTemplate)
+        .withBulkSize(500)
+        .withMaxInFlightPosts(0)
+        .build();
+  }
+
+  @Test
+  public void postsUsersInBulk() {
+    expectBulkPost(HttpStatus.OK);
+    expectBulkPost(HttpStatus.CREATED);
+
+    client.postUsers(users);
+    client.postUsers(users);
+    server.verify();
+  }
+
+  @Test
+  public void fallsBackWhenBulkPostsAreNotAllowed() {
+    assertFallsBackOn(HttpStatus.METHOD_NOT_ALLOWED);
+  }
+
+  @Test
+  public void fallsBackWhenBulkPostsAreNotImplemented() {
+    assertFallsBackOn(HttpStatus.NOT_IMPLEMENTED);
+  }
+
+  @Test
+  public void fallsBackWhenTheBulkEndpointIsNotFound() {
+    assertFallsBackOn(HttpStatus.NOT_FOUND);
+  }
+
+  /**
+   * A 404 of the single posts as well means an entity of the path is unknown rather than the bulk endpoint, so the
+   * post fails and the bulk endpoint is still used afterwards.
+   */
+  @Test
+  public void failsWhenSinglePostsAreNotFoundEither() {
+    expectBulkPost(HttpStatus.NOT_FOUND);
+    expectSinglePost(HttpStatus.NOT_FOUND);
+    expectBulkPost(HttpStatus.OK);
+
+    try {
+      client.postUsers(users);
+      fail("Expected the post to fail");
+    } catch (HttpClientErrorException e) {
+      assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+    client.postUsers(users);
+    server.verify();
+  }
+
+  @Test
+  public void failsOnOtherBulkErrors() {
+    expectBulkPost(HttpStatus.BAD_REQUEST);
+    expectBulkPost(HttpStatus.OK);
+
+    try {
+      client.postUsers(users);
+      fail("Expected the post to fail");
+    } catch (HttpClientErrorException e) {
+      assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+    client.postUsers(users);
+    server.verify();
+  }
+
+  /**
+   * The first post falls back to single posts, and later posts go straight to them.
+   */
+  private void assertFallsBackOn(HttpStatus bulkStatus) {
+    expectBulkPost(bulkStatus);
+    expectSinglePost(HttpStatus.OK);
+    expectSinglePost(HttpStatus.OK);
+    expectSinglePost(HttpStatus.OK);
+    expectSinglePost(HttpStatus.OK);
+
+    client.postUsers(users);
+    client.postUsers(users);
+    server.verify();
+  }
+
+  private void expectBulkPost(HttpStatus status) {
+    server.expect(requestTo(BASE_URL + "/api/users/bulk")).andExpect(method(HttpMethod.POST))
+        .andRespond(withStatus(status));
+  }
+
+  private void expectSinglePost(HttpStatus status) {
+    server.expect(requestTo(BASE_URL + "/api/users")).andExpect(method(HttpMethod.POST))
+        .andRespond(withStatus(status));
+  }
+
+  private static User user(String sourcedId) {
+    return new User.Builder()
+        .withSourcedId(sourcedId)
+        .withUserId(sourcedId)
+        .withGivenName("Test")
+        .withFamilyName("User " + sourcedId)
+        .build();
+  }
+}
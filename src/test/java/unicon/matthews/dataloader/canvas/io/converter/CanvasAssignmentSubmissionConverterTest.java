@@ -0,0 +1,111 @@
+package unicon.matthews.dataloader.canvas.io.converter;
+
+import org.junit.Before;
+import org.junit.Test;
+import unicon.matthews.caliper.Event;
+import unicon.matthews.dataloader.canvas.model.CanvasAssignmentDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasAssignmentSubmissionDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasAssignmentSubmissionFact;
+import unicon.matthews.dataloader.canvas.model.CanvasCourseSectionDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasEnrollmentDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasUserDimension;
+import unicon.matthews.oneroster.Class;
+import unicon.matthews.oneroster.Enrollment;
+import unicon.matthews.oneroster.LineItem;
+import unicon.matthews.oneroster.User;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Converts a submission fact whose submission and assignment ids differ, against a submission dimension whose id is
+ * the fact's assignment id, so the event shows which <em>submission_dim</em> row the fact was joined to.
+ */
+public class CanvasAssignmentSubmissionConverterTest {
+
+    private static final long SECTION_ID = 500L;
+    private static final long USER_ID = 100L;
+    private static final long ASSIGNMENT_ID = 300L;
+    private static final long SUBMISSION_ID = 900L;
+
+    private final CanvasAssignmentSubmissionConverter converter = new CanvasAssignmentSubmissionConverter();
+
+    private SupportingEntities supportingEntities;
+
+    @Before
+    public void convertRoster() {
+        CanvasCourseSectionDimension sectionDimension = new CanvasCourseSectionDimension();
+        sectionDimension.setId(String.valueOf(SECTION_ID));
+        sectionDimension.setCanvasId(Optional.of(5L));
+        sectionDimension.setName("Section");
+        sectionDimension.setEnrollmentTermId(Optional.empty());
+        sectionDimension.setStartAt(Optional.empty());
+        sectionDimension.setEndAt(Optional.empty());
+        sectionDimension.setWorkflowState("active");
+
+        CanvasUserDimension userDimension = new CanvasUserDimension();
+        userDimension.setId(String.valueOf(USER_ID));
+        userDimension.setCanvasId(Optional.of(1L));
+        userDimension.setRootAccountId(Optional.of(1L));
+        userDimension.setSortableName("Student, Sam");
+
+        CanvasEnrollmentDimension enrollmentDimension = new CanvasEnrollmentDimension();
+        enrollmentDimension.setId("700");
+        enrollmentDimension.setCourseSectionId(Optional.of(SECTION_ID));
+        enrollmentDimension.setUserId(Optional.of(USER_ID));
+        enrollmentDimension.setType("StudentEnrollment");
+        enrollmentDimension.setWorkflowState("active");
+
+        CanvasAssignmentDimension assignmentDimension = new CanvasAssignmentDimension();
+        assignmentDimension.setId(String.valueOf(ASSIGNMENT_ID));
+        assignmentDimension.setCourseId(Optional.of(SECTION_ID));
+        assignmentDimension.setTitle("Essay");
+        assignmentDimension.setDueAt(Optional.empty());
+        assignmentDimension.setWorkflowState("published");
+
+        supportingEntities = SupportingEntities.builder()
+                .userEmailMap(Collections.emptyMap())
+                .canvasUserDimensions(Collections.singletonList(userDimension))
+                .canvasAssignmentSubmissionDimensions(Arrays.asList(
+                        // Another submission of the assignment, whose id happens to be the assignment id
+                        submissionDimension(ASSIGNMENT_ID, Instant.parse("2016-09-01T00:00:00Z")),
+                        submissionDimension(SUBMISSION_ID, Instant.parse("2017-01-22T10:00:00Z"))))
+                .build();
+        Class klass = new CanvasClassConverter().convert(sectionDimension, supportingEntities).get();
+        supportingEntities.setClasses(Collections.singletonMap(klass.getSourcedId(), klass));
+        User user = new CanvasUserConverter().convert(userDimension, supportingEntities).get();
+        supportingEntities.setUsers(Collections.singletonMap(user.getSourcedId(), user));
+        Enrollment enrollment = new CanvasEnrollmentConverter().convert(enrollmentDimension, supportingEntities).get();
+        supportingEntities.setEnrollments(Collections.singletonMap(enrollment.getSourcedId(), enrollment));
+        LineItem lineItem = new CanvasAssignmentConverter().convert(assignmentDimension, supportingEntities).get();
+        supportingEntities.setLineItems(Collections.singletonMap(lineItem.getSourcedId(), lineItem));
+    }
+
+    @Test
+    public void joinsTheSubmissionDimensionBySubmissionId() {
+        CanvasAssignmentSubmissionFact fact = new CanvasAssignmentSubmissionFact();
+        fact.setSubmissionId(SUBMISSION_ID);
+        fact.setAssignmentId(ASSIGNMENT_ID);
+        fact.setCourseId(SECTION_ID);
+        fact.setUserId(USER_ID);
+
+        Event event = converter.convert(fact, supportingEntities).get();
+
+        // The event is timed by the creation of the submission_dim row the fact was joined to
+        assertEquals(LocalDateTime.of(2017, 1, 22, 10, 0), event.getEventTime());
+        assertEquals(String.valueOf(SUBMISSION_ID), event.getObject().getId());
+    }
+
+    private static CanvasAssignmentSubmissionDimension submissionDimension(long id, Instant createdAt) {
+        CanvasAssignmentSubmissionDimension dimension = new CanvasAssignmentSubmissionDimension();
+        dimension.setId(id);
+        dimension.setAssignmentId(ASSIGNMENT_ID);
+        dimension.setCreatedAt(Optional.of(createdAt));
+        return dimension;
+    }
+}
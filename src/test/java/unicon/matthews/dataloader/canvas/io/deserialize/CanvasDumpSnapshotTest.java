@@ -0,0 +1,177 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import unicon.matthews.dataloader.canvas.model.CanvasDataDump;
+import unicon.matthews.dataloader.canvas.model.CanvasDataFile;
+import unicon.matthews.dataloader.canvas.model.CanvasEnrollmentDimension;
+import unicon.matthews.dataloader.canvas.model.CanvasPageRequest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static unicon.matthews.dataloader.canvas.io.deserialize.TestDumps.column;
+import static unicon.matthews.dataloader.canvas.io.deserialize.TestDumps.requestFields;
+
+/**
+ * Round trips data files through their {@link CanvasDumpSnapshot}, which has to return the rows the TSV parser returns
+ * for the same projection, conditions and deduplication, both when the snapshot is written and when it is reused.
+ */
+public class CanvasDumpSnapshotTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private CanvasDataDump requests;
+
+    @Before
+    public void writeRequests() throws Exception {
+        StringBuilder content = new StringBuilder();
+        String[] controllers = { "courses", "wiki_pages", "courses", "login/canvas" };
+        for (int row = 0; row < 10; row++) {
+            String[] fields = requestFields();
+            fields[column("id")] = Integer.toString(row);
+            fields[column("timestamp")] = "2017-01-22 10:15:" + (10 + row) + (row % 2 == 0 ? ".5" : "");
+            fields[column("web_application_controller")] = controllers[row % controllers.length];
+            if (row % 3 == 0) {
+                fields[column("user_id")] = "\\N";
+                fields[column("root_account_id")] = "";
+                fields[column("interaction_micros")] = "";
+            }
+            if (row % 4 == 1) {
+                fields[column("quiz_id")] = Long.toString(Long.MIN_VALUE);
+                fields[column("discussion_id")] = Long.toString(Long.MAX_VALUE);
+                fields[column("real_user_id")] = "0";
+            }
+            content.append(String.join("\t", fields)).append('\n');
+        }
+        requests = TestDumps.dumpOf(temporaryFolder.newFolder().toPath(), "requests", content.toString());
+    }
+
+    @Test
+    public void readsEveryColumnAsParsed() throws Exception {
+        List<CanvasPageRequest> parsed = read(reader(), requests);
+
+        List<CanvasPageRequest> written = read(reader().withSnapshots(), requests);
+        assertTrue(Files.isRegularFile(snapshotOf(CanvasPageRequest.class, requests)));
+        List<CanvasPageRequest> reused = read(reader().withSnapshots(), requests);
+
+        assertEquals(10, parsed.size());
+        assertEquals(parsed, written);
+        assertEquals(parsed, reused);
+        assertEquals(Optional.empty(), reused.get(0).getUserId());
+        assertEquals(null, reused.get(0).getRootAccountId());
+        assertEquals(Optional.of(Long.MIN_VALUE), reused.get(1).getQuizId());
+        assertEquals(Optional.of(Long.MAX_VALUE), reused.get(1).getDiscussionId());
+        // A zero is a value, not a NULL, so its compact bit has to survive the round trip
+        assertEquals(Optional.of(0L), reused.get(1).getRealUserId());
+        assertEquals(Instant.parse("2017-01-22T10:15:10.500Z"), reused.get(0).getTimestamp());
+    }
+
+    @Test
+    public void readsOptionalColumnsAsParsed() throws Exception {
+        String content = String.join("\n",
+                "1\t101\t10000000000001\t201\t3\tStudentEnrollment\tactive\t2016-08-22 00:00:00\t"
+                        + "2016-08-23 12:30:00.25\t\\N\t2017-05-12 00:00:00\t\\N\ttrue\t\\N\t301\t401",
+                "2\t\\N\t10000000000001\t\\N\t\\N\tTeacherEnrollment\tdeleted\t2016-08-22 00:00:00\t"
+                        + "2016-08-22 00:00:00\t2016-09-01 00:00:00\t\\N\t2016-12-01 00:00:00\t\\N\tsis-2\t\\N\t402",
+                "");
+        CanvasDataDump enrollments = TestDumps.dumpOf(temporaryFolder.newFolder().toPath(), "enrollment_dim",
+                content);
+
+        List<CanvasEnrollmentDimension> parsed = read(CanvasDataDumpReader.forType(CanvasEnrollmentDimension.class)
+                .withFastParser(), enrollments);
+        List<CanvasEnrollmentDimension> written = read(CanvasDataDumpReader.forType(CanvasEnrollmentDimension.class)
+                .withSnapshots(), enrollments);
+        List<CanvasEnrollmentDimension> reused = read(CanvasDataDumpReader.forType(CanvasEnrollmentDimension.class)
+                .withSnapshots(), enrollments);
+
+        assertEquals(2, parsed.size());
+        assertEquals(parsed, written);
+        assertEquals(parsed, reused);
+        assertEquals(Optional.empty(), reused.get(1).getCanvasId());
+        assertEquals(Optional.of(true), reused.get(0).getSelfEnrolled());
+        assertEquals(Optional.empty(), reused.get(1).getSelfEnrolled());
+        assertEquals(Optional.empty(), reused.get(0).getStartAt());
+        // String columns hold the NULL marker as is, as they do when parsed
+        assertEquals("\\N", reused.get(0).getSisSourceId());
+        assertEquals("sis-2", reused.get(1).getSisSourceId());
+    }
+
+    @Test
+    public void projectsColumnsAsParsed() throws Exception {
+        String[] columns = { "id", "user_id", "session_id" };
+        List<CanvasPageRequest> parsed = read(reader().project(columns), requests);
+
+        read(reader().withSnapshots(), requests);
+        List<CanvasPageRequest> projected = read(reader().withSnapshots().project(columns), requests);
+
+        assertEquals(parsed, projected);
+        assertEquals(Optional.of(10000000000001L), projected.get(1).getUserId());
+        // Compact columns which are not projected read as absent, although the snapshot holds their values
+        assertEquals(Optional.empty(), projected.get(1).getCourseId());
+        assertEquals(null, projected.get(1).getUrl());
+    }
+
+    @Test
+    public void filtersRowsAsParsed() throws Exception {
+        List<CanvasPageRequest> parsed = read(reader()
+                .where("web_application_controller", ColumnPredicate.in(Arrays.asList("courses", "wiki_pages")))
+                .where("user_id", ColumnPredicate.notNull())
+                .where("timestamp", ColumnPredicate.timestampAtLeast(Instant.parse("2017-01-22T10:15:12Z"))),
+                requests);
+
+        read(reader().withSnapshots(), requests);
+        List<CanvasPageRequest> filtered = read(reader().withSnapshots()
+                .where("web_application_controller", ColumnPredicate.in(Arrays.asList("courses", "wiki_pages")))
+                .where("user_id", ColumnPredicate.notNull())
+                .where("timestamp", ColumnPredicate.timestampAtLeast(Instant.parse("2017-01-22T10:15:12Z"))),
+                requests);
+
+        assertEquals(Arrays.asList("2", "4", "5", "8"), ids(parsed));
+        assertEquals(parsed, filtered);
+    }
+
+    @Test
+    public void deduplicatesStringsAsParsed() throws Exception {
+        List<CanvasPageRequest> parsed = read(reader().deduplicate("web_application_controller"), requests);
+
+        read(reader().withSnapshots(), requests);
+        List<CanvasPageRequest> deduplicated = read(reader().withSnapshots().deduplicate("web_application_controller"),
+                requests);
+
+        assertEquals(parsed, deduplicated);
+        assertSame(deduplicated.get(0).getWebApplicationController(),
+                deduplicated.get(2).getWebApplicationController());
+    }
+
+    private static CanvasDataDumpReader<CanvasPageRequest> reader() throws Exception {
+        return CanvasDataDumpReader.forType(CanvasPageRequest.class).withFastParser();
+    }
+
+    private static <T extends ReadableCanvasDumpArtifact> List<T> read(CanvasDataDumpReader<T> reader,
+            CanvasDataDump dump) throws Exception {
+        return new ArrayList<>(reader.read(dump));
+    }
+
+    private static Path snapshotOf(Class<?> type, CanvasDataDump dump) {
+        CanvasDataFile dataFile = dump.getArtifactsByTable().values().iterator().next().getFiles().get(0);
+        return CanvasDumpSnapshot.forType(type).pathFor(dataFile);
+    }
+
+    private static List<String> ids(List<CanvasPageRequest> rows) {
+        List<String> ids = new ArrayList<>();
+        rows.forEach(row -> ids.add(row.getId()));
+        return ids;
+    }
+}
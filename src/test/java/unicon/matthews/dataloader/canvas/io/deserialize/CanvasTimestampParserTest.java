@@ -0,0 +1,144 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Parses timestamps with the {@link CanvasTimestampParser}, from text and from bytes, and with the formatter that
+ * {@link IsoDateTimeWithOptionalFractionOfSecondDeserializer} used before it, which have to give the same instant, or
+ * all fail.
+ */
+public class CanvasTimestampParserTest {
+
+    private static final DateTimeFormatter PREVIOUS_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .appendFraction(ChronoField.MILLI_OF_SECOND, 0, 6, true)
+            .toFormatter();
+
+    @Test
+    public void truncatesZeroToSixFractionDigitsAsBefore() {
+        assertSameAsBefore("2017-01-22 10:15:30");
+        assertSameAsBefore("2017-01-22 10:15:30.");
+        assertSameAsBefore("2017-01-22 10:15:30.1");
+        assertSameAsBefore("2017-01-22 10:15:30.12");
+        assertSameAsBefore("2017-01-22 10:15:30.123");
+        assertSameAsBefore("2017-01-22 10:15:30.1234");
+        assertSameAsBefore("2017-01-22 10:15:30.12345");
+        assertSameAsBefore("2017-01-22 10:15:30.123456");
+        assertSameAsBefore("2017-01-22 10:15:30.999999");
+        assertEquals(Instant.parse("2017-01-22T10:15:30.123Z"),
+                CanvasTimestampParser.parse("2017-01-22 10:15:30.123456"));
+    }
+
+    @Test
+    public void clampsDaysPastTheEndOfTheMonthAsBefore() {
+        assertSameAsBefore("2017-02-29 10:15:30");
+        assertSameAsBefore("2016-02-29 10:15:30");
+        assertSameAsBefore("2016-02-30 10:15:30");
+        assertSameAsBefore("1900-02-29 10:15:30");
+        assertSameAsBefore("2000-02-31 10:15:30");
+        assertSameAsBefore("2017-04-31 10:15:30");
+        assertSameAsBefore("2017-11-31 23:59:59.999999");
+        assertEquals(Instant.parse("2017-02-28T10:15:30Z"), CanvasTimestampParser.parse("2017-02-30 10:15:30"));
+    }
+
+    @Test
+    public void readsTwentyFourHundredAsTheNextMidnightAsBefore() {
+        assertSameAsBefore("2017-01-22 24:00:00");
+        assertSameAsBefore("2017-01-22 24:00:00.");
+        assertSameAsBefore("2017-01-22 24:00:00.000000");
+        assertSameAsBefore("2017-01-22 24:00:00.0009");
+        assertSameAsBefore("2017-12-31 24:00:00");
+        assertSameAsBefore("2016-02-29 24:00:00");
+        assertSameAsBefore("2017-02-29 24:00:00");
+        assertSameAsBefore("2017-04-31 24:00:00");
+        assertEquals(Instant.parse("2017-01-23T00:00:00Z"), CanvasTimestampParser.parse("2017-01-22 24:00:00"));
+    }
+
+    @Test
+    public void rejectsWhatWasRejectedBefore() {
+        String[] invalid = {
+                "2017-01-22 24:00:01", "2017-01-22 24:01:00", "2017-01-22 24:00:00.001", "2017-01-22 25:00:00",
+                "2017-01-22 10:60:00", "2017-01-22 10:15:60", "2017-00-22 10:15:30", "2017-13-22 10:15:30",
+                "2017-01-00 10:15:30", "2017-01-32 10:15:30", "2017-01-22 10:15:30.1234567", "2017-01-22 10:15:3",
+                "2017-01-22T10:15:30", "2017-01-22 10:15:30,123", "2017-01-22 10:15:30.12a", "2017/01/22 10:15:30",
+                "2017-1-22 10:15:30", "2017-01-22 1a:15:30", ""
+        };
+        for (String text : invalid) {
+            assertSameAsBefore(text);
+        }
+    }
+
+    @Test
+    public void parsesRandomTimestampsAsBefore() {
+        Random random = new Random(20170122L);
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder text = new StringBuilder()
+                    .append(pad(1970 + random.nextInt(100), 4)).append('-')
+                    .append(pad(1 + random.nextInt(12), 2)).append('-')
+                    .append(pad(1 + random.nextInt(31), 2)).append(' ')
+                    .append(pad(random.nextInt(25), 2)).append(':')
+                    .append(pad(random.nextInt(10) == 0 ? 0 : random.nextInt(60), 2)).append(':')
+                    .append(pad(random.nextInt(10) == 0 ? 0 : random.nextInt(60), 2));
+            int fractionDigits = random.nextInt(8) - 1;
+            if (fractionDigits >= 0) {
+                text.append('.');
+                for (int digit = 0; digit < fractionDigits; digit++) {
+                    text.append(random.nextInt(4) == 0 ? 0 : random.nextInt(10));
+                }
+            }
+            assertSameAsBefore(text.toString());
+        }
+    }
+
+    private static void assertSameAsBefore(String text) {
+        Instant expected;
+        try {
+            expected = LocalDateTime.parse(text, PREVIOUS_FORMATTER).atZone(ZoneOffset.UTC).toInstant();
+        } catch (DateTimeParseException e) {
+            expected = null;
+        }
+
+        assertEquals(text, expected, parseText(text));
+        assertEquals(text, expected, parseBytes(text));
+    }
+
+    private static Instant parseText(String text) {
+        try {
+            return CanvasTimestampParser.parse(text);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses the timestamp from the middle of a tab separated line, as the TSV parser does.
+     */
+    private static Instant parseBytes(String text) {
+        byte[] bytes = ("x\t" + text + "\ty").getBytes(StandardCharsets.US_ASCII);
+        try {
+            return CanvasTimestampParser.parse(bytes, 2, 2 + text.length());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String pad(int value, int width) {
+        String digits = String.valueOf(value);
+        while (digits.length() < width) {
+            digits = "0" + digits;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,81 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Compares the byte level decoding of {@link CanvasTsvBinding} with the JDK methods the deserializers of the Jackson
+ * path call, on fields in the middle of a larger buffer.
+ */
+public class CanvasTsvBindingTest {
+
+    @Test
+    public void parsesLongsAsLongParseLongDoes() {
+        String[] valid = { "0", "-0", "+0", "7", "007", "-42", "+42", "10000000000001", "9223372036854775807",
+                "-9223372036854775808" };
+        for (String value : valid) {
+            assertEquals(value, Long.parseLong(value), CanvasTsvBinding.parseLong(bytes(value), 1, value.length() + 1));
+        }
+
+        String[] invalid = { "", "-", "+", "9223372036854775808", "-9223372036854775809", "92233720368547758070",
+                "1.5", "1e3", " 1", "1 ", "0x1F", "--1", "\\N" };
+        for (String value : invalid) {
+            try {
+                Long.parseLong(value);
+                fail(String.format("Long.parseLong accepted %s", value));
+            } catch (NumberFormatException expected) {
+                // Rejected by the JDK, so it has to be rejected below
+            }
+            try {
+                CanvasTsvBinding.parseLong(bytes(value), 1, value.length() + 1);
+                fail(String.format("Expected %s to be rejected", value));
+            } catch (NumberFormatException expected) {
+                // Rejected as by the JDK
+            }
+        }
+    }
+
+    @Test
+    public void parsesIntsWithinTheIntRange() {
+        assertEquals(Integer.MAX_VALUE, CanvasTsvBinding.parseInt(bytes("2147483647"), 1, 11));
+        assertEquals(Integer.MIN_VALUE, CanvasTsvBinding.parseInt(bytes("-2147483648"), 1, 12));
+        try {
+            CanvasTsvBinding.parseInt(bytes("2147483648"), 1, 11);
+            fail("Expected an int overflow to be rejected");
+        } catch (NumberFormatException expected) {
+            // Rejected as by Integer.parseInt
+        }
+    }
+
+    @Test
+    public void parsesBooleansAsBooleanValueOfDoes() {
+        for (String value : new String[] { "true", "TRUE", "True", "false", "FALSE", "t", "1", "yes", "", "truth",
+                "\\N" }) {
+            assertEquals(value, Boolean.valueOf(value),
+                    CanvasTsvBinding.parseBoolean(bytes(value), 1, value.length() + 1));
+        }
+    }
+
+    @Test
+    public void matchesNullMarkerAsTheNullableDeserializersDo() {
+        for (String value : new String[] { "\\N", "\\n" }) {
+            assertTrue(CanvasTsvBinding.isNull(bytes(value), 1, value.length() + 1));
+        }
+        for (String value : new String[] { "", "N", "\\", "\\NN", "NULL", "\\M" }) {
+            assertFalse(value, CanvasTsvBinding.isNull(bytes(value), 1, value.length() + 1));
+        }
+    }
+
+    /**
+     * Surrounds the value with delimiters, so it is decoded from an offset of 1 as a field of a line would be.
+     */
+    private static byte[] bytes(String value) {
+        return ("\t" + value + "\t").getBytes(StandardCharsets.UTF_8);
+    }
+}
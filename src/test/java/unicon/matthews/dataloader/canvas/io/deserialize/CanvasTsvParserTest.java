@@ -0,0 +1,194 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import unicon.matthews.dataloader.canvas.model.CanvasDataDump;
+import unicon.matthews.dataloader.canvas.model.CanvasPageRequest;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static unicon.matthews.dataloader.canvas.io.deserialize.TestDumps.column;
+import static unicon.matthews.dataloader.canvas.io.deserialize.TestDumps.requestFields;
+
+/**
+ * Reads the same <em>requests</em> lines with the Jackson <code>CsvMapper</code> and with the {@link CanvasTsvParser},
+ * which has to produce equal rows, or fail where Jackson fails.
+ */
+public class CanvasTsvParserTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void readsWellFormedLinesAsJacksonDoes() throws Exception {
+        List<CanvasPageRequest> rows = readBothWays(line(requestFields()) + "\n" + line(requestFields()) + "\n");
+
+        assertEquals(2, rows.size());
+        CanvasPageRequest row = rows.get(0);
+        assertEquals(Instant.parse("2017-01-22T10:15:30.123Z"), row.getTimestamp());
+        assertEquals(Optional.of(10000000000001L), row.getUserId());
+        assertEquals(Optional.empty(), row.getQuizId());
+        assertEquals(Long.valueOf(1234), row.getInteractionMicros());
+        assertEquals("HTTP/1.1", row.getHttpVersion());
+    }
+
+    @Test
+    public void readsNullMarkersInEitherCase() throws Exception {
+        String[] fields = requestFields();
+        fields[column("user_id")] = "\\N";
+        fields[column("course_id")] = "\\n";
+        fields[column("session_id")] = "\\N";
+
+        CanvasPageRequest row = readBothWays(line(fields) + "\n").get(0);
+
+        assertEquals(Optional.empty(), row.getUserId());
+        assertEquals(Optional.empty(), row.getCourseId());
+        // Only the nullable deserializers read the marker as NULL, a string column keeps it
+        assertEquals("\\N", row.getSessionId());
+    }
+
+    @Test
+    public void readsEmptyTrailingFieldsAsEmpty() throws Exception {
+        String[] fields = requestFields();
+        fields[column("interaction_micros")] = "";
+        fields[column("http_status")] = "";
+        fields[column("http_version")] = "";
+
+        CanvasPageRequest row = readBothWays(line(fields) + "\n").get(0);
+
+        assertNull(row.getInteractionMicros());
+        assertEquals("", row.getHttpStatus());
+        assertEquals("", row.getHttpVersion());
+    }
+
+    @Test
+    public void leavesMissingTrailingFieldsUnset() throws Exception {
+        String[] fields = requestFields();
+        String[] truncated = new String[column("user_agent_id")];
+        System.arraycopy(fields, 0, truncated, 0, truncated.length);
+
+        CanvasPageRequest row = readBothWays(line(truncated) + "\n").get(0);
+
+        assertEquals(Optional.empty(), row.getUserAgentId());
+        assertNull(row.getHttpStatus());
+        assertNull(row.getHttpVersion());
+    }
+
+    @Test
+    public void readsCrLfLineEndings() throws Exception {
+        String[] second = requestFields();
+        second[column("id")] = "4815162343";
+
+        List<CanvasPageRequest> rows = readBothWays(line(requestFields()) + "\r\n" + line(second) + "\r\n");
+
+        assertEquals(2, rows.size());
+        assertEquals("HTTP/1.1", rows.get(0).getHttpVersion());
+        assertEquals("4815162343", rows.get(1).getId());
+        assertEquals("HTTP/1.1", rows.get(1).getHttpVersion());
+    }
+
+    @Test
+    public void readsLastLineWithoutLineEnding() throws Exception {
+        List<CanvasPageRequest> rows = readBothWays(line(requestFields()) + "\n" + line(requestFields()));
+
+        assertEquals(2, rows.size());
+        assertEquals("HTTP/1.1", rows.get(1).getHttpVersion());
+    }
+
+    @Test
+    public void rejectsLinesWithTooManyColumns() throws Exception {
+        assertBothFail(line(requestFields()) + "\tunexpected\n");
+    }
+
+    @Test
+    public void readsLongLimits() throws Exception {
+        String[] fields = requestFields();
+        fields[column("user_id")] = Long.toString(Long.MIN_VALUE);
+        fields[column("course_id")] = Long.toString(Long.MAX_VALUE);
+        fields[column("root_account_id")] = "+42";
+
+        CanvasPageRequest row = readBothWays(line(fields) + "\n").get(0);
+
+        assertEquals(Optional.of(Long.MIN_VALUE), row.getUserId());
+        assertEquals(Optional.of(Long.MAX_VALUE), row.getCourseId());
+        assertEquals(Long.valueOf(42), row.getRootAccountId());
+    }
+
+    @Test
+    public void rejectsLongOverflow() throws Exception {
+        String[] overMaximum = requestFields();
+        overMaximum[column("user_id")] = "9223372036854775808";
+        assertBothFail(line(overMaximum) + "\n");
+
+        String[] underMinimum = requestFields();
+        underMinimum[column("course_id")] = "-9223372036854775809";
+        assertBothFail(line(underMinimum) + "\n");
+
+        String[] boxedOverMaximum = requestFields();
+        boxedOverMaximum[column("root_account_id")] = "92233720368547758070";
+        assertBothFail(line(boxedOverMaximum) + "\n");
+    }
+
+    @Test
+    public void readsLinesLongerThanTheReadBuffer() throws Exception {
+        StringBuilder userAgent = new StringBuilder();
+        while (userAgent.length() < 200 * 1024) {
+            userAgent.append("Mozilla/5.0 (").append(userAgent.length()).append(") ");
+        }
+        String[] fields = requestFields();
+        fields[column("user_agent")] = userAgent.toString();
+        String[] next = requestFields();
+        next[column("id")] = "4815162343";
+
+        List<CanvasPageRequest> rows = readBothWays(line(requestFields()) + "\n" + line(fields) + "\n" + line(next)
+                + "\n");
+
+        assertEquals(3, rows.size());
+        assertEquals(userAgent.toString(), rows.get(1).getUserAgent());
+        assertEquals("HTTP/1.1", rows.get(1).getHttpVersion());
+        assertEquals("4815162343", rows.get(2).getId());
+    }
+
+    /**
+     * Reads the content with both parsers, asserting they produce equal rows.
+     *
+     * @return the rows read by the TSV parser
+     */
+    private List<CanvasPageRequest> readBothWays(String content) throws Exception {
+        CanvasDataDump dump = TestDumps.dumpOf(temporaryFolder.newFolder().toPath(), "requests", content);
+        List<CanvasPageRequest> jacksonRows = new ArrayList<>(
+                CanvasDataDumpReader.forType(CanvasPageRequest.class).read(dump));
+        List<CanvasPageRequest> fastRows = new ArrayList<>(
+                CanvasDataDumpReader.forType(CanvasPageRequest.class).withFastParser().read(dump));
+        assertEquals(jacksonRows, fastRows);
+        return fastRows;
+    }
+
+    private void assertBothFail(String content) throws Exception {
+        CanvasDataDump dump = TestDumps.dumpOf(temporaryFolder.newFolder().toPath(), "requests", content);
+        assertFails(CanvasDataDumpReader.forType(CanvasPageRequest.class), dump);
+        assertFails(CanvasDataDumpReader.forType(CanvasPageRequest.class).withFastParser(), dump);
+    }
+
+    private static void assertFails(CanvasDataDumpReader<CanvasPageRequest> reader, CanvasDataDump dump)
+            throws Exception {
+        try {
+            reader.read(dump);
+            fail("Expected the read to fail");
+        } catch (IOException expected) {
+            // Both parsers report a malformed line as an IOException
+        }
+    }
+
+    private static String line(String[] fields) {
+        return String.join("\t", fields);
+    }
+}
@@ -0,0 +1,53 @@
+package unicon.matthews.dataloader.canvas.io.deserialize;
+
+import unicon.matthews.dataloader.canvas.model.CanvasDataArtifact;
+import unicon.matthews.dataloader.canvas.model.CanvasDataDump;
+import unicon.matthews.dataloader.canvas.model.CanvasDataFile;
+import unicon.matthews.dataloader.canvas.model.CanvasPageRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes data files of a single table for reader tests, as a downloaded dump holds them.
+ */
+final class TestDumps {
+
+    private TestDumps() {
+    }
+
+    /**
+     * @param content decompressed content of the data file, written as is so line endings can be tested
+     * @return dump holding the table as its only artifact, with the download path of its data file set
+     */
+    static CanvasDataDump dumpOf(Path directory, String table, String content) throws IOException {
+        Path file = directory.resolve(table + "-00000.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        CanvasDataFile dataFile = new CanvasDataFile(file.toUri().toString(), file.getFileName().toString());
+        dataFile.setDownloadPath(file);
+        CanvasDataArtifact artifact = new CanvasDataArtifact(table, false, Collections.singletonList(dataFile));
+        return new CanvasDataDump("1", null, 1, null, "1.0.0", 1, null, "test", true,
+                Collections.singletonMap(table, artifact));
+    }
+
+    /**
+     * @return a <em>requests</em> row with every column set, as tab delimited fields to be adjusted by column index
+     */
+    static String[] requestFields() {
+        return new String[] { "4815162342", "2017-01-22 10:15:30.123", "2017", "1", "22", "10000000000001",
+                "10000000000002", "10000000000001", "\\N", "\\N", "\\N", "\\N", "10000000000003",
+                "/courses/2/assignments/3", "Mozilla/5.0", "GET", "10.0.0.1", "1234", "assignments", "show",
+                "Course", "10000000000002", "\\N", "a1b2c3d4", "\\N", "200", "HTTP/1.1" };
+    }
+
+    static int column(String name) {
+        return CanvasTsvBinding.forType(CanvasPageRequest.class).getColumnIndex(name);
+    }
+}